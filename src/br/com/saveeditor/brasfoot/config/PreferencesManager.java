@@ -39,6 +39,13 @@ public class PreferencesManager {
         this.preferences = load();
     }
 
+    /**
+     * Diretório de configuração (~/.brasfoot-editor/).
+     */
+    public Path getConfigDirectory() {
+        return preferencesFile.getParent();
+    }
+
     /**
      * Obtém a instância singleton.
      */
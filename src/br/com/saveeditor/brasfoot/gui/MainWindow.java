@@ -12,6 +12,7 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.io.File;
 import java.util.Optional;
+import java.util.Stack;
 
 /**
  * Janela principal da aplicação com interface moderna e intuitiva.
@@ -25,7 +26,7 @@ public class MainWindow extends JFrame {
     private final PreferencesManager preferencesManager;
     private FileWatcherService fileWatcherService;
 
-    private NavegacaoState currentState;
+    private volatile NavegacaoState currentState;
 
     // Componentes principais
     private TabManager tabManager;
@@ -41,6 +42,56 @@ public class MainWindow extends JFrame {
         this.preferencesManager = PreferencesManager.getInstance();
         this.fileWatcherService = new FileWatcherService();
 
+        // Cada alteração fica registada no save a que pertence (o da transação, ou o da aba
+        // atual se não veio indicado): salvamento incremental, índice de busca e histórico
+        EditorService.ModificationListener rastreador = new EditorService.ModificationListener() {
+            // Transações abertas, por thread (um SwingWorker pode editar enquanto a EDT edita
+            // outra aba): cada uma grava e fecha no histórico apanhado quando abriu
+            private final ThreadLocal<Stack<TransacaoAberta>> abertas = ThreadLocal.withInitial(Stack::new);
+
+            @Override
+            public void onFieldModified(NavegacaoState doSave, Object dono, String campo, Object anterior, Object novo) {
+                Stack<TransacaoAberta> pilha = abertas.get();
+                TransacaoAberta aberta = pilha.isEmpty() ? null : pilha.peek();
+                NavegacaoState estado = (doSave != null) ? doSave : (aberta != null) ? aberta.estado : currentState;
+                if (estado != null) {
+                    long geracao = estado.getGeracaoEdicao();
+                    estado.registrarModificacao(dono, campo, anterior);
+                    searchService.atualizarIndice(estado, dono, campo, novo, geracao);
+                    EditJournal historico = (aberta != null && aberta.estado == estado)
+                            ? aberta.historico : editorService.getHistorico(estado);
+                    historico.registrar(dono, campo, anterior, novo);
+                }
+            }
+
+            @Override
+            public void onTransacaoIniciada(NavegacaoState doSave, String descricao) {
+                Stack<TransacaoAberta> pilha = abertas.get();
+                NavegacaoState estado = (doSave != null) ? doSave : pilha.isEmpty() ? currentState : pilha.peek().estado;
+                EditJournal historico = (estado != null) ? editorService.getHistorico(estado) : null;
+                if (historico != null) {
+                    historico.abrirTransacao(descricao);
+                }
+                pilha.push(new TransacaoAberta(estado, historico));
+            }
+
+            @Override
+            public void onTransacaoTerminada() {
+                Stack<TransacaoAberta> pilha = abertas.get();
+                TransacaoAberta aberta = pilha.isEmpty() ? null : pilha.pop();
+                if (pilha.isEmpty()) {
+                    abertas.remove();
+                }
+                if (aberta != null && aberta.historico != null) {
+                    aberta.historico.fecharTransacao();
+                }
+            }
+        };
+        editorService.addModificationListener(rastreador);
+        presetService.addModificationListener(rastreador);
+
+        CheckpointService.getInstance().iniciar();
+
         initializeUI();
         applyTheme(); // Aplicar tema inicial
         preferencesManager.restoreWindowState(this);
@@ -142,6 +193,26 @@ public class MainWindow extends JFrame {
             }
         });
 
+        // Ctrl+Z: Desfazer
+        KeyStroke undoKey = KeyStroke.getKeyStroke("control Z");
+        getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(undoKey, "undo");
+        getRootPane().getActionMap().put("undo", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                undo();
+            }
+        });
+
+        // Ctrl+Y: Refazer
+        KeyStroke redoKey = KeyStroke.getKeyStroke("control Y");
+        getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(redoKey, "redo");
+        getRootPane().getActionMap().put("redo", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                redo();
+            }
+        });
+
         // F1: Ajuda
         KeyStroke helpKey = KeyStroke.getKeyStroke("F1");
         getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(helpKey, "help");
@@ -174,10 +245,12 @@ public class MainWindow extends JFrame {
             }
         }
 
-        WelcomeDialog welcome = new WelcomeDialog(this);
+        WelcomeDialog welcome = new WelcomeDialog(this, preferencesManager.getRecentFiles());
         welcome.setVisible(true);
 
-        if (welcome.shouldOpenFile()) {
+        if (welcome.getRecentFile() != null) {
+            loadFile(welcome.getRecentFile());
+        } else if (welcome.shouldOpenFile()) {
             openFile();
         }
     }
@@ -228,10 +301,25 @@ public class MainWindow extends JFrame {
         logPanel.log("📂 Carregando: " + file.getName());
 
         // Usar SwingWorker para não travar a UI
-        SwingWorker<Optional<NavegacaoState>, Void> worker = new SwingWorker<Optional<NavegacaoState>, Void>() {
+        SwingWorker<Optional<NavegacaoState>, Integer> worker = new SwingWorker<Optional<NavegacaoState>, Integer>() {
             @Override
             protected Optional<NavegacaoState> doInBackground() {
-                return saveFileService.carregarSave(file.getAbsolutePath());
+                return saveFileService.carregarSave(file.getAbsolutePath(), (bytesRead, totalBytes) -> {
+                    if (totalBytes > 0) {
+                        publish((int) (bytesRead * 100 / totalBytes));
+                    }
+                });
+            }
+
+            @Override
+            protected void process(java.util.List<Integer> chunks) {
+                // Continua a ser chamado enquanto o dataAfQ é lido em segundo plano
+                int percent = chunks.get(chunks.size() - 1);
+                if (percent < 100) {
+                    statusPanel.setStatus("⏳ Carregando arquivo... " + percent + "%");
+                } else if (isDone()) {
+                    statusPanel.setStatus("✅ Arquivo carregado: " + file.getName());
+                }
             }
 
             @Override
@@ -265,10 +353,59 @@ public class MainWindow extends JFrame {
         worker.execute();
     }
 
+    /**
+     * Abre todos os saves de um diretório em paralelo, uma aba por save.
+     */
+    public void openDirectory() {
+        String startDir = preferencesManager.getDefaultSaveDirectory();
+        if (startDir == null) {
+            startDir = preferencesManager.getLastOpenDirectory();
+        }
+        JFileChooser dirChooser = new JFileChooser(startDir);
+        dirChooser.setDialogTitle("Abrir Todos os Saves de uma Pasta");
+        dirChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (dirChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File dir = dirChooser.getSelectedFile();
+
+        statusPanel.setStatus("⏳ Carregando saves da pasta...");
+        logPanel.log("📚 Carregando pasta: " + dir.getAbsolutePath());
+
+        java.util.concurrent.atomic.AtomicInteger prontos = new java.util.concurrent.atomic.AtomicInteger();
+        BatchLoadService.BatchLoad[] lote = new BatchLoadService.BatchLoad[1];
+        lote[0] = new BatchLoadService(saveFileService).carregarDiretorio(dir, new BatchLoadService.BatchLoadListener() {
+            @Override
+            public void onFileLoaded(File arquivo, NavegacaoState estado, long millis) {
+                int n = prontos.incrementAndGet();
+                SwingUtilities.invokeLater(() -> {
+                    createNewTab(estado, arquivo.getAbsolutePath());
+                    logPanel.log("✅ " + arquivo.getName() + " (" + millis + " ms)");
+                    statusPanel.setStatus("⏳ Carregando saves da pasta... " + n + "/" + lote[0].getTotalArquivos());
+                });
+            }
+
+            @Override
+            public void onFileFailed(File arquivo, Exception erro, long millis) {
+                prontos.incrementAndGet();
+                SwingUtilities.invokeLater(() -> logPanel.log("❌ " + arquivo.getName() + ": " + erro.getMessage()));
+            }
+
+            @Override
+            public void onFinished(int carregados, int falhas, long millisTotal) {
+                SwingUtilities.invokeLater(() -> {
+                    statusPanel.setStatus("✅ " + carregados + " save(s) carregado(s) em " + millisTotal + " ms"
+                            + (falhas > 0 ? " (" + falhas + " com erro)" : ""));
+                    logPanel.log("📚 Pasta carregada: " + carregados + " ok, " + falhas + " erro(s), " + millisTotal + " ms");
+                });
+            }
+        });
+    }
+
     /**
      * Cria uma nova aba para um arquivo carregado.
      */
-    private void createNewTab(NavegacaoState state, String filePath) {
+    private EditorTab createNewTab(NavegacaoState state, String filePath) {
         NavigationPanel navPanel = new NavigationPanel(this);
         DataTablePanel dataPanel = new DataTablePanel(this);
 
@@ -277,9 +414,63 @@ public class MainWindow extends JFrame {
 
         EditorTab tab = new EditorTab(state, navPanel, dataPanel, filePath);
         tabManager.addTab(tab);
+        CheckpointService.getInstance().registrar(state);
+        searchService.indexarEmSegundoPlano(state);
 
         toolBarPanel.enableActions(true);
         updateTitle();
+        return tab;
+    }
+
+    /**
+     * Restaura um checkpoint da sessão numa nova aba.
+     */
+    public void restoreCheckpoint() {
+        CheckpointService checkpointService = CheckpointService.getInstance();
+        JFileChooser fileChooser = new JFileChooser(checkpointService.getDiretorio().toFile());
+        fileChooser.setDialogTitle("Restaurar Checkpoint da Sessão");
+        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
+                "Checkpoints (*.ckpt)", "ckpt"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+
+        statusPanel.setStatus("⏳ Restaurando checkpoint...");
+        logPanel.log("🕘 Restaurando: " + file.getName());
+
+        SwingWorker<Optional<NavegacaoState>, Void> worker = new SwingWorker<Optional<NavegacaoState>, Void>() {
+            @Override
+            protected Optional<NavegacaoState> doInBackground() {
+                return saveFileService.restaurarCheckpoint(file.toPath());
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    Optional<NavegacaoState> result = get();
+                    if (result.isPresent()) {
+                        NavegacaoState state = result.get();
+                        currentState = state;
+                        // O conteúdo difere do .s22 em disco até ser salvo
+                        createNewTab(state, state.getCaminhoArquivoOriginal()).setModified(true);
+                        statusPanel.setStatus("✅ Checkpoint restaurado: " + file.getName());
+                        logPanel.log("✅ Checkpoint restaurado com sucesso!");
+                    } else {
+                        JOptionPane.showMessageDialog(MainWindow.this,
+                                "Não foi possível restaurar o checkpoint.",
+                                "Erro",
+                                JOptionPane.ERROR_MESSAGE);
+                        statusPanel.setStatus("❌ Erro ao restaurar checkpoint");
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    logPanel.log("❌ Erro: " + e.getMessage());
+                    statusPanel.setStatus("❌ Erro");
+                }
+            }
+        };
+        worker.execute();
     }
 
     /**
@@ -295,18 +486,18 @@ public class MainWindow extends JFrame {
             return;
         }
 
-        // Criar nova aba com o mesmo state raiz mas navegação independente
+        // Criar nova aba com uma cópia em memória do state e navegação independente
         String filePath = currentTab.getFilePath();
+        NavegacaoState sourceState = currentTab.getState();
 
-        // Recarregar o arquivo para ter um state independente
         statusPanel.setStatus("⏳ Duplicando aba...");
         logPanel.log("📋 Duplicando: " + currentTab.getFileName());
 
         SwingWorker<Optional<NavegacaoState>, Void> worker = new SwingWorker<Optional<NavegacaoState>, Void>() {
             @Override
             protected Optional<NavegacaoState> doInBackground() {
-                // Recarregar o mesmo arquivo
-                return saveFileService.carregarSave(filePath);
+                // Copiar o grafo em memória, sem reler o disco
+                return saveFileService.duplicarEstado(sourceState);
             }
 
             @Override
@@ -384,6 +575,43 @@ public class MainWindow extends JFrame {
         }
     }
 
+    /**
+     * Desfaz a última edição da aba atual.
+     */
+    public void undo() {
+        desfazerOuRefazer(true);
+    }
+
+    /**
+     * Refaz a última edição desfeita na aba atual.
+     */
+    public void redo() {
+        desfazerOuRefazer(false);
+    }
+
+    private void desfazerOuRefazer(boolean desfazer) {
+        EditorTab currentTab = tabManager.getCurrentTab();
+        if (currentTab == null || currentState == null) {
+            return;
+        }
+        try {
+            String descricao = desfazer ? editorService.desfazer(currentState) : editorService.refazer(currentState);
+            if (descricao == null) {
+                statusPanel.setStatus(desfazer ? "ℹ Nada para desfazer" : "ℹ Nada para refazer");
+                return;
+            }
+            currentTab.setModified(true);
+            refreshView();
+            logPanel.log((desfazer ? "↩ Desfeito: " : "↪ Refeito: ") + descricao);
+            statusPanel.setStatus("✅ Modificado (não salvo)");
+        } catch (IllegalStateException | IllegalAccessException e) {
+            JOptionPane.showMessageDialog(this,
+                    e.getMessage(),
+                    "Aviso",
+                    JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
     public void showSearchDialog() {
         if (currentState == null) {
             JOptionPane.showMessageDialog(this,
@@ -395,6 +623,12 @@ public class MainWindow extends JFrame {
 
         SearchDialog searchDialog = new SearchDialog(this, currentState, searchService);
         searchDialog.setVisible(true);
+
+        if (searchDialog.getDestino() != null) {
+            currentState.irPara(searchDialog.getDestino());
+            refreshView();
+            logPanel.log("📍 Navegou para " + searchDialog.getDestinoCaminho());
+        }
     }
 
     public void showHelpDialog() {
@@ -436,7 +670,7 @@ public class MainWindow extends JFrame {
             return;
         }
 
-        SearchPlayerDialog dialog = new SearchPlayerDialog(this, currentTab.getState(), editorService);
+        SearchPlayerDialog dialog = new SearchPlayerDialog(this, currentTab.getState(), editorService, searchService);
         dialog.setVisible(true);
 
         if (dialog.wasEdited()) {
@@ -560,4 +794,17 @@ public class MainWindow extends JFrame {
         logPanel.log("👋 Encerrando aplicação...");
         System.exit(0);
     }
-}
\ No newline at end of file
+
+    /**
+     * Uma transação aberta: o save e o histórico em que começou (null sem save).
+     */
+    private static final class TransacaoAberta {
+        final NavegacaoState estado;
+        final EditJournal historico;
+
+        TransacaoAberta(NavegacaoState estado, EditJournal historico) {
+            this.estado = estado;
+            this.historico = historico;
+        }
+    }
+}
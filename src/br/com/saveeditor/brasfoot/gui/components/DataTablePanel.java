@@ -3,6 +3,8 @@ package br.com.saveeditor.brasfoot.gui.components;
 import br.com.saveeditor.brasfoot.gui.MainWindow;
 import br.com.saveeditor.brasfoot.gui.dialogs.EditValueDialog;
 import br.com.saveeditor.brasfoot.model.NavegacaoState;
+import br.com.saveeditor.brasfoot.service.EditorService;
+import br.com.saveeditor.brasfoot.util.ClassSchema;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -11,7 +13,6 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.util.*;
 import java.util.List;
 
@@ -236,10 +237,9 @@ public class DataTablePanel extends JPanel {
     private void showObjectData(Object obj) {
         tableModel.setRowCount(0);
 
-        Field[] fields = obj.getClass().getDeclaredFields();
-        Arrays.sort(fields, Comparator.comparing(Field::getName));
+        ClassSchema.Campo[] campos = ClassSchema.de(obj.getClass()).getCamposOrdenados();
 
-        totalItems = fields.length;
+        totalItems = campos.length;
         totalPages = (int) Math.ceil((double) totalItems / itemsPerPage);
         if (totalPages == 0)
             totalPages = 1;
@@ -247,22 +247,18 @@ public class DataTablePanel extends JPanel {
         int startIndex = (currentPage - 1) * itemsPerPage;
         int endIndex = Math.min(startIndex + itemsPerPage, totalItems);
 
-        for (int i = startIndex; i < endIndex; i++) {
-            Field field = fields[i];
-            if (field.isSynthetic())
-                continue;
+        // Usar tradutor
+        br.com.saveeditor.brasfoot.config.LabelTranslator translator = br.com.saveeditor.brasfoot.config.LabelTranslator
+                .getInstance();
 
-            field.setAccessible(true);
+        for (int i = startIndex; i < endIndex; i++) {
+            ClassSchema.Campo campo = campos[i];
+            String fieldName = campo.getNome();
+            String type = campo.getTipoDeclarado().getSimpleName();
             try {
-                Object value = field.get(obj);
-                String fieldName = field.getName();
-
-                // Usar tradutor
-                br.com.saveeditor.brasfoot.config.LabelTranslator translator = br.com.saveeditor.brasfoot.config.LabelTranslator
-                        .getInstance();
+                Object value = campo.ler(obj);
                 String friendlyName = translator.getLabelWithIcon(fieldName);
 
-                String type = field.getType().getSimpleName();
                 String valueStr = formatValue(value);
                 String action = isComplex(value) ? "🔍 Ver" : "✏️ Editar";
 
@@ -271,7 +267,7 @@ public class DataTablePanel extends JPanel {
                                                                                                      // escondido ou
                                                                                                      // usar mapa
             } catch (Exception e) {
-                tableModel.addRow(new Object[] { field.getName(), field.getType().getSimpleName(), "[Erro]", "" });
+                tableModel.addRow(new Object[] { fieldName, type, "[Erro]", "" });
             }
         }
     }
@@ -351,10 +347,14 @@ public class DataTablePanel extends JPanel {
 
         if (dialog.wasConfirmed()) {
             String newValue = dialog.getNewValue();
+            EditorService editorService = mainWindow.getEditorService();
             try {
-                mainWindow.getEditorService().modificarValor(
-                        state.getObjetoAtual(),
-                        fieldName + " = " + newValue);
+                editorService.iniciarTransacao(state, "Editar '" + fieldName + "'");
+                try {
+                    editorService.modificarValor(state.getObjetoAtual(), fieldName + " = " + newValue);
+                } finally {
+                    editorService.terminarTransacao();
+                }
                 refresh();
                 mainWindow.getLogPanel().log("✏️ Campo '" + fieldName + "' modificado");
                 mainWindow.getStatusPanel().setStatus("✅ Modificado (não salvo)");
@@ -2,6 +2,7 @@ package br.com.saveeditor.brasfoot.gui.components;
 
 import br.com.saveeditor.brasfoot.gui.MainWindow;
 import br.com.saveeditor.brasfoot.model.NavegacaoState;
+import br.com.saveeditor.brasfoot.util.ClassSchema;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
@@ -11,7 +12,6 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.util.Collection;
 import java.util.Stack;
 
@@ -184,15 +184,12 @@ public class NavigationPanel extends JPanel {
                 parent.add(new DefaultMutableTreeNode("... (" + (len - 50) + " itens restantes)"));
             }
         } else {
-            Field[] fields = obj.getClass().getDeclaredFields();
-            for (Field field : fields) {
-                if (field.isSynthetic()) continue;
-                field.setAccessible(true);
+            for (ClassSchema.Campo campo : ClassSchema.de(obj.getClass()).getCampos()) {
                 try {
-                    Object value = field.get(obj);
-                    String label = String.format("📄 %s: %s", field.getName(), getLabel(value));
+                    Object value = campo.ler(obj);
+                    String label = String.format("📄 %s: %s", campo.getNome(), getLabel(value));
                     DefaultMutableTreeNode node = new DefaultMutableTreeNode(label);
-                    node.setUserObject(new TreeNodeData(label, field.getName(), false)); // Guardar metadados
+                    node.setUserObject(new TreeNodeData(label, campo.getNome(), false)); // Guardar metadados
                     parent.add(node);
                     if (depth < 2 && isComplex(value)) {
                         buildNode(node, value, depth + 1);
@@ -233,6 +230,14 @@ public class NavigationPanel extends JPanel {
             return;
         }
         
+        // Caminho do objeto atual pelo índice da aba, se já estiver pronto
+        String path = mainWindow.getSearchService().caminhoIndexado(state, state.getObjetoAtual());
+        if (path != null) {
+            breadcrumbLabel.setText("📍 " + (path.length() > 80 ? "..." + path.substring(path.length() - 77) : path));
+            breadcrumbLabel.setToolTipText(path);
+            return;
+        }
+        
         StringBuilder sb = new StringBuilder("📍 ");
         Stack<Object> trail = state.getTrilhaNavegacao();
         int i = 0;
@@ -245,6 +250,7 @@ public class NavigationPanel extends JPanel {
             }
         }
         breadcrumbLabel.setText(sb.toString());
+        breadcrumbLabel.setToolTipText(null);
     }
     
     private void onTreeSelection() {
@@ -2,6 +2,7 @@ package br.com.saveeditor.brasfoot.gui.components;
 
 import br.com.saveeditor.brasfoot.gui.MainWindow;
 import br.com.saveeditor.brasfoot.model.NavegacaoState;
+import br.com.saveeditor.brasfoot.service.CheckpointService;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -198,6 +199,9 @@ public class TabManager extends JPanel {
         if (index >= 0) {
             tabbedPane.removeTabAt(index);
             tabs.remove(tab);
+            CheckpointService.getInstance().remover(tab.getState());
+            mainWindow.getSearchService().descartar(tab.getState());
+            mainWindow.getEditorService().descartarHistorico(tab.getState());
             mainWindow.getLogPanel().log("🗙 Fechado: " + tab.getFileName());
         }
     }
@@ -48,7 +48,15 @@ public class ToolBarPanel extends JPanel {
         saveButton.addActionListener(e -> mainWindow.saveFile());
         saveButton.setEnabled(false);
         
+        JButton openDirButton = createButton("📚 Abrir Pasta", "Abrir todos os saves .s22 de uma pasta");
+        openDirButton.addActionListener(e -> mainWindow.openDirectory());
+        
+        JButton checkpointButton = createButton("🕘 Checkpoint", "Restaurar um checkpoint da sessão");
+        checkpointButton.addActionListener(e -> mainWindow.restoreCheckpoint());
+        
         actionsPanel.add(openButton);
+        actionsPanel.add(openDirButton);
+        actionsPanel.add(checkpointButton);
         actionsPanel.add(newTabButton);
         actionsPanel.add(saveButton);
         actionsPanel.add(Box.createHorizontalStrut(5));
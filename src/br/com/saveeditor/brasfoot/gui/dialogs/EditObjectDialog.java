@@ -2,12 +2,12 @@ package br.com.saveeditor.brasfoot.gui.dialogs;
 
 import br.com.saveeditor.brasfoot.config.LabelTranslator;
 import br.com.saveeditor.brasfoot.gui.MainWindow;
+import br.com.saveeditor.brasfoot.util.ClassSchema;
 import br.com.saveeditor.brasfoot.util.ReflectionUtils;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
-import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -45,19 +45,13 @@ public class EditObjectDialog extends JDialog {
         gbc.weightx = 1.0;
 
         LabelTranslator translator = LabelTranslator.getInstance();
-        Field[] fields = targetObject.getClass().getDeclaredFields();
-
         int row = 0;
-        for (Field field : fields) {
-            if (field.isSynthetic())
-                continue;
-
+        for (ClassSchema.Campo campo : ClassSchema.de(targetObject.getClass()).getCampos()) {
             // Ignorar campos complexos (listas, arrays, outros objetos)
-            if (!isPrimitiveOrString(field.getType()))
+            if (!campo.isSimples())
                 continue;
 
-            field.setAccessible(true);
-            String fieldName = field.getName();
+            String fieldName = campo.getNome();
             String labelText = translator.getLabelWithIcon(fieldName);
             String tooltip = translator.getDescription(fieldName);
 
@@ -73,7 +67,7 @@ public class EditObjectDialog extends JDialog {
             // Input
             Object value = null;
             try {
-                value = field.get(targetObject);
+                value = campo.ler(targetObject);
             } catch (IllegalAccessException e) {
                 e.printStackTrace();
             }
@@ -113,31 +107,30 @@ public class EditObjectDialog extends JDialog {
         add(buttonPanel, BorderLayout.SOUTH);
     }
 
-    private boolean isPrimitiveOrString(Class<?> type) {
-        return type.isPrimitive() ||
-                Number.class.isAssignableFrom(type) ||
-                Boolean.class.isAssignableFrom(type) ||
-                String.class.equals(type);
-    }
-
     private void save() {
         int successCount = 0;
         int errorCount = 0;
 
-        for (Map.Entry<String, JTextField> entry : fieldMap.entrySet()) {
-            String fieldName = entry.getKey();
-            String valueStr = entry.getValue().getText();
-
-            try {
-                // Usar EditorService para modificar (garante conversão correta)
-                mainWindow.getEditorService().modificarValor(
-                        targetObject,
-                        fieldName + " = " + valueStr);
-                successCount++;
-            } catch (Exception e) {
-                errorCount++;
-                System.err.println("Erro ao salvar campo " + fieldName + ": " + e.getMessage());
+        // Todos os campos numa só edição do histórico
+        mainWindow.getEditorService().iniciarTransacao(mainWindow.getCurrentState(), "Editar " + targetObject.getClass().getSimpleName());
+        try {
+            for (Map.Entry<String, JTextField> entry : fieldMap.entrySet()) {
+                String fieldName = entry.getKey();
+                String valueStr = entry.getValue().getText();
+
+                try {
+                    // Usar EditorService para modificar (garante conversão correta)
+                    mainWindow.getEditorService().modificarValor(
+                            targetObject,
+                            fieldName + " = " + valueStr);
+                    successCount++;
+                } catch (Exception e) {
+                    errorCount++;
+                    System.err.println("Erro ao salvar campo " + fieldName + ": " + e.getMessage());
+                }
             }
+        } finally {
+            mainWindow.getEditorService().terminarTransacao();
         }
 
         if (errorCount == 0) {
@@ -209,85 +209,30 @@ public class EditPlayerDialog extends JDialog {
     private boolean editarJogadorCompleto(String nomeJogador, int idade, int forca, 
                                           boolean estrelaLocal, boolean estrelaMundial) {
         try {
-            Object raiz = state.getObjetoRaiz();
-            return buscarEEditarJogador(raiz, nomeJogador, idade, forca, 
-                                       estrelaLocal, estrelaMundial, new java.util.HashSet<>());
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
-    
-    private boolean buscarEEditarJogador(Object currentObject, String nomeAlvo, 
-                                         int idade, int forca, boolean estrelaLocal, 
-                                         boolean estrelaMundial, java.util.Set<Object> visited) {
-        if (currentObject == null || visited.contains(currentObject)) {
-            return false;
-        }
-        
-        visited.add(currentObject);
-        
-        // Verificar se é um jogador (classe F)
-        if ("best.F".equals(currentObject.getClass().getName())) {
-            try {
-                java.lang.reflect.Field dmField = currentObject.getClass().getDeclaredField("dm");
-                dmField.setAccessible(true);
-                String nome = (String) dmField.get(currentObject);
-                
-                if (nomeAlvo.equals(nome)) {
-                    // Encontrou! Modificar
-                    setField(currentObject, "em", idade);
-                    setField(currentObject, "eq", forca);
-                    setField(currentObject, "el", estrelaLocal);
-                    setField(currentObject, "ek", estrelaMundial);
-                    
-                    System.out.println("✅ Jogador '" + nome + "' editado com sucesso!");
-                    return true;
-                }
-            } catch (Exception e) {
-                // Ignorar
+            Object jogador = editorService.encontrarJogador(state.getObjetoRaiz(), nomeJogador);
+            if (jogador == null) {
+                return false;
             }
-        }
-        
-        // Busca recursiva
-        if (currentObject instanceof java.util.Collection) {
-            for (Object item : (java.util.Collection<?>) currentObject) {
-                if (buscarEEditarJogador(item, nomeAlvo, idade, forca, 
-                                        estrelaLocal, estrelaMundial, visited)) {
-                    return true;
-                }
-            }
-        } else if (currentObject.getClass().isArray()) {
-            int length = java.lang.reflect.Array.getLength(currentObject);
-            for (int i = 0; i < length; i++) {
-                Object item = java.lang.reflect.Array.get(currentObject, i);
-                if (buscarEEditarJogador(item, nomeAlvo, idade, forca, 
-                                        estrelaLocal, estrelaMundial, visited)) {
-                    return true;
-                }
-            }
-        } else {
+            editorService.iniciarTransacao(state, "Editar jogador '" + nomeJogador + "'");
             try {
-                for (java.lang.reflect.Field field : currentObject.getClass().getDeclaredFields()) {
-                    field.setAccessible(true);
-                    Object fieldValue = field.get(currentObject);
-                    if (buscarEEditarJogador(fieldValue, nomeAlvo, idade, forca, 
-                                            estrelaLocal, estrelaMundial, visited)) {
-                        return true;
-                    }
-                }
-            } catch (Exception e) {
-                // Ignorar
+                setField(jogador, "em", idade);
+                setField(jogador, "eq", forca);
+                setField(jogador, "el", estrelaLocal);
+                setField(jogador, "ek", estrelaMundial);
+            } finally {
+                editorService.terminarTransacao();
             }
+
+            System.out.println("✅ Jogador '" + nomeJogador + "' editado com sucesso!");
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
         }
-        
-        return false;
     }
     
     private void setField(Object obj, String fieldName, Object value) throws Exception {
-        java.lang.reflect.Field field = obj.getClass().getDeclaredField(fieldName);
-        field.setAccessible(true);
-        field.set(obj, value);
+        editorService.definirCampo(obj, fieldName, value);
     }
     
     public boolean wasEdited() {
@@ -242,7 +242,12 @@ public class EditTeamDialog extends JDialog {
             protected String doInBackground() {
                 try {
                     String arg = String.format("%s; %s; %s", teamName, attribute, value);
-                    editorService.editarTime(state.getObjetoRaiz(), arg);
+                    editorService.iniciarTransacao(state, "Editar time '" + teamName + "'");
+                    try {
+                        editorService.editarTime(state.getObjetoRaiz(), arg);
+                    } finally {
+                        editorService.terminarTransacao();
+                    }
                     return null;
                 } catch (Exception e) {
                     return e.getMessage();
@@ -216,6 +216,8 @@ public class HelpDialog extends JDialog {
             {"Ctrl+O", "Abrir arquivo .s22"},
             {"Ctrl+S", "Salvar alterações"},
             {"Ctrl+F", "Abrir busca"},
+            {"Ctrl+Z", "Desfazer a última edição"},
+            {"Ctrl+Y", "Refazer a edição desfeita"},
             {"F1", "Mostrar esta ajuda"},
             {"Enter", "Confirmar em dialogs"},
             {"Esc", "Cancelar em dialogs"},
@@ -23,6 +23,11 @@ public class PreferencesDialog extends JDialog {
     private JCheckBox showTooltipsCheck;
     private JCheckBox highlightModifiedCheck;
     private JCheckBox autoBackupCheck;
+    private JSpinner backupGenerationsSpinner;
+    private JCheckBox compressBackupsCheck;
+    private JCheckBox autoCheckpointCheck;
+    private JSpinner checkpointIntervalSpinner;
+    private JSpinner maxCheckpointsSpinner;
     private JComboBox<String> localeCombo;
     private JCheckBox enableCustomLabelsCheck;
 
@@ -136,6 +141,28 @@ public class PreferencesDialog extends JDialog {
         autoBackupCheck = new JCheckBox("Criar backup automático ao abrir arquivo");
         backupPanel.add(autoBackupCheck);
 
+        JPanel generationsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        generationsPanel.add(new JLabel("Gerações de backup mantidas:"));
+        backupGenerationsSpinner = new JSpinner(new SpinnerNumberModel(5, 1, 50, 1));
+        generationsPanel.add(backupGenerationsSpinner);
+        backupPanel.add(generationsPanel);
+
+        compressBackupsCheck = new JCheckBox("Comprimir backups (.gz)");
+        backupPanel.add(compressBackupsCheck);
+
+        autoCheckpointCheck = new JCheckBox("Criar checkpoints da sessão automaticamente");
+        backupPanel.add(autoCheckpointCheck);
+
+        JPanel checkpointPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        checkpointPanel.add(new JLabel("A cada:"));
+        checkpointIntervalSpinner = new JSpinner(new SpinnerNumberModel(5, 1, 120, 1));
+        checkpointPanel.add(checkpointIntervalSpinner);
+        checkpointPanel.add(new JLabel("min, mantendo"));
+        maxCheckpointsSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 100, 1));
+        checkpointPanel.add(maxCheckpointsSpinner);
+        checkpointPanel.add(new JLabel("por save"));
+        backupPanel.add(checkpointPanel);
+
         panel.add(backupPanel);
         panel.add(Box.createVerticalStrut(10));
 
@@ -280,6 +307,11 @@ public class PreferencesDialog extends JDialog {
         autoRefreshCheck.setSelected(prefs.getEditor().isAutoRefresh());
         autoRefreshIntervalSpinner.setValue(prefs.getEditor().getAutoRefreshInterval());
         autoBackupCheck.setSelected(prefs.getFiles().isAutoBackup());
+        backupGenerationsSpinner.setValue(prefs.getFiles().getMaxBackupGenerations());
+        compressBackupsCheck.setSelected(prefs.getFiles().isCompressBackups());
+        autoCheckpointCheck.setSelected(prefs.getFiles().isAutoCheckpoint());
+        checkpointIntervalSpinner.setValue(prefs.getFiles().getCheckpointIntervalMinutes());
+        maxCheckpointsSpinner.setValue(prefs.getFiles().getMaxCheckpointsPerSave());
         showTooltipsCheck.setSelected(prefs.getUi().isShowTooltips());
 
         // UI
@@ -308,6 +340,11 @@ public class PreferencesDialog extends JDialog {
         prefs.getEditor().setAutoRefresh(autoRefreshCheck.isSelected());
         prefs.getEditor().setAutoRefreshInterval((Integer) autoRefreshIntervalSpinner.getValue());
         prefs.getFiles().setAutoBackup(autoBackupCheck.isSelected());
+        prefs.getFiles().setMaxBackupGenerations((Integer) backupGenerationsSpinner.getValue());
+        prefs.getFiles().setCompressBackups(compressBackupsCheck.isSelected());
+        prefs.getFiles().setAutoCheckpoint(autoCheckpointCheck.isSelected());
+        prefs.getFiles().setCheckpointIntervalMinutes((Integer) checkpointIntervalSpinner.getValue());
+        prefs.getFiles().setMaxCheckpointsPerSave((Integer) maxCheckpointsSpinner.getValue());
         prefs.getUi().setShowTooltips(showTooltipsCheck.isSelected());
 
         // UI
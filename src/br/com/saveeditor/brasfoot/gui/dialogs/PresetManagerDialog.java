@@ -275,7 +275,7 @@ public class PresetManagerDialog extends JDialog {
         SwingWorker<Integer, Void> worker = new SwingWorker<Integer, Void>() {
             @Override
             protected Integer doInBackground() {
-                return presetService.applyPresetToTeamByName(selected, state.getObjetoRaiz(), finalTeamName);
+                return presetService.applyPresetToTeamByName(selected, state, finalTeamName);
             }
             
             @Override
@@ -365,7 +365,7 @@ public class PresetManagerDialog extends JDialog {
         SwingWorker<Integer, Void> worker = new SwingWorker<Integer, Void>() {
             @Override
             protected Integer doInBackground() {
-                return presetService.applyPresetToAllPlayers(selected, state.getObjetoRaiz());
+                return presetService.applyPresetToAllPlayers(selected, state);
             }
             
             @Override
@@ -76,7 +76,7 @@ public class SaveDialog extends JDialog {
         
         String[] warnings = {
             "✅ Um backup do arquivo original foi criado (.bak)",
-            "✅ O arquivo será validado após salvar",
+            "✅ O arquivo é validado antes de substituir o destino",
             "✅ Você pode salvar com um nome diferente",
             "⚠️ Se salvar com o mesmo nome, o original será substituído"
         };
@@ -170,15 +170,9 @@ public class SaveDialog extends JDialog {
             @Override
             protected Boolean doInBackground() {
                 try {
-                    // Salvar
-                    saveFileService.salvarSave(state, finalFileName);
+                    // Salvar (o temporário é validado antes de substituir o destino)
                     savedPath = targetFile.getAbsolutePath();
-                    
-                    // Aguardar um pouco
-                    Thread.sleep(500);
-                    
-                    // Validar
-                    return saveFileService.validarArquivoSalvo(savedPath);
+                    return saveFileService.salvarSave(state, finalFileName);
                     
                 } catch (Exception e) {
                     e.printStackTrace();
@@ -205,9 +199,9 @@ public class SaveDialog extends JDialog {
                         dispose();
                     } else {
                         JOptionPane.showMessageDialog(SaveDialog.this,
-                            "⚠️ Arquivo foi salvo mas a validação falhou!\n\n" +
-                            "O arquivo pode estar corrompido.\n" +
-                            "Verifique o backup .bak antes de usar.",
+                            "⚠️ O salvamento falhou ou não passou na validação!\n\n" +
+                            "O arquivo de destino não foi alterado.\n" +
+                            "Verifique o log para mais detalhes.",
                             "Aviso",
                             JOptionPane.WARNING_MESSAGE);
                     }
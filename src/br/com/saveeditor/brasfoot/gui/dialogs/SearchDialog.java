@@ -1,13 +1,19 @@
 package br.com.saveeditor.brasfoot.gui.dialogs;
 
 import br.com.saveeditor.brasfoot.model.NavegacaoState;
+import br.com.saveeditor.brasfoot.service.SearchHit;
 import br.com.saveeditor.brasfoot.service.SearchService;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
-import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Dialog de busca avançada com opções de escopo.
@@ -21,8 +27,16 @@ public class SearchDialog extends JDialog {
     private JTextArea resultsArea;
     private JProgressBar progressBar;
     private JButton searchButton;
+    private JButton cancelButton;
+    private AtomicBoolean cancelado = new AtomicBoolean(false);
     private JRadioButton searchCurrentRadio;
     private JRadioButton searchGlobalRadio;
+    private JRadioButton searchQueryRadio;
+    private JSpinner limitSpinner;
+    
+    // Resultado escolhido para abrir no editor: objetos da raiz ao destino
+    private List<Object> destino;
+    private String destinoCaminho;
     
     public SearchDialog(JFrame parent, NavegacaoState state, SearchService searchService) {
         super(parent, "🔍 Busca Avançada", true);
@@ -45,6 +59,8 @@ public class SearchDialog extends JDialog {
         
         searchField = new JTextField();
         searchField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        searchField.setToolTipText("<html>Texto a procurar, ou vários de uma vez: <b>Ronaldo|Kaká|Zico</b><br>"
+                + "Expressão regular: <b>re:^jogador 1\\d$</b></html>");
         
         searchButton = new JButton("🔍 Buscar");
         searchButton.setFont(new Font("Segoe UI", Font.BOLD, 13));
@@ -64,14 +80,27 @@ public class SearchDialog extends JDialog {
         searchGlobalRadio = new JRadioButton("🌍 Busca global (todo o save)", false);
         searchGlobalRadio.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         
+        searchQueryRadio = new JRadioButton("🧮 Consulta de jogadores", false);
+        searchQueryRadio.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        searchQueryRadio.setToolTipText("<html>Ex.: <b>eq&gt;=85 AND em&lt;=21</b>, <b>time=\"Flamengo\"</b>, <b>ek=true</b><br>"
+                + "Operadores: = != &gt; &gt;= &lt; &lt;= ~ (contém), AND, OR, NOT e parênteses</html>");
+        
         ButtonGroup scopeGroup = new ButtonGroup();
         scopeGroup.add(searchCurrentRadio);
         scopeGroup.add(searchGlobalRadio);
+        scopeGroup.add(searchQueryRadio);
         
         scopePanel.add(searchCurrentRadio);
         scopePanel.add(searchGlobalRadio);
+        scopePanel.add(searchQueryRadio);
         
-        JLabel hintLabel = new JLabel("💡 A busca não diferencia maiúsculas de minúsculas");
+        // 0 = todos os resultados
+        limitSpinner = new JSpinner(new SpinnerNumberModel(500, 0, 100000, 100));
+        limitSpinner.setToolTipText("Máximo de resultados (0 = sem limite)");
+        scopePanel.add(new JLabel("Máx. resultados:"));
+        scopePanel.add(limitSpinner);
+        
+        JLabel hintLabel = new JLabel("💡 Sem diferenciar maiúsculas · Vários termos: a|b|c · Regex: re:... · Consulta: eq>=85 AND em<=21, ek=true");
         hintLabel.setFont(new Font("Segoe UI", Font.ITALIC, 10));
         hintLabel.setBorder(new EmptyBorder(5, 0, 0, 0));
         
@@ -91,8 +120,18 @@ public class SearchDialog extends JDialog {
         resultsArea.setLineWrap(true);
         resultsArea.setWrapStyleWord(true);
         
+        // Duplo clique num resultado abre-o no editor
+        resultsArea.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    goToSelectedResult();
+                }
+            }
+        });
+        
         JScrollPane scrollPane = new JScrollPane(resultsArea);
-        scrollPane.setBorder(BorderFactory.createTitledBorder("Resultados"));
+        scrollPane.setBorder(BorderFactory.createTitledBorder("Resultados (duplo clique para abrir)"));
         
         mainPanel.add(scrollPane, BorderLayout.CENTER);
         
@@ -110,12 +149,25 @@ public class SearchDialog extends JDialog {
         // Botões
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
         
+        cancelButton = new JButton("⏹ Cancelar");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(e -> cancelado.set(true));
+        
+        JButton goButton = new JButton("📍 Ir para");
+        goButton.setToolTipText("Abrir no editor o resultado da linha selecionada");
+        goButton.addActionListener(e -> goToSelectedResult());
+        
         JButton clearButton = new JButton("🗑️ Limpar");
         clearButton.addActionListener(e -> resultsArea.setText(""));
         
         JButton closeButton = new JButton("Fechar");
-        closeButton.addActionListener(e -> dispose());
+        closeButton.addActionListener(e -> {
+            cancelado.set(true);
+            dispose();
+        });
         
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(goButton);
         buttonPanel.add(clearButton);
         buttonPanel.add(closeButton);
         
@@ -136,63 +188,78 @@ public class SearchDialog extends JDialog {
             return;
         }
         
-        resultsArea.setText("");
+        boolean isGlobal = searchGlobalRadio.isSelected();
+        boolean isQuery = searchQueryRadio.isSelected();
+        String scope = isQuery ? "🧮 Consulta de jogadores" : isGlobal ? "🌍 Global (todo o save)" : "📍 Seleção atual";
+        int limite = (Integer) limitSpinner.getValue();
+        AtomicBoolean cancelamento = new AtomicBoolean(false);
+        cancelado = cancelamento;
+        
+        resultsArea.setText("🔍 RESULTADOS DA BUSCA\n" +
+                           "═══════════════════════════════════════════════════════════════\n" +
+                           (isQuery ? "Consulta: " : "Termo: \"") + term + (isQuery ? "\n" : "\"\n") +
+                           "Escopo: " + scope + "\n" +
+                           "═══════════════════════════════════════════════════════════════\n\n");
         searchButton.setEnabled(false);
+        cancelButton.setEnabled(true);
         progressBar.setVisible(true);
+        long inicio = System.nanoTime();
         
-        boolean isGlobal = searchGlobalRadio.isSelected();
-        
-        // Executar busca em background
-        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
+        // Executar busca em background; os resultados aparecem à medida que são encontrados
+        SwingWorker<Integer, SearchHit> worker = new SwingWorker<Integer, SearchHit>() {
             @Override
-            protected String doInBackground() {
-                // Capturar output da busca
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                PrintStream ps = new PrintStream(baos);
-                PrintStream old = System.out;
-                System.setOut(ps);
-                
-                try {
-                    if (isGlobal) {
-                        // Busca global a partir da raiz
-                        searchService.iniciarBusca(state.getObjetoRaiz(), "raiz", term, true);
-                    } else {
-                        // Busca apenas no objeto atual
-                        String currentPath = buildCurrentPath();
-                        searchService.iniciarBusca(state.getObjetoAtual(), currentPath, term, false);
-                    }
-                } finally {
-                    System.out.flush();
-                    System.setOut(old);
+            protected Integer doInBackground() {
+                SearchService.SearchHitListener listener = hit -> {
+                    publish(hit);
+                    return true;
+                };
+                if (isQuery) {
+                    // Consulta por atributos sobre as colunas dos jogadores
+                    return searchService.consultarJogadores(state, term, limite, cancelamento, listener);
+                }
+                if (isGlobal) {
+                    // Busca global: pelo índice do save, ou em paralelo se ainda não está pronto
+                    return searchService.buscarGlobal(state, term, limite, cancelamento, listener);
+                }
+                // Busca apenas no objeto atual
+                return searchService.buscarEm(state, state.getObjetoAtual(), buildCurrentPath(), term, limite, cancelamento, listener);
+            }
+            
+            @Override
+            protected void process(List<SearchHit> hits) {
+                StringBuilder sb = new StringBuilder();
+                for (SearchHit hit : hits) {
+                    sb.append("  ✓ ").append(hit).append('\n');
                 }
-                
-                return baos.toString();
+                resultsArea.append(sb.toString());
             }
             
             @Override
             protected void done() {
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
                 try {
-                    String results = get();
+                    int total = get();
                     
-                    if (results.trim().isEmpty() || 
-                        (results.contains("Busca concluída") && results.split("\n").length <= 3)) {
+                    if (cancelamento.get()) {
+                        resultsArea.append("\n⏹ Busca cancelada (" + total + " resultados)");
+                    } else if (total == 0) {
                         resultsArea.setText("❌ Nenhum resultado encontrado para: \"" + term + "\"\n\n" +
-                            "Escopo: " + (isGlobal ? "Global (todo o save)" : "Apenas na seleção atual"));
+                            "Escopo: " + scope);
                     } else {
-                        // Adicionar cabeçalho
-                        String header = "🔍 RESULTADOS DA BUSCA\n" +
-                                       "═══════════════════════════════════════════════════════════════\n" +
-                                       "Termo: \"" + term + "\"\n" +
-                                       "Escopo: " + (isGlobal ? "🌍 Global (todo o save)" : "📍 Seleção atual") + "\n" +
-                                       "═══════════════════════════════════════════════════════════════\n\n";
-                        
-                        resultsArea.setText(header + results);
-                        resultsArea.setCaretPosition(0);
+                        resultsArea.append("\n✔ " + total + " resultados em " + millis + " ms"
+                                + (limite > 0 && total >= limite ? " (limite atingido)" : ""));
                     }
                     
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof CancellationException) {
+                        resultsArea.append("\n⏹ Busca cancelada");
+                    } else {
+                        resultsArea.setText("❌ Erro durante a busca:\n" + e.getCause().getMessage());
+                    }
                 } catch (Exception e) {
                     resultsArea.setText("❌ Erro durante a busca:\n" + e.getMessage());
                 } finally {
+                    cancelButton.setEnabled(false);
                     searchButton.setEnabled(true);
                     progressBar.setVisible(false);
                 }
@@ -202,7 +269,83 @@ public class SearchDialog extends JDialog {
         worker.execute();
     }
     
+    /**
+     * Resolve o caminho da linha onde está o cursor e fecha o dialog com ele como destino.
+     */
+    private void goToSelectedResult() {
+        String path = pathAtCaret();
+        if (path == null) {
+            JOptionPane.showMessageDialog(this,
+                "Clique numa linha de resultado (✓) primeiro.",
+                "Ir para",
+                JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        
+        SwingWorker<List<Object>, Void> worker = new SwingWorker<List<Object>, Void>() {
+            @Override
+            protected List<Object> doInBackground() {
+                return searchService.cadeiaParaNavegar(state, path);
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    destino = get();
+                    destinoCaminho = path;
+                    cancelado.set(true);
+                    dispose();
+                } catch (ExecutionException e) {
+                    JOptionPane.showMessageDialog(SearchDialog.this,
+                        "Não foi possível abrir '" + path + "':\n" + e.getCause().getMessage(),
+                        "Ir para",
+                        JOptionPane.WARNING_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    /**
+     * Caminho do resultado na linha do cursor ("  ✓ caminho → valor"), ou null.
+     */
+    private String pathAtCaret() {
+        try {
+            int line = resultsArea.getLineOfOffset(resultsArea.getCaretPosition());
+            int start = resultsArea.getLineStartOffset(line);
+            int end = resultsArea.getLineEndOffset(line);
+            String text = resultsArea.getText(start, end - start).trim();
+            if (!text.startsWith("✓ ")) {
+                return null;
+            }
+            text = text.substring(2);
+            int arrow = text.indexOf(" → ");
+            return (arrow >= 0 ? text.substring(0, arrow) : text).trim();
+        } catch (javax.swing.text.BadLocationException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Objetos da raiz até ao resultado escolhido com "Ir para", ou null.
+     */
+    public List<Object> getDestino() {
+        return destino;
+    }
+    
+    public String getDestinoCaminho() {
+        return destinoCaminho;
+    }
+    
     private String buildCurrentPath() {
+        // Caminho real do objeto, para os resultados poderem ser abertos com "Ir para";
+        // não espera pelo índice da aba
+        String path = searchService.caminhoAtual(state);
+        if (path != null) {
+            return path;
+        }
         StringBuilder sb = new StringBuilder();
         int i = 0;
         for (Object obj : state.getTrilhaNavegacao()) {
@@ -2,17 +2,20 @@ package br.com.saveeditor.brasfoot.gui.dialogs;
 
 import br.com.saveeditor.brasfoot.model.NavegacaoState;
 import br.com.saveeditor.brasfoot.service.EditorService;
+import br.com.saveeditor.brasfoot.service.PlayerNameIndex;
+import br.com.saveeditor.brasfoot.service.SearchService;
 import br.com.saveeditor.brasfoot.util.ReflectionUtils;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
-import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.util.*;
+import java.util.List;
 
 /**
  * Dialog para buscar jogador por nome e ver informações antes de editar.
+ * As sugestões aparecem enquanto se escreve, a partir do índice de nomes da aba.
  */
 public class SearchPlayerDialog extends JDialog {
     
@@ -27,24 +30,35 @@ public class SearchPlayerDialog extends JDialog {
     
     private final NavegacaoState state;
     private final EditorService editorService;
+    private final SearchService searchService;
+    
+    // Sugestões mostradas no máximo; espera depois da última tecla antes de procurar
+    private static final int MAX_SUGESTOES = 20;
+    private static final int ESPERA_DIGITACAO_MS = 120;
     
     private JTextField searchField;
+    private DefaultListModel<PlayerNameIndex.Sugestao> suggestionModel;
+    private JList<PlayerNameIndex.Sugestao> suggestionList;
+    private Timer typingTimer;
+    // Só a resposta ao último pedido é mostrada
+    private int pedidoAtual = 0;
     private JTextArea resultArea;
     private JButton editButton;
     
     private Object foundPlayer = null;
     private boolean edited = false;
     
-    public SearchPlayerDialog(JFrame parent, NavegacaoState state, EditorService editorService) {
+    public SearchPlayerDialog(JFrame parent, NavegacaoState state, EditorService editorService, SearchService searchService) {
         super(parent, "⚽ Buscar Jogador", true);
         this.state = state;
         this.editorService = editorService;
+        this.searchService = searchService;
         initComponents();
     }
     
     private void initComponents() {
         setLayout(new BorderLayout(10, 10));
-        setSize(600, 450);
+        setSize(650, 560);
         setLocationRelativeTo(getParent());
         
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
@@ -54,7 +68,7 @@ public class SearchPlayerDialog extends JDialog {
         JPanel searchPanel = new JPanel(new BorderLayout(10, 10));
         searchPanel.setBorder(BorderFactory.createTitledBorder("🔍 Buscar Jogador"));
         
-        JLabel instructionLabel = new JLabel("Digite o nome do jogador:");
+        JLabel instructionLabel = new JLabel("Digite o nome do jogador (parte do nome serve; acentos e maiúsculas não importam):");
         instructionLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         
         searchField = new JTextField();
@@ -71,6 +85,29 @@ public class SearchPlayerDialog extends JDialog {
         searchPanel.add(instructionLabel, BorderLayout.NORTH);
         searchPanel.add(inputPanel, BorderLayout.CENTER);
         
+        // Sugestões enquanto se escreve
+        suggestionModel = new DefaultListModel<>();
+        suggestionList = new JList<>(suggestionModel);
+        suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        suggestionList.setVisibleRowCount(6);
+        suggestionList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                PlayerNameIndex.Sugestao sugestao = (PlayerNameIndex.Sugestao) value;
+                setText(sugestao.getNome() + (sugestao.getDistancia() > 0 ? "  (aproximado)" : "") + "   —   " + sugestao.getCaminho());
+                return this;
+            }
+        });
+        suggestionList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showSelectedSuggestion();
+            }
+        });
+        JScrollPane suggestionScroll = new JScrollPane(suggestionList);
+        suggestionScroll.setBorder(BorderFactory.createTitledBorder("Sugestões"));
+        searchPanel.add(suggestionScroll, BorderLayout.SOUTH);
+        
         mainPanel.add(searchPanel, BorderLayout.NORTH);
         
         // Área de resultados
@@ -106,6 +143,15 @@ public class SearchPlayerDialog extends JDialog {
         // Enter para buscar
         searchField.addActionListener(e -> searchButton.doClick());
         
+        // Procurar enquanto se escreve, quando o utilizador pára por um instante
+        typingTimer = new Timer(ESPERA_DIGITACAO_MS, e -> updateSuggestions(false));
+        typingTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { typingTimer.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { typingTimer.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { typingTimer.restart(); }
+        });
+        
         SwingUtilities.invokeLater(() -> searchField.requestFocus());
     }
     
@@ -120,33 +166,58 @@ public class SearchPlayerDialog extends JDialog {
             return;
         }
         
-        resultArea.setText("🔍 Procurando por '" + playerName + "'...\n");
-        editButton.setEnabled(false);
-        foundPlayer = null;
+        typingTimer.stop();
+        updateSuggestions(true);
+    }
+    
+    /**
+     * Procura os nomes pelo índice em segundo plano e atualiza a lista de sugestões.
+     *
+     * @param selectFirst selecionar logo a primeira sugestão (Enter / botão Buscar)
+     */
+    private void updateSuggestions(boolean selectFirst) {
+        String playerName = searchField.getText().trim();
+        int pedido = ++pedidoAtual;
         
-        // Buscar em background
-        SwingWorker<Object, Void> worker = new SwingWorker<Object, Void>() {
+        if (playerName.isEmpty()) {
+            suggestionModel.clear();
+            return;
+        }
+        if (selectFirst) {
+            resultArea.setText("🔍 Procurando por '" + playerName + "'...\n");
+        }
+        
+        // O índice é construído na primeira vez (ou depois de edições); as buscas seguintes são imediatas
+        SwingWorker<List<PlayerNameIndex.Sugestao>, Void> worker = new SwingWorker<List<PlayerNameIndex.Sugestao>, Void>() {
             @Override
-            protected Object doInBackground() {
-                return findPlayerRecursive(state.getObjetoRaiz(), playerName, new HashSet<>());
+            protected List<PlayerNameIndex.Sugestao> doInBackground() {
+                return searchService.obterIndiceNomes(state).buscar(playerName, MAX_SUGESTOES);
             }
             
             @Override
             protected void done() {
+                if (pedido != pedidoAtual) {
+                    return;
+                }
                 try {
-                    Object player = get();
+                    List<PlayerNameIndex.Sugestao> sugestoes = get();
+                    suggestionModel.clear();
+                    for (PlayerNameIndex.Sugestao sugestao : sugestoes) {
+                        suggestionModel.addElement(sugestao);
+                    }
                     
-                    if (player != null) {
-                        foundPlayer = player;
-                        displayPlayerInfo(player, playerName);
-                        editButton.setEnabled(true);
-                    } else {
+                    if (!sugestoes.isEmpty()) {
+                        if (selectFirst) {
+                            suggestionList.setSelectedIndex(0);
+                        }
+                    } else if (selectFirst) {
+                        foundPlayer = null;
+                        editButton.setEnabled(false);
                         resultArea.setText("❌ Jogador '" + playerName + "' não encontrado.\n\n" +
                             "💡 Dicas:\n" +
                             "• Verifique se digitou o nome corretamente\n" +
-                            "• O nome deve ser exatamente como aparece no jogo\n" +
-                            "• A busca diferencia maiúsculas de minúsculas");
-                        editButton.setEnabled(false);
+                            "• Basta o início do nome ou de um sobrenome\n" +
+                            "• Erros pequenos de digitação são tolerados a partir de 4 letras");
                     }
                 } catch (Exception e) {
                     resultArea.setText("❌ Erro ao buscar: " + e.getMessage());
@@ -157,48 +228,14 @@ public class SearchPlayerDialog extends JDialog {
         worker.execute();
     }
     
-    private Object findPlayerRecursive(Object obj, String targetName, Set<Object> visited) {
-        if (obj == null || !ReflectionUtils.isComplexObject(obj) || visited.contains(obj)) {
-            return null;
-        }
-        visited.add(obj);
-        
-        // Verificar se é um jogador (classe best.F)
-        if ("best.F".equals(obj.getClass().getName())) {
-            try {
-                String playerName = (String) ReflectionUtils.getFieldValue(obj, "dm");
-                if (targetName.equals(playerName)) {
-                    return obj;
-                }
-            } catch (Exception e) {
-                // Ignorar
-            }
-        }
-        
-        // Buscar recursivamente
-        if (obj instanceof Collection) {
-            for (Object item : (Collection<?>) obj) {
-                Object found = findPlayerRecursive(item, targetName, visited);
-                if (found != null) return found;
-            }
-        } else if (obj.getClass().isArray()) {
-            for (int i = 0; i < Array.getLength(obj); i++) {
-                Object found = findPlayerRecursive(Array.get(obj, i), targetName, visited);
-                if (found != null) return found;
-            }
-        } else {
-            for (Field field : obj.getClass().getDeclaredFields()) {
-                try {
-                    Object fieldValue = ReflectionUtils.getFieldValue(obj, field.getName());
-                    Object found = findPlayerRecursive(fieldValue, targetName, visited);
-                    if (found != null) return found;
-                } catch (Exception e) {
-                    // Ignorar
-                }
-            }
+    private void showSelectedSuggestion() {
+        PlayerNameIndex.Sugestao sugestao = suggestionList.getSelectedValue();
+        if (sugestao == null) {
+            return;
         }
-        
-        return null;
+        foundPlayer = sugestao.getJogador();
+        displayPlayerInfo(foundPlayer, sugestao.getNome());
+        editButton.setEnabled(true);
     }
     
     private void displayPlayerInfo(Object player, String name) {
@@ -279,9 +316,14 @@ public class SearchPlayerDialog extends JDialog {
                 int newAge = (int) ageSpinner.getValue();
                 int newOver = (int) overSpinner.getValue();
                 
-                // Aplicar mudanças
-                ReflectionUtils.setFieldValue(foundPlayer, "em", newAge);
-                ReflectionUtils.setFieldValue(foundPlayer, "eq", newOver);
+                // Aplicar mudanças (uma só edição no histórico)
+                editorService.iniciarTransacao(state, "Editar jogador '" + playerName + "'");
+                try {
+                    editorService.definirCampo(foundPlayer, "em", newAge);
+                    editorService.definirCampo(foundPlayer, "eq", newOver);
+                } finally {
+                    editorService.terminarTransacao();
+                }
                 
                 edited = true;
                 
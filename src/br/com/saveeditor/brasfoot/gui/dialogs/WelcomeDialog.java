@@ -1,8 +1,20 @@
 package br.com.saveeditor.brasfoot.gui.dialogs;
 
+import br.com.saveeditor.brasfoot.service.SaveFileService;
+
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.border.TitledBorder;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Dialog de boas-vindas inicial.
@@ -10,9 +22,18 @@ import java.awt.*;
 public class WelcomeDialog extends JDialog {
     
     private boolean openFile = false;
+    private File recentFile;
+    private final List<String> recentFiles;
+    // Resumos dos recentes, preenchidos em segundo plano
+    private final Map<String, SaveFileService.SaveSummary> summaries = new ConcurrentHashMap<>();
     
     public WelcomeDialog(JFrame parent) {
+        this(parent, Collections.emptyList());
+    }
+
+    public WelcomeDialog(JFrame parent, List<String> recentFiles) {
         super(parent, "Bem-vindo ao Brasfoot Save Editor", true);
+        this.recentFiles = recentFiles;
         initComponents();
     }
     
@@ -68,7 +89,11 @@ public class WelcomeDialog extends JDialog {
             contentPanel.add(Box.createVerticalStrut(8));
         }
         
-        mainPanel.add(contentPanel, BorderLayout.CENTER);
+        if (recentFiles.isEmpty()) {
+            mainPanel.add(contentPanel, BorderLayout.CENTER);
+        } else {
+            mainPanel.add(createRecentPanel(), BorderLayout.CENTER);
+        }
         
         // Botões
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 10));
@@ -101,6 +126,89 @@ public class WelcomeDialog extends JDialog {
         add(mainPanel);
     }
     
+    /**
+     * Lista dos saves recentes com o resumo de cada um (duplo clique abre).
+     */
+    private JPanel createRecentPanel() {
+        JList<String> list = new JList<>(recentFiles.toArray(new String[0]));
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+
+            @Override
+            public Component getListCellRendererComponent(JList<?> l, Object value, int index, boolean selected, boolean focus) {
+                super.getListCellRendererComponent(l, value, index, selected, focus);
+                String path = (String) value;
+                SaveFileService.SaveSummary summary = summaries.get(path);
+                String detail;
+                if (summary != null) {
+                    detail = summary.getClasseRaiz() + " · " + String.format("%.1f MB", summary.getTamanho() / (1024.0 * 1024.0))
+                            + " · " + dateFormat.format(new Date(summary.getModificadoEm())) + " · " + summary.getHashParcial();
+                } else {
+                    detail = new File(path).exists() ? "..." : "ficheiro não encontrado";
+                }
+                setText("<html><b>" + new File(path).getName() + "</b><br><small>" + detail + "</small></html>");
+                setToolTipText(path);
+                return this;
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && list.getSelectedValue() != null) {
+                    openRecent(list.getSelectedValue());
+                }
+            }
+        });
+
+        // A sondagem só lê o início e o fim de cada ficheiro, e fica em cache
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                SaveFileService service = new SaveFileService();
+                for (String path : recentFiles) {
+                    service.sondarSave(path).ifPresent(summary -> summaries.put(path, summary));
+                }
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                list.repaint();
+            }
+        }.execute();
+
+        JButton openRecentButton = new JButton("Abrir Selecionado");
+        openRecentButton.addActionListener(e -> {
+            if (list.getSelectedValue() != null) {
+                openRecent(list.getSelectedValue());
+            }
+        });
+
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(new TitledBorder("Saves recentes"));
+        panel.add(new JScrollPane(list), BorderLayout.CENTER);
+        panel.add(openRecentButton, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    private void openRecent(String path) {
+        File file = new File(path);
+        if (!file.exists()) {
+            JOptionPane.showMessageDialog(this, "O ficheiro já não existe:\n" + path, "Aviso", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        recentFile = file;
+        dispose();
+    }
+
+    /**
+     * Save recente escolhido, ou null.
+     */
+    public File getRecentFile() {
+        return recentFile;
+    }
+
     public boolean shouldOpenFile() {
         return openFile;
     }
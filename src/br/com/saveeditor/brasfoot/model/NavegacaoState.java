@@ -2,24 +2,41 @@ package br.com.saveeditor.brasfoot.model;
 
 import java.io.File;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Armazena todo o estado da sessão de edição atual.
  */
 public class NavegacaoState {
     private final Object objetoRaiz;
-    private final Object dataAfQ;
+    private final CompletableFuture<Object> dataAfQ;
     private final Stack<Object> trilhaNavegacao = new Stack<>();
     private final Map<Object, Integer> viewState = new HashMap<>();
+    // Campos alterados desde a última leitura/gravação: objeto → (campo → valor que está no disco)
+    private Map<Object, Map<String, Object>> modificacoes = new IdentityHashMap<>();
+    private volatile SaveLayout layoutSerializado;
+    // Incrementado a cada alteração; nunca volta atrás (nem ao salvar)
+    private volatile long geracaoEdicao;
 
     private String caminhoArquivoOriginal;
     private long ultimoTimestampModificacao;
 
     public NavegacaoState(Object objetoRaiz, Object dataAfQ, String caminhoArquivoOriginal) {
+        this(objetoRaiz, CompletableFuture.completedFuture(dataAfQ), caminhoArquivoOriginal);
+    }
+
+    /**
+     * Cria o estado com o dataAfQ ainda a ser desserializado em segundo plano.
+     * A raiz fica disponível de imediato para a árvore e a tabela.
+     */
+    public NavegacaoState(Object objetoRaiz, CompletableFuture<Object> dataAfQPendente, String caminhoArquivoOriginal) {
         this.objetoRaiz = objetoRaiz;
-        this.dataAfQ = dataAfQ;
+        this.dataAfQ = dataAfQPendente;
         this.caminhoArquivoOriginal = caminhoArquivoOriginal;
         this.ultimoTimestampModificacao = new File(caminhoArquivoOriginal).lastModified();
         this.trilhaNavegacao.push(objetoRaiz);
@@ -39,6 +56,19 @@ public class NavegacaoState {
         }
     }
 
+    /**
+     * Substitui a trilha pelos objetos dados, da raiz ao destino (saltar para um resultado).
+     */
+    public void irPara(List<Object> cadeia) {
+        if (cadeia.isEmpty() || cadeia.get(0) != objetoRaiz) {
+            throw new IllegalArgumentException("A trilha deve começar na raiz do save");
+        }
+        trilhaNavegacao.clear();
+        for (Object obj : cadeia) {
+            trilhaNavegacao.push(obj);
+        }
+    }
+
     public void irParaTopo() {
         while (trilhaNavegacao.size() > 1) {
             trilhaNavegacao.pop();
@@ -51,13 +81,65 @@ public class NavegacaoState {
         trilhaNavegacao.push(objetoRaiz);
     }
 
+    /**
+     * Retorna o dataAfQ, aguardando o fim da leitura em segundo plano se necessário.
+     */
+    public Object getDataAfQ() {
+        try {
+            return dataAfQ.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Leitura do dataAfQ interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao ler o dataAfQ: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    public boolean isDataAfQCarregado() {
+        return dataAfQ.isDone() && !dataAfQ.isCompletedExceptionally();
+    }
+
+    /**
+     * Regista um campo alterado. Guarda apenas o primeiro valor anterior,
+     * que é o que corresponde aos bytes do ficheiro.
+     */
+    public synchronized void registrarModificacao(Object dono, String nomeCampo, Object valorAnterior) {
+        modificacoes.computeIfAbsent(dono, k -> new HashMap<>()).putIfAbsent(nomeCampo, valorAnterior);
+        geracaoEdicao++;
+    }
+
+    /**
+     * Retorna e limpa as modificações pendentes (chamado no início de um salvamento).
+     */
+    public synchronized Map<Object, Map<String, Object>> extrairModificacoes() {
+        Map<Object, Map<String, Object>> pendentes = modificacoes;
+        modificacoes = new IdentityHashMap<>();
+        return pendentes;
+    }
+
+    /**
+     * Devolve modificações extraídas para um salvamento que falhou.
+     * Os valores anteriores devolvidos são mais antigos e por isso prevalecem.
+     */
+    public synchronized void restaurarModificacoes(Map<Object, Map<String, Object>> pendentes) {
+        for (Map.Entry<Object, Map<String, Object>> entry : pendentes.entrySet()) {
+            modificacoes.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).putAll(entry.getValue());
+        }
+    }
+
+    public synchronized boolean temModificacoes() {
+        return !modificacoes.isEmpty();
+    }
+
     // Getters e Setters
     public Object getObjetoRaiz() { return objetoRaiz; }
-    public Object getDataAfQ() { return dataAfQ; }
     public Stack<Object> getTrilhaNavegacao() { return trilhaNavegacao; }
     public Map<Object, Integer> getViewState() { return viewState; }
     public String getCaminhoArquivoOriginal() { return caminhoArquivoOriginal; }
     public void setCaminhoArquivoOriginal(String caminho) { this.caminhoArquivoOriginal = caminho; }
     public long getUltimoTimestampModificacao() { return ultimoTimestampModificacao; }
     public void setUltimoTimestampModificacao(long timestamp) { this.ultimoTimestampModificacao = timestamp; }
+    public long getGeracaoEdicao() { return geracaoEdicao; }
+    public SaveLayout getLayoutSerializado() { return layoutSerializado; }
+    public void setLayoutSerializado(SaveLayout layout) { this.layoutSerializado = layout; }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package br.com.saveeditor.brasfoot.model;
 
+import br.com.saveeditor.brasfoot.util.FieldAccessor;
+import br.com.saveeditor.brasfoot.util.ReflectionUtils;
+
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -45,21 +48,22 @@ public class PlayerPreset {
             throw new IllegalStateException("Preset inválido: validação falhou");
         }
         
-        // Aplicar cada atributo usando reflexão
+        // Aplicar cada atributo com os acessores em cache (resolvidos uma vez por classe)
         for (Map.Entry<String, Object> entry : attributes.entrySet()) {
             String fieldName = entry.getKey();
             Object value = entry.getValue();
             
             try {
-                java.lang.reflect.Field field = playerObject.getClass().getDeclaredField(fieldName);
-                field.setAccessible(true);
+                FieldAccessor field = ReflectionUtils.getAccessor(playerObject, fieldName);
                 
                 // Converter para o tipo correto
-                Class<?> fieldType = field.getType();
+                Class<?> fieldType = field.getTipo();
                 
                 if (value instanceof Integer) {
                     Integer intValue = (Integer) value;
-                    if (fieldType == int.class || fieldType == Integer.class) {
+                    if (fieldType == int.class) {
+                        field.setInt(playerObject, intValue);
+                    } else if (fieldType == Integer.class) {
                         field.set(playerObject, intValue);
                     } else if (fieldType == byte.class || fieldType == Byte.class) {
                         field.set(playerObject, intValue.byteValue());
@@ -0,0 +1,97 @@
+package br.com.saveeditor.brasfoot.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Posição de cada campo dos objetos serializados dentro de um save, tal como está no disco.
+ * Permite regravar apenas os campos alterados sem voltar a serializar o save inteiro.
+ * Os bytes não ficam em memória: são relidos do ficheiro no salvamento, desde que
+ * o tamanho e a data de modificação sejam os registados.
+ */
+public final class SaveLayout {
+    private final Path arquivo;
+    private final long modificadoEm;
+    private final int tamanho;
+    // Objeto → início de cada campo, pela ordem do FieldSerializer, mais o fim do último
+    private final IdentityHashMap<Object, int[]> limitesCampos;
+
+    public SaveLayout(Path arquivo, long modificadoEm, int tamanho, IdentityHashMap<Object, int[]> limitesCampos) {
+        this.arquivo = arquivo;
+        this.modificadoEm = modificadoEm;
+        this.tamanho = tamanho;
+        this.limitesCampos = limitesCampos;
+    }
+
+    /**
+     * Cria o layout do ficheiro já gravado, com o tamanho e a data de agora.
+     */
+    public static SaveLayout doArquivo(Path arquivo, IdentityHashMap<Object, int[]> limitesCampos) throws IOException {
+        return new SaveLayout(arquivo, Files.getLastModifiedTime(arquivo).toMillis(), (int) Files.size(arquivo),
+                limitesCampos);
+    }
+
+    /**
+     * Limites dos campos de um objeto, ou null se o objeto não foi registado.
+     */
+    public int[] getLimites(Object objeto) {
+        return limitesCampos.get(objeto);
+    }
+
+    /**
+     * Relê os bytes do ficheiro.
+     *
+     * @throws IllegalStateException se o ficheiro mudou desde que o layout foi registado
+     */
+    public byte[] lerBytes() {
+        try {
+            if (Files.size(arquivo) != tamanho || Files.getLastModifiedTime(arquivo).toMillis() != modificadoEm) {
+                throw new IllegalStateException("o ficheiro mudou no disco desde a leitura");
+            }
+            byte[] bytes = Files.readAllBytes(arquivo);
+            if (bytes.length != tamanho) {
+                throw new IllegalStateException("o ficheiro mudou no disco desde a leitura");
+            }
+            return bytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cria o layout do novo ficheiro após substituir alguns segmentos.
+     * Os limites são deslocados no próprio mapa: este layout deixa de ser válido.
+     *
+     * @param fins           posição final (nos bytes antigos) de cada segmento substituído, por ordem
+     * @param deltaAcumulado diferença de tamanho acumulada até cada segmento, inclusive
+     */
+    public SaveLayout deslocar(Path novoArquivo, int[] fins, int[] deltaAcumulado) throws IOException {
+        if (fins.length > 0 && deltaAcumulado[deltaAcumulado.length - 1] != 0) {
+            for (int[] limites : limitesCampos.values()) {
+                for (int i = 0; i < limites.length; i++) {
+                    // Segmentos que terminam até esta posição (inclusive) já a empurraram
+                    int pos = Arrays.binarySearch(fins, limites[i]);
+                    int anteriores = (pos >= 0) ? ultimoIgual(fins, pos) + 1 : -pos - 1;
+                    if (anteriores > 0) {
+                        limites[i] += deltaAcumulado[anteriores - 1];
+                    }
+                }
+            }
+        }
+        return doArquivo(novoArquivo, limitesCampos);
+    }
+
+    private static int ultimoIgual(int[] valores, int pos) {
+        while (pos + 1 < valores.length && valores[pos + 1] == valores[pos]) {
+            pos++;
+        }
+        return pos;
+    }
+
+    public int getTamanho() { return tamanho; }
+    public int getObjetosRegistados() { return limitesCampos.size(); }
+}
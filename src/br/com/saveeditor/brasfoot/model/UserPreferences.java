@@ -113,6 +113,11 @@ public class UserPreferences {
         private int maxRecentFiles = 10;
         private boolean autoBackup = true;
         private String backupDirectory = null;  // null = mesmo diretório do arquivo
+        private int maxBackupGenerations = 5;   // Gerações rotativas (.bak, .bak.1, ...)
+        private boolean compressBackups = false;
+        private boolean autoCheckpoint = true;          // Checkpoints da sessão em segundo plano
+        private int checkpointIntervalMinutes = 5;
+        private int maxCheckpointsPerSave = 10;
         
         public void addRecentFile(String filePath) {
             // Remove se já existe
@@ -140,6 +145,16 @@ public class UserPreferences {
         public void setAutoBackup(boolean autoBackup) { this.autoBackup = autoBackup; }
         public String getBackupDirectory() { return backupDirectory; }
         public void setBackupDirectory(String backupDirectory) { this.backupDirectory = backupDirectory; }
+        public int getMaxBackupGenerations() { return maxBackupGenerations; }
+        public void setMaxBackupGenerations(int maxBackupGenerations) { this.maxBackupGenerations = maxBackupGenerations; }
+        public boolean isCompressBackups() { return compressBackups; }
+        public void setCompressBackups(boolean compressBackups) { this.compressBackups = compressBackups; }
+        public boolean isAutoCheckpoint() { return autoCheckpoint; }
+        public void setAutoCheckpoint(boolean autoCheckpoint) { this.autoCheckpoint = autoCheckpoint; }
+        public int getCheckpointIntervalMinutes() { return checkpointIntervalMinutes; }
+        public void setCheckpointIntervalMinutes(int checkpointIntervalMinutes) { this.checkpointIntervalMinutes = checkpointIntervalMinutes; }
+        public int getMaxCheckpointsPerSave() { return maxCheckpointsPerSave; }
+        public void setMaxCheckpointsPerSave(int maxCheckpointsPerSave) { this.maxCheckpointsPerSave = maxCheckpointsPerSave; }
     }
     
     /**
@@ -0,0 +1,225 @@
+package br.com.saveeditor.brasfoot.service;
+
+import br.com.saveeditor.brasfoot.config.PreferencesManager;
+import br.com.saveeditor.brasfoot.model.UserPreferences;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serviço de backups em segundo plano, fora do caminho de carregamento.
+ * Mantém N gerações rotativas por save (.bak, .bak.1, .bak.2, ...) e não
+ * copia nada quando o conteúdo é igual ao do último backup. Numa pasta de
+ * backups partilhada o nome leva também um código da pasta do save, para saves
+ * com o mesmo nome em pastas diferentes não partilharem as gerações.
+ */
+public class BackupService {
+
+    private static final String EXTENSAO_GZIP = ".gz";
+    private static final String EXTENSAO_HASH = ".sha256";
+
+    private static BackupService instance;
+
+    private final PreferencesManager preferencesManager;
+    private final ExecutorService executor;
+    // Último backup agendado de cada save que ainda não terminou
+    private final Map<Path, FutureTask<?>> pendentes = new ConcurrentHashMap<>();
+
+    private BackupService() {
+        this.preferencesManager = PreferencesManager.getInstance();
+        // Uma única thread: os backups do mesmo save nunca rodam em paralelo
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Backup-Thread");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Obtém a instância singleton.
+     */
+    public static synchronized BackupService getInstance() {
+        if (instance == null) {
+            instance = new BackupService();
+        }
+        return instance;
+    }
+
+    /**
+     * Agenda o backup de um save.
+     *
+     * @param arquivo save a copiar
+     */
+    public void agendarBackup(Path arquivo) {
+        UserPreferences.FileSettings files = preferencesManager.getPreferences().getFiles();
+        if (!files.isAutoBackup()) {
+            return;
+        }
+        int geracoes = Math.max(1, files.getMaxBackupGenerations());
+        boolean comprimir = files.isCompressBackups();
+        String diretorio = files.getBackupDirectory();
+
+        Path chave = arquivo.toAbsolutePath().normalize();
+        synchronized (pendentes) {
+            // Um backup anterior do mesmo save ainda na fila corre primeiro (nunca dois em paralelo)
+            FutureTask<?> anterior = pendentes.get(chave);
+            FutureTask<Void> tarefa = new FutureTask<Void>(() -> {
+                if (anterior != null) {
+                    executarAgora(anterior);
+                }
+                try {
+                    criarBackup(arquivo, diretorio, geracoes, comprimir);
+                } catch (Exception e) {
+                    System.err.println("✖ Falha ao criar o backup: " + e.getMessage());
+                }
+            }, null) {
+                @Override
+                protected void done() {
+                    pendentes.remove(chave, this);
+                }
+            };
+            pendentes.put(chave, tarefa);
+            executor.execute(tarefa);
+        }
+    }
+
+    /**
+     * Aguarda o backup pendente deste save, se houver. Se ainda está na fila (atrás
+     * dos backups de outros saves, por exemplo os de uma pasta carregada), corre-o
+     * já na thread atual em vez de esperar pela vez dele.
+     * Chamado antes de substituir um save, para nunca copiar o ficheiro já alterado.
+     */
+    public void aguardarBackup(Path arquivo) {
+        FutureTask<?> tarefa = pendentes.get(arquivo.toAbsolutePath().normalize());
+        if (tarefa != null) {
+            executarAgora(tarefa);
+        }
+    }
+
+    /**
+     * Corre a tarefa se ainda não começou (na fila ela passa a não fazer nada)
+     * e espera que termine, se está a correr noutra thread.
+     */
+    private static void executarAgora(FutureTask<?> tarefa) {
+        tarefa.run();
+        try {
+            tarefa.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Ignorar: as falhas do backup já vão para o log
+        }
+    }
+
+    private void criarBackup(Path arquivo, String diretorio, int geracoes, boolean comprimir)
+            throws Exception {
+        Path pasta = (diretorio != null) ? Paths.get(diretorio) : arquivo.toAbsolutePath().getParent();
+        Files.createDirectories(pasta);
+        String base = (diretorio != null)
+                ? arquivo.getFileName() + "." + codigoPasta(arquivo) + ".bak"
+                : arquivo.getFileName() + ".bak";
+        Path arquivoHash = pasta.resolve(base + EXTENSAO_HASH);
+
+        // Deduplicação: o último backup já tem exatamente este conteúdo (o hash é calculado aqui, fora da leitura do save)
+        if (Files.exists(arquivoHash) && Files.exists(pasta.resolve(nomeGeracao(base, 0, comprimir)))
+                && calcularHash(arquivo).equals(new String(Files.readAllBytes(arquivoHash), StandardCharsets.US_ASCII).trim())) {
+            System.out.println("✔ Backup já atualizado, nada a copiar");
+            return;
+        }
+
+        // Copiar para um temporário, calculando o hash do que foi realmente copiado
+        Path temporario = Files.createTempFile(pasta, base + ".", ".tmp");
+        String hashCopiado;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = Files.newInputStream(arquivo);
+                 OutputStream out = comprimir
+                         ? new GZIPOutputStream(Files.newOutputStream(temporario), 64 * 1024)
+                         : Files.newOutputStream(temporario)) {
+                byte[] buffer = new byte[64 * 1024];
+                int lidos;
+                while ((lidos = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, lidos);
+                    out.write(buffer, 0, lidos);
+                }
+            }
+            hashCopiado = paraHex(digest.digest());
+
+            rodarGeracoes(pasta, base, geracoes);
+            Files.move(temporario, pasta.resolve(nomeGeracao(base, 0, comprimir)), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+
+        Files.write(arquivoHash, hashCopiado.getBytes(StandardCharsets.US_ASCII));
+        System.out.println("✔ Backup criado em: " + pasta.resolve(nomeGeracao(base, 0, comprimir)));
+    }
+
+    private static String calcularHash(Path arquivo) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = Files.newInputStream(arquivo)) {
+            byte[] buffer = new byte[64 * 1024];
+            int lidos;
+            while ((lidos = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, lidos);
+            }
+        }
+        return paraHex(digest.digest());
+    }
+
+    /**
+     * Descarta a geração mais antiga e empurra as restantes uma posição.
+     */
+    private void rodarGeracoes(Path pasta, String base, int geracoes) throws IOException {
+        for (boolean gz : new boolean[] { false, true }) {
+            Files.deleteIfExists(pasta.resolve(nomeGeracao(base, geracoes - 1, gz)));
+            for (int i = geracoes - 2; i >= 0; i--) {
+                Path origem = pasta.resolve(nomeGeracao(base, i, gz));
+                if (Files.exists(origem)) {
+                    Files.move(origem, pasta.resolve(nomeGeracao(base, i + 1, gz)), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    /**
+     * Primeiros 8 dígitos hex do SHA-256 do caminho absoluto da pasta do save.
+     */
+    private static String codigoPasta(Path arquivo) throws Exception {
+        Path pasta = arquivo.toAbsolutePath().normalize().getParent();
+        byte[] hash = MessageDigest.getInstance("SHA-256")
+                .digest(String.valueOf(pasta).getBytes(StandardCharsets.UTF_8));
+        return paraHex(hash).substring(0, 8);
+    }
+
+    private static String nomeGeracao(String base, int geracao, boolean comprimido) {
+        String nome = (geracao == 0) ? base : base + "." + geracao;
+        return comprimido ? nome + EXTENSAO_GZIP : nome;
+    }
+
+    static String paraHex(byte[] bytes) {
+        StringBuilder hexString = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+}
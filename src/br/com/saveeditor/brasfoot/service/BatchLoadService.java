@@ -0,0 +1,186 @@
+package br.com.saveeditor.brasfoot.service;
+
+import br.com.saveeditor.brasfoot.model.NavegacaoState;
+import com.esotericsoftware.kryo.Kryo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carrega todos os .s22 de um diretório em paralelo.
+ * Usa um número limitado de workers (pelos núcleos e pela memória livre), cada
+ * um com o seu próprio Kryo, e entrega cada save assim que fica pronto.
+ */
+public class BatchLoadService {
+
+    private static final String EXTENSAO = ".s22";
+    // Memória estimada do grafo desserializado em relação ao tamanho do ficheiro
+    private static final int FATOR_MEMORIA = 8;
+
+    private final SaveFileService saveFileService;
+
+    public BatchLoadService(SaveFileService saveFileService) {
+        this.saveFileService = saveFileService;
+    }
+
+    /**
+     * Começa a carregar o diretório e retorna de imediato.
+     * O listener é chamado a partir das threads de trabalho.
+     *
+     * @return handle para cancelar ou aguardar o lote
+     */
+    public BatchLoad carregarDiretorio(File diretorio, BatchLoadListener listener) {
+        File[] encontrados = diretorio.listFiles((dir, nome) -> nome.toLowerCase().endsWith(EXTENSAO));
+        List<File> arquivos = new ArrayList<>();
+        if (encontrados != null) {
+            arquivos.addAll(Arrays.asList(encontrados));
+        }
+        // Os maiores primeiro: os workers terminam mais perto uns dos outros
+        arquivos.sort(Comparator.comparingLong(File::length).reversed());
+
+        int workers = calcularWorkers(arquivos);
+        System.out.println("\n📚 A carregar " + arquivos.size() + " saves de " + diretorio + " com " + workers + " worker(s)");
+
+        Queue<File> fila = new ConcurrentLinkedQueue<>(arquivos);
+        BatchLoad lote = new BatchLoad(arquivos.size(), workers);
+        AtomicInteger carregados = new AtomicInteger();
+        AtomicInteger falhas = new AtomicInteger();
+        long inicioLote = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers), new ThreadFactory() {
+            private final AtomicInteger contador = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "BatchLoad-" + contador.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+        for (int i = 0; i < workers; i++) {
+            executor.execute(() -> {
+                // Um Kryo por worker, reutilizado em todos os ficheiros que ele ler
+                Kryo kryo = KryoPool.leitura().obter();
+                try {
+                    File arquivo;
+                    while (!lote.isCancelado() && (arquivo = fila.poll()) != null) {
+                        long inicio = System.nanoTime();
+                        try {
+                            NavegacaoState estado = saveFileService.carregarSaveCompleto(arquivo, kryo);
+                            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                            carregados.incrementAndGet();
+                            System.out.println("✔ " + arquivo.getName() + " (" + millis + " ms)");
+                            listener.onFileLoaded(arquivo, estado, millis);
+                        } catch (Exception e) {
+                            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                            falhas.incrementAndGet();
+                            System.err.println("✖ " + arquivo.getName() + ": " + e.getMessage());
+                            listener.onFileFailed(arquivo, e, millis);
+                        }
+                    }
+                } finally {
+                    KryoPool.leitura().devolver(kryo);
+                    if (lote.workerTerminou()) {
+                        long total = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioLote);
+                        System.out.println("✔ Lote concluído: " + carregados.get() + " carregados, " + falhas.get() + " falhas em " + total + " ms");
+                        listener.onFinished(carregados.get(), falhas.get(), total);
+                    }
+                    lote.workerLiberado();
+                }
+            });
+        }
+        executor.shutdown();
+
+        if (workers == 0) {
+            listener.onFinished(0, 0, 0);
+        }
+        return lote;
+    }
+
+    /**
+     * Workers = núcleos, limitado pela memória livre para o maior save do lote.
+     */
+    private static int calcularWorkers(List<File> arquivos) {
+        if (arquivos.isEmpty()) {
+            return 0;
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long livre = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        long porWorker = Math.max(1, arquivos.get(0).length() * FATOR_MEMORIA);
+        int porMemoria = (int) Math.max(1, livre / porWorker);
+        return Math.min(arquivos.size(), Math.min(runtime.availableProcessors(), porMemoria));
+    }
+
+    /**
+     * Handle de um lote em andamento.
+     */
+    public static class BatchLoad {
+        private final int totalArquivos;
+        private final AtomicBoolean cancelado = new AtomicBoolean(false);
+        private final AtomicInteger workersAtivos;
+        private final CountDownLatch workersLiberados;
+
+        BatchLoad(int totalArquivos, int workers) {
+            this.totalArquivos = totalArquivos;
+            this.workersAtivos = new AtomicInteger(workers);
+            this.workersLiberados = new CountDownLatch(workers);
+        }
+
+        /**
+         * Os ficheiros que já estão a ser lidos terminam; os restantes são ignorados.
+         */
+        public void cancelar() {
+            cancelado.set(true);
+        }
+
+        public boolean isCancelado() {
+            return cancelado.get();
+        }
+
+        public int getTotalArquivos() {
+            return totalArquivos;
+        }
+
+        /**
+         * Aguarda o fim do lote, incluindo a chamada a onFinished.
+         */
+        public void aguardar() throws InterruptedException {
+            workersLiberados.await();
+        }
+
+        /**
+         * @return true se era o último worker
+         */
+        boolean workerTerminou() {
+            return workersAtivos.decrementAndGet() == 0;
+        }
+
+        void workerLiberado() {
+            workersLiberados.countDown();
+        }
+    }
+
+    /**
+     * Interface para receber os saves à medida que ficam prontos.
+     */
+    public interface BatchLoadListener {
+        void onFileLoaded(File arquivo, NavegacaoState estado, long millis);
+
+        void onFileFailed(File arquivo, Exception erro, long millis);
+
+        void onFinished(int carregados, int falhas, long millisTotal);
+    }
+}
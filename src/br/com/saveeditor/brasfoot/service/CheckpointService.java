@@ -0,0 +1,201 @@
+package br.com.saveeditor.brasfoot.service;
+
+import br.com.saveeditor.brasfoot.config.PreferencesManager;
+import br.com.saveeditor.brasfoot.model.NavegacaoState;
+import br.com.saveeditor.brasfoot.model.UserPreferences;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serviço de checkpoints da sessão em segundo plano.
+ * A cada intervalo grava um checkpoint comprimido de cada aba com alterações
+ * desde o último, e mantém apenas os N mais recentes por save.
+ */
+public class CheckpointService {
+
+    private static final String EXTENSAO = ".ckpt";
+
+    private static CheckpointService instance;
+
+    private final PreferencesManager preferencesManager;
+    private final SaveFileService saveFileService;
+    private final ScheduledExecutorService executor;
+    // Abas acompanhadas → geração de edição e instante do último checkpoint
+    private final Map<NavegacaoState, long[]> estados = new WeakHashMap<>();
+    private boolean iniciado;
+
+    private CheckpointService() {
+        this.preferencesManager = PreferencesManager.getInstance();
+        this.saveFileService = new SaveFileService();
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Checkpoint-Thread");
+            t.setDaemon(true);
+            // Não competir com a interface
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Obtém a instância singleton.
+     */
+    public static synchronized CheckpointService getInstance() {
+        if (instance == null) {
+            instance = new CheckpointService();
+        }
+        return instance;
+    }
+
+    /**
+     * Começa a verificar as abas a cada minuto. O intervalo real vem das preferências.
+     */
+    public synchronized void iniciar() {
+        if (iniciado) {
+            return;
+        }
+        iniciado = true;
+        executor.scheduleWithFixedDelay(this::verificar, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Passa a acompanhar um estado. O primeiro checkpoint só acontece depois de uma alteração.
+     */
+    public void registrar(NavegacaoState estado) {
+        synchronized (estados) {
+            estados.put(estado, new long[] { estado.getGeracaoEdicao(), System.currentTimeMillis() });
+        }
+    }
+
+    public void remover(NavegacaoState estado) {
+        synchronized (estados) {
+            estados.remove(estado);
+        }
+    }
+
+    private void verificar() {
+        UserPreferences.FileSettings files = preferencesManager.getPreferences().getFiles();
+        if (!files.isAutoCheckpoint()) {
+            return;
+        }
+        long intervalo = TimeUnit.MINUTES.toMillis(Math.max(1, files.getCheckpointIntervalMinutes()));
+
+        List<NavegacaoState> pendentes = new ArrayList<>();
+        synchronized (estados) {
+            long agora = System.currentTimeMillis();
+            for (Map.Entry<NavegacaoState, long[]> entry : estados.entrySet()) {
+                NavegacaoState estado = entry.getKey();
+                long[] ultimo = entry.getValue();
+                if (estado.isDataAfQCarregado() && estado.getGeracaoEdicao() != ultimo[0] && agora - ultimo[1] >= intervalo) {
+                    pendentes.add(estado);
+                }
+            }
+        }
+
+        for (NavegacaoState estado : pendentes) {
+            long geracao = estado.getGeracaoEdicao();
+            if (criarCheckpoint(estado).isPresent()) {
+                synchronized (estados) {
+                    if (estados.containsKey(estado)) {
+                        estados.put(estado, new long[] { geracao, System.currentTimeMillis() });
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Grava um checkpoint do estado agora e descarta os mais antigos além do limite.
+     */
+    public Optional<Path> criarCheckpoint(NavegacaoState estado) {
+        try {
+            Path pasta = getDiretorio();
+            Files.createDirectories(pasta);
+            String base = nomeBase(estado.getCaminhoArquivoOriginal());
+            String carimbo = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+            Path destino = pasta.resolve(base + "." + carimbo + EXTENSAO);
+
+            long inicio = System.nanoTime();
+            if (!saveFileService.salvarCheckpoint(estado, destino)) {
+                return Optional.empty();
+            }
+            System.out.println("✔ Checkpoint criado: " + destino.getFileName() + " (" + Files.size(destino) / 1024 + " KB, "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) + " ms)");
+
+            int maximo = Math.max(1, preferencesManager.getPreferences().getFiles().getMaxCheckpointsPerSave());
+            List<Path> existentes = listar(pasta, base);
+            for (int i = maximo; i < existentes.size(); i++) {
+                Files.deleteIfExists(existentes.get(i));
+            }
+            return Optional.of(destino);
+        } catch (Exception e) {
+            System.err.println("✖ Falha ao criar o checkpoint: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Checkpoints de um save, do mais recente para o mais antigo.
+     */
+    public List<Path> listarCheckpoints(String caminhoSave) {
+        try {
+            return listar(getDiretorio(), nomeBase(caminhoSave));
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    public Path getDiretorio() {
+        return preferencesManager.getConfigDirectory().resolve("checkpoints");
+    }
+
+    private static List<Path> listar(Path pasta, String base) throws IOException {
+        List<Path> encontrados = new ArrayList<>();
+        if (!Files.isDirectory(pasta)) {
+            return encontrados;
+        }
+        // Filtrar à mão: o nome do save pode ter caracteres especiais de glob
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(pasta)) {
+            for (Path p : stream) {
+                String nome = p.getFileName().toString();
+                if (nome.startsWith(base + ".") && nome.endsWith(EXTENSAO)) {
+                    encontrados.add(p);
+                }
+            }
+        }
+        // O carimbo no nome ordena cronologicamente
+        encontrados.sort(Collections.reverseOrder());
+        return encontrados;
+    }
+
+    /**
+     * Nome do save mais um hash curto do caminho: saves com o mesmo nome em
+     * pastas diferentes não partilham checkpoints.
+     */
+    private static String nomeBase(String caminhoSave) {
+        File arquivo = new File(caminhoSave);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(arquivo.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+            return arquivo.getName() + "-" + BackupService.paraHex(hash).substring(0, 8);
+        } catch (Exception e) {
+            return arquivo.getName();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.saveeditor.brasfoot.service;
+
+import br.com.saveeditor.brasfoot.model.NavegacaoState;
+
+import java.util.Stack;
+
+/**
+ * Save a que pertencem as edições em curso na thread atual: o da transação aberta
+ * mais interna que indicou um estado (as abertas sem estado herdam o de fora).
+ * Partilhado pelo {@link EditorService} e pelo {@link PresetService}, para que um
+ * preset aplicado dentro de uma edição fique no mesmo save.
+ */
+final class DonoDaEdicao {
+
+    private static final ThreadLocal<Stack<NavegacaoState>> PILHA = ThreadLocal.withInitial(Stack::new);
+
+    private DonoDaEdicao() {
+    }
+
+    /**
+     * Entra numa transação.
+     *
+     * @return o save dela (o indicado, ou o herdado; null se nenhum)
+     */
+    static NavegacaoState entrar(NavegacaoState estado) {
+        Stack<NavegacaoState> pilha = PILHA.get();
+        NavegacaoState dono = (estado != null) ? estado : atual(pilha);
+        pilha.push(dono);
+        return dono;
+    }
+
+    static void sair() {
+        Stack<NavegacaoState> pilha = PILHA.get();
+        if (!pilha.isEmpty()) {
+            pilha.pop();
+        }
+        if (pilha.isEmpty()) {
+            PILHA.remove();
+        }
+    }
+
+    /**
+     * Save das edições feitas agora nesta thread, ou null fora de transações com estado.
+     */
+    static NavegacaoState atual() {
+        return atual(PILHA.get());
+    }
+
+    private static NavegacaoState atual(Stack<NavegacaoState> pilha) {
+        return pilha.isEmpty() ? null : pilha.peek();
+    }
+}
@@ -0,0 +1,378 @@
+package br.com.saveeditor.brasfoot.service;
+
+import br.com.saveeditor.brasfoot.util.FieldAccessor;
+import br.com.saveeditor.brasfoot.util.FieldAccessorRegistry;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Histórico de edições de um save, para desfazer e refazer.
+ * <ul>
+ *   <li>Cada alteração é uma entrada (objeto, acessor do campo, valor anterior, valor novo)
+ *       em arrays paralelos. Os valores primitivos ficam em long (bits do float/double),
+ *       sem caixas; os outros vão para uma lista de referências e a entrada guarda o índice.</li>
+ *   <li>As alterações agrupam-se em transações (uma edição em massa, um preset num time...).
+ *       Desfazer ou refazer uma transação percorre só as entradas dela.</li>
+ *   <li>O número de entradas tem um limite: ao passá-lo, as transações mais antigas
+ *       são descartadas.</li>
+ * </ul>
+ * Uma alteração registada fora de uma transação forma uma transação sozinha.
+ * Registar depois de desfazer descarta o que podia ser refeito.
+ */
+public final class EditJournal {
+
+    /** Entradas guardadas por omissão (cerca de 24 bytes cada). */
+    public static final int LIMITE_PADRAO = 500_000;
+
+    private final int limite;
+
+    // Entradas
+    private Object[] donos = new Object[64];
+    private FieldAccessor[] campos = new FieldAccessor[64];
+    private long[] anteriores = new long[64];
+    private long[] novos = new long[64];
+    private int entradas;
+    private Object[] referencias = new Object[16];
+    private int totalReferencias;
+
+    // Transações: onde cada uma começa nas entradas e nas referências
+    private int[] inicioEntradas = new int[16];
+    private int[] inicioReferencias = new int[16];
+    private String[] descricoes = new String[16];
+    private int transacoes;
+    // As primeiras 'aplicadas' estão em vigor; as seguintes podem ser refeitas
+    private int aplicadas;
+
+    private int profundidade;
+    // A desfazer/refazer: as alterações notificadas nesse meio tempo não são registadas
+    private boolean aplicando;
+    // A transação aberta passou do limite sozinha: o resto dela não é registado
+    private boolean excedida;
+
+    public EditJournal() {
+        this(LIMITE_PADRAO);
+    }
+
+    public EditJournal(int limite) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("O limite do histórico deve ser positivo");
+        }
+        this.limite = limite;
+    }
+
+    /**
+     * Abre uma transação. Transações abertas dentro de outra juntam-se a ela.
+     */
+    public synchronized void abrirTransacao(String descricao) {
+        if (profundidade++ == 0) {
+            iniciar(descricao);
+        }
+    }
+
+    public synchronized void fecharTransacao() {
+        if (profundidade == 0) {
+            return;
+        }
+        if (--profundidade == 0) {
+            terminar();
+        }
+    }
+
+    /**
+     * Regista uma alteração já feita. Ignorada se o valor não mudou ou se o objeto
+     * não declara o campo.
+     */
+    public synchronized void registrar(Object dono, String nomeCampo, Object anterior, Object novo) {
+        if (aplicando || dono == null || Objects.equals(anterior, novo)) {
+            return;
+        }
+        FieldAccessor campo = FieldAccessorRegistry.getInstance().procurar(dono.getClass(), nomeCampo);
+        if (campo == null) {
+            return;
+        }
+        boolean avulsa = profundidade == 0;
+        if (avulsa) {
+            iniciar("Alterar " + nomeCampo);
+        }
+        if (!excedida) {
+            adicionar(dono, campo, anterior, novo);
+        }
+        if (avulsa) {
+            terminar();
+        }
+    }
+
+    /**
+     * Repõe os valores anteriores da última transação em vigor, da última alteração
+     * para a primeira, e avisa quem pediu de cada campo reposto.
+     *
+     * @return descrição da transação desfeita, ou null se não há nada para desfazer
+     * @throws IllegalStateException se há uma transação aberta
+     */
+    public synchronized String desfazer(Reposicao notificar) throws IllegalAccessException {
+        verificarFechada();
+        if (aplicadas == 0) {
+            return null;
+        }
+        int t = --aplicadas;
+        aplicando = true;
+        try {
+            for (int i = fimDe(t) - 1; i >= inicioEntradas[t]; i--) {
+                escrever(donos[i], campos[i], anteriores[i]);
+                notificar.reposto(donos[i], campos[i].getNome(), emCaixa(campos[i], novos[i]), emCaixa(campos[i], anteriores[i]));
+            }
+        } finally {
+            aplicando = false;
+        }
+        return descricoes[t];
+    }
+
+    /**
+     * Volta a aplicar a última transação desfeita, pela ordem original.
+     *
+     * @return descrição da transação refeita, ou null se não há nada para refazer
+     * @throws IllegalStateException se há uma transação aberta
+     */
+    public synchronized String refazer(Reposicao notificar) throws IllegalAccessException {
+        verificarFechada();
+        if (aplicadas == transacoes) {
+            return null;
+        }
+        int t = aplicadas++;
+        aplicando = true;
+        try {
+            for (int i = inicioEntradas[t]; i < fimDe(t); i++) {
+                escrever(donos[i], campos[i], novos[i]);
+                notificar.reposto(donos[i], campos[i].getNome(), emCaixa(campos[i], anteriores[i]), emCaixa(campos[i], novos[i]));
+            }
+        } finally {
+            aplicando = false;
+        }
+        return descricoes[t];
+    }
+
+    public synchronized boolean podeDesfazer() {
+        return aplicadas > 0;
+    }
+
+    public synchronized boolean podeRefazer() {
+        return aplicadas < transacoes;
+    }
+
+    /**
+     * Descrição da transação que {@link #desfazer} desfaria, ou null.
+     */
+    public synchronized String getProximaDesfazer() {
+        return (aplicadas > 0) ? descricoes[aplicadas - 1] : null;
+    }
+
+    /**
+     * Descrição da transação que {@link #refazer} refaria, ou null.
+     */
+    public synchronized String getProximaRefazer() {
+        return (aplicadas < transacoes) ? descricoes[aplicadas] : null;
+    }
+
+    /**
+     * Alterações guardadas (em vigor e desfeitas).
+     */
+    public synchronized int getTamanho() {
+        return entradas;
+    }
+
+    public synchronized void limpar() {
+        cortar(0);
+        profundidade = 0;
+        excedida = false;
+    }
+
+    private void verificarFechada() {
+        if (profundidade > 0) {
+            throw new IllegalStateException("Há uma edição em curso");
+        }
+    }
+
+    private int fimDe(int t) {
+        return (t + 1 < transacoes) ? inicioEntradas[t + 1] : entradas;
+    }
+
+    private void iniciar(String descricao) {
+        // Uma alteração nova invalida o que estava desfeito
+        cortar(aplicadas);
+        if (transacoes == inicioEntradas.length) {
+            int capacidade = transacoes * 2;
+            inicioEntradas = Arrays.copyOf(inicioEntradas, capacidade);
+            inicioReferencias = Arrays.copyOf(inicioReferencias, capacidade);
+            descricoes = Arrays.copyOf(descricoes, capacidade);
+        }
+        inicioEntradas[transacoes] = entradas;
+        inicioReferencias[transacoes] = totalReferencias;
+        descricoes[transacoes] = descricao;
+        transacoes++;
+        aplicadas = transacoes;
+        excedida = false;
+    }
+
+    private void terminar() {
+        // Transações sem alterações não ficam no histórico
+        if (!excedida && transacoes > 0 && inicioEntradas[transacoes - 1] == entradas) {
+            cortar(transacoes - 1);
+        }
+        excedida = false;
+    }
+
+    /**
+     * Remove as transações a partir de t (inclusive).
+     */
+    private void cortar(int t) {
+        if (t >= transacoes) {
+            return;
+        }
+        int e = inicioEntradas[t];
+        int r = inicioReferencias[t];
+        Arrays.fill(donos, e, entradas, null);
+        Arrays.fill(campos, e, entradas, null);
+        Arrays.fill(referencias, r, totalReferencias, null);
+        Arrays.fill(descricoes, t, transacoes, null);
+        entradas = e;
+        totalReferencias = r;
+        transacoes = t;
+        aplicadas = Math.min(aplicadas, t);
+    }
+
+    private void adicionar(Object dono, FieldAccessor campo, Object anterior, Object novo) {
+        if (entradas >= limite && !liberar()) {
+            return;
+        }
+        if (entradas == donos.length) {
+            int capacidade = Math.min(entradas * 2, limite);
+            donos = Arrays.copyOf(donos, capacidade);
+            campos = Arrays.copyOf(campos, capacidade);
+            anteriores = Arrays.copyOf(anteriores, capacidade);
+            novos = Arrays.copyOf(novos, capacidade);
+        }
+        donos[entradas] = dono;
+        campos[entradas] = campo;
+        anteriores[entradas] = codificar(campo, anterior);
+        novos[entradas] = codificar(campo, novo);
+        entradas++;
+    }
+
+    /**
+     * Descarta as transações mais antigas (já fechadas) até sobrar um quarto do limite
+     * livre. Se a transação aberta ocupa sozinha o limite, deixa de a registar.
+     *
+     * @return false se a transação aberta foi descartada
+     */
+    private boolean liberar() {
+        int alvo = limite - limite / 4;
+        // A última transação é a que está aberta: só as anteriores podem sair
+        int aberta = transacoes - 1;
+        int n = 1;
+        while (n < aberta && entradas - inicioEntradas[n] > alvo) {
+            n++;
+        }
+        if (n <= aberta) {
+            descartarAntigas(n);
+            if (entradas < limite) {
+                return true;
+            }
+        }
+        System.err.println("⚠ Edição grande demais para o histórico (limite de " + limite
+                + " alterações): não poderá ser desfeita");
+        cortar(0);
+        excedida = true;
+        return false;
+    }
+
+    private void descartarAntigas(int n) {
+        int e = inicioEntradas[n];
+        int r = inicioReferencias[n];
+        System.arraycopy(donos, e, donos, 0, entradas - e);
+        System.arraycopy(campos, e, campos, 0, entradas - e);
+        System.arraycopy(anteriores, e, anteriores, 0, entradas - e);
+        System.arraycopy(novos, e, novos, 0, entradas - e);
+        Arrays.fill(donos, entradas - e, entradas, null);
+        Arrays.fill(campos, entradas - e, entradas, null);
+        entradas -= e;
+        System.arraycopy(referencias, r, referencias, 0, totalReferencias - r);
+        Arrays.fill(referencias, totalReferencias - r, totalReferencias, null);
+        totalReferencias -= r;
+        // Os índices de referência guardados nas entradas descem r posições
+        for (int i = 0; i < entradas; i++) {
+            if (!campos[i].getTipo().isPrimitive()) {
+                anteriores[i] -= r;
+                novos[i] -= r;
+            }
+        }
+        for (int t = n; t < transacoes; t++) {
+            inicioEntradas[t - n] = inicioEntradas[t] - e;
+            inicioReferencias[t - n] = inicioReferencias[t] - r;
+            descricoes[t - n] = descricoes[t];
+        }
+        Arrays.fill(descricoes, transacoes - n, transacoes, null);
+        transacoes -= n;
+        aplicadas -= n;
+    }
+
+    private long codificar(FieldAccessor campo, Object valor) {
+        Class<?> tipo = campo.getTipo();
+        if (tipo.isPrimitive()) {
+            if (valor == null) return 0;
+            if (tipo == boolean.class) return ((Boolean) valor) ? 1 : 0;
+            if (tipo == char.class) return (Character) valor;
+            if (tipo == double.class) return Double.doubleToRawLongBits(((Number) valor).doubleValue());
+            if (tipo == float.class) return Float.floatToRawIntBits(((Number) valor).floatValue());
+            return ((Number) valor).longValue();
+        }
+        if (totalReferencias == referencias.length) {
+            referencias = Arrays.copyOf(referencias, totalReferencias * 2);
+        }
+        referencias[totalReferencias] = valor;
+        return totalReferencias++;
+    }
+
+    private void escrever(Object dono, FieldAccessor campo, long valor) throws IllegalAccessException {
+        Class<?> tipo = campo.getTipo();
+        if (tipo == int.class) {
+            campo.setInt(dono, (int) valor);
+        } else if (tipo == boolean.class) {
+            campo.setBoolean(dono, valor != 0);
+        } else if (tipo == long.class) {
+            campo.setLong(dono, valor);
+        } else if (tipo == double.class) {
+            campo.setDouble(dono, Double.longBitsToDouble(valor));
+        } else if (tipo == float.class) {
+            campo.setFloat(dono, Float.intBitsToFloat((int) valor));
+        } else if (tipo == short.class) {
+            campo.setShort(dono, (short) valor);
+        } else if (tipo == byte.class) {
+            campo.setByte(dono, (byte) valor);
+        } else if (tipo == char.class) {
+            campo.setChar(dono, (char) valor);
+        } else {
+            campo.set(dono, referencias[(int) valor]);
+        }
+    }
+
+    private Object emCaixa(FieldAccessor campo, long valor) {
+        Class<?> tipo = campo.getTipo();
+        if (tipo == int.class) return (int) valor;
+        if (tipo == boolean.class) return valor != 0;
+        if (tipo == long.class) return valor;
+        if (tipo == double.class) return Double.longBitsToDouble(valor);
+        if (tipo == float.class) return Float.intBitsToFloat((int) valor);
+        if (tipo == short.class) return (short) valor;
+        if (tipo == byte.class) return (byte) valor;
+        if (tipo == char.class) return (char) valor;
+        return referencias[(int) valor];
+    }
+
+    /**
+     * Recebe cada campo escrito ao desfazer ou refazer.
+     */
+    public interface Reposicao {
+        void reposto(Object dono, String nomeCampo, Object valorAnterior, Object valorNovo);
+    }
+}
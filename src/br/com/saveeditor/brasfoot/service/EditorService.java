@@ -1,33 +1,141 @@
 package br.com.saveeditor.brasfoot.service;
 
 import br.com.saveeditor.brasfoot.model.NavegacaoState;
+import br.com.saveeditor.brasfoot.util.FieldAccessor;
 import br.com.saveeditor.brasfoot.util.ReflectionUtils;
+import br.com.saveeditor.brasfoot.util.ValorConvertido;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Serviço de edição e navegação na estrutura de dados.
+ * Todas as alterações passam por {@link #definirCampo} e são notificadas aos listeners.
+ * As edições de vários campos ou itens são agrupadas numa transação, que o
+ * {@link EditJournal} de cada save desfaz ou refaz de uma vez.
  */
 public class EditorService {
 
+    private final List<ModificationListener> listeners = new CopyOnWriteArrayList<>();
+    // Histórico de edições por save aberto
+    private final Map<NavegacaoState, EditJournal> historicos = new ConcurrentHashMap<>();
+
+    public void addModificationListener(ModificationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeModificationListener(ModificationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Altera um campo e notifica os listeners com o valor anterior e o novo.
+     */
+    public void definirCampo(Object obj, String nomeCampo, Object valor) throws NoSuchFieldException, IllegalAccessException {
+        FieldAccessor campo = ReflectionUtils.getAccessor(obj, nomeCampo);
+        Object anterior = campo.get(obj);
+        campo.set(obj, valor);
+        for (ModificationListener listener : listeners) {
+            listener.onFieldModified(DonoDaEdicao.atual(), obj, nomeCampo, anterior, valor);
+        }
+    }
+
+    /**
+     * Grava um valor já convertido pelo setter tipado do campo e notifica os listeners.
+     * Nas edições em massa o mesmo {@link ValorConvertido} serve para todos os objetos.
+     * O valor anterior só é lido se houver listeners.
+     */
+    public void definirCampo(Object obj, FieldAccessor campo, ValorConvertido valor) throws IllegalAccessException {
+        Object anterior = listeners.isEmpty() ? null : campo.get(obj);
+        valor.escrever(campo, obj);
+        for (ModificationListener listener : listeners) {
+            listener.onFieldModified(DonoDaEdicao.atual(), obj, campo.getNome(), anterior, valor.getValor());
+        }
+    }
+
+    /**
+     * Avisa os listeners de que as próximas alterações desta thread formam uma só
+     * edição do save indicado, até {@link #terminarTransacao}. Pode ser aninhada;
+     * com estado null fica o da transação de fora.
+     */
+    public void iniciarTransacao(NavegacaoState estado, String descricao) {
+        NavegacaoState dono = DonoDaEdicao.entrar(estado);
+        for (ModificationListener listener : listeners) {
+            listener.onTransacaoIniciada(dono, descricao);
+        }
+    }
+
+    /**
+     * Transação sem save indicado: herda o da transação de fora (se houver).
+     */
+    public void iniciarTransacao(String descricao) {
+        iniciarTransacao(null, descricao);
+    }
+
+    public void terminarTransacao() {
+        try {
+            for (ModificationListener listener : listeners) {
+                listener.onTransacaoTerminada();
+            }
+        } finally {
+            DonoDaEdicao.sair();
+        }
+    }
+
+    /**
+     * Histórico de edições do save (criado no primeiro uso).
+     */
+    public EditJournal getHistorico(NavegacaoState estado) {
+        return historicos.computeIfAbsent(estado, e -> new EditJournal());
+    }
+
+    /**
+     * Esquece o histórico de um save que foi fechado.
+     */
+    public void descartarHistorico(NavegacaoState estado) {
+        historicos.remove(estado);
+    }
+
+    /**
+     * Desfaz a última edição do save; os listeners recebem cada campo reposto.
+     *
+     * @return descrição da edição desfeita, ou null se não havia nenhuma
+     */
+    public String desfazer(NavegacaoState estado) throws IllegalAccessException {
+        return getHistorico(estado).desfazer((dono, campo, anterior, novo) -> notificar(estado, dono, campo, anterior, novo));
+    }
+
+    /**
+     * Refaz a última edição desfeita do save.
+     *
+     * @return descrição da edição refeita, ou null se não havia nenhuma
+     */
+    public String refazer(NavegacaoState estado) throws IllegalAccessException {
+        return getHistorico(estado).refazer((dono, campo, anterior, novo) -> notificar(estado, dono, campo, anterior, novo));
+    }
+
+    private void notificar(NavegacaoState estado, Object dono, String nomeCampo, Object anterior, Object novo) {
+        for (ModificationListener listener : listeners) {
+            listener.onFieldModified(estado, dono, nomeCampo, anterior, novo);
+        }
+    }
+
     public void entrarEmCampo(NavegacaoState estado, String nomeCampo) throws ReflectiveOperationException {
         if (nomeCampo == null) {
             throw new IllegalArgumentException("Especifique um campo para entrar");
         }
         Object obj = estado.getObjetoAtual();
-        Field campo;
+        FieldAccessor campo;
         try {
-            campo = obj.getClass().getDeclaredField(nomeCampo);
+            campo = ReflectionUtils.getAccessor(obj, nomeCampo);
         } catch (NoSuchFieldException e) {
             throw new NoSuchFieldException("O campo '" + nomeCampo + "' não existe");
         }
-        campo.setAccessible(true);
         Object valorCampo = campo.get(obj);
         if (valorCampo != null) {
             estado.entrar(valorCampo);
@@ -73,18 +181,17 @@ public class EditorService {
         String[] partes = arg.split("=", 2);
         String nomeCampo = partes[0].trim();
         String valorStr = partes[1].trim();
-        Field campo;
+        FieldAccessor campo;
         try {
-            campo = obj.getClass().getDeclaredField(nomeCampo);
+            campo = ReflectionUtils.getAccessor(obj, nomeCampo);
         } catch (NoSuchFieldException e) {
             throw new NoSuchFieldException("O campo '" + nomeCampo + "' não existe");
         }
         try {
-            Object valorConvertido = ReflectionUtils.converterStringParaTipoDoCampo(valorStr, campo.getType());
-            ReflectionUtils.setFieldValue(obj, nomeCampo, valorConvertido);
+            definirCampo(obj, campo, ValorConvertido.de(valorStr, campo.getTipo()));
             System.out.println("✔ Campo '" + nomeCampo + "' atualizado para '" + valorStr + "'");
         } catch (NumberFormatException e) {
-            throw new NumberFormatException("Erro de conversão: O valor '" + valorStr + "' não é válido para o tipo " + campo.getType().getSimpleName());
+            throw new NumberFormatException("Erro de conversão: O valor '" + valorStr + "' não é válido para o tipo " + campo.getTipo().getSimpleName());
         }
     }
     
@@ -110,20 +217,30 @@ public class EditorService {
                 ? ((Collection<?>) colecaoOuArray).iterator()
                 : null;
 
-        for (int i = 0; i < totalItens; i++) {
-            Object item = (iterator != null) ? iterator.next() : Array.get(colecaoOuArray, i);
-            if (item == null) continue;
+        // Convertido uma vez por tipo de campo (numa lista do jogo, uma vez para todos os itens)
+        ValorConvertido valor = null;
 
-            try {
-                Field campo = item.getClass().getDeclaredField(nomeCampo);
-                Object valorConvertido = ReflectionUtils.converterStringParaTipoDoCampo(valorStr, campo.getType());
-                ReflectionUtils.setFieldValue(item, nomeCampo, valorConvertido);
-                sucessos++;
-            } catch (NoSuchFieldException e) {
-                // Ignora
-            } catch (Exception e) {
-                System.err.println("✖ Falha ao editar item " + i + ": " + e.getMessage());
+        iniciarTransacao("Editar '" + nomeCampo + "' em " + totalItens + " itens");
+        try {
+            for (int i = 0; i < totalItens; i++) {
+                Object item = (iterator != null) ? iterator.next() : Array.get(colecaoOuArray, i);
+                if (item == null) continue;
+
+                try {
+                    FieldAccessor campo = ReflectionUtils.getAccessor(item, nomeCampo);
+                    if (valor == null || valor.getTipo() != campo.getTipo()) {
+                        valor = ValorConvertido.de(valorStr, campo.getTipo());
+                    }
+                    definirCampo(item, campo, valor);
+                    sucessos++;
+                } catch (NoSuchFieldException e) {
+                    // Ignora
+                } catch (Exception e) {
+                    System.err.println("✖ Falha ao editar item " + i + ": " + e.getMessage());
+                }
             }
+        } finally {
+            terminarTransacao();
         }
 
         System.out.println("✔ Campo '" + nomeCampo + "' modificado em " + sucessos + " de " + totalItens + " itens");
@@ -147,55 +264,49 @@ public class EditorService {
             }
             
             System.out.println("A procurar por '" + nomeJogador + "'...");
-            boolean encontrado = encontrarEModificarJogadorRecursivo(objetoRaiz, nomeJogador, novaIdade, novoOver, new HashSet<>());
-            
-            if (!encontrado) {
+            Object jogador = encontrarJogador(objetoRaiz, nomeJogador);
+            if (jogador == null) {
                 throw new IllegalStateException("Jogador '" + nomeJogador + "' não encontrado");
             }
+
+            int idadeAntiga = ReflectionUtils.getAccessor(jogador, "em").getInt(jogador);
+            int overAntigo = ReflectionUtils.getAccessor(jogador, "eq").getInt(jogador);
+            iniciarTransacao("Editar jogador '" + nomeJogador + "'");
+            try {
+                definirCampo(jogador, "em", novaIdade);
+                definirCampo(jogador, "eq", novoOver);
+            } finally {
+                terminarTransacao();
+            }
+            System.out.println("✔ Jogador encontrado e modificado!");
+            System.out.println("  - Idade: " + idadeAntiga + " → " + novaIdade);
+            System.out.println("  - Força: " + overAntigo + " → " + novoOver);
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("Idade e over devem ser números válidos");
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Não foi possível modificar o jogador: " + e.getMessage(), e);
         }
     }
 
-    private boolean encontrarEModificarJogadorRecursivo(Object currentObject, String nomeJogadorAlvo, int novaIdade, int novoOver, Set<Object> visited) {
-        if (currentObject == null || !ReflectionUtils.isComplexObject(currentObject) || visited.contains(currentObject)) {
-            return false;
-        }
-        visited.add(currentObject);
-
-        if ("best.F".equals(currentObject.getClass().getName())) {
-            try {
-                String nomeAtual = (String) ReflectionUtils.getFieldValue(currentObject, "dm");
-                if (nomeJogadorAlvo.equals(nomeAtual)) {
-                    int idadeAntiga = (int) ReflectionUtils.getFieldValue(currentObject, "em");
-                    int overAntigo = (int) ReflectionUtils.getFieldValue(currentObject, "eq");
-                    ReflectionUtils.setFieldValue(currentObject, "em", novaIdade);
-                    ReflectionUtils.setFieldValue(currentObject, "eq", novoOver);
-                    System.out.println("✔ Jogador encontrado e modificado!");
-                    System.out.println("  - Idade: " + idadeAntiga + " → " + novaIdade);
-                    System.out.println("  - Força: " + overAntigo + " → " + novoOver);
-                    return true;
-                }
-            } catch (Exception e) { /* Ignora */ }
-        }
-
-        if (currentObject instanceof Collection) {
-            for (Object item : (Collection<?>) currentObject) {
-                if (encontrarEModificarJogadorRecursivo(item, nomeJogadorAlvo, novaIdade, novoOver, visited)) return true;
-            }
-        } else if (currentObject.getClass().isArray()) {
-            for (int i = 0; i < Array.getLength(currentObject); i++) {
-                if (encontrarEModificarJogadorRecursivo(Array.get(currentObject, i), nomeJogadorAlvo, novaIdade, novoOver, visited)) return true;
-            }
-        } else {
-            for (Field field : currentObject.getClass().getDeclaredFields()) {
+    /**
+     * Primeiro jogador (best.F) do grafo com o nome indicado, ou null.
+     */
+    public Object encontrarJogador(Object objetoRaiz, String nomeJogador) {
+        Object[] encontrado = new Object[1];
+        new GraphWalker(objetoRaiz, "raiz").percorrer((obj, no) -> {
+            if ("best.F".equals(obj.getClass().getName())) {
                 try {
-                    Object fieldValue = ReflectionUtils.getFieldValue(currentObject, field.getName());
-                    if (encontrarEModificarJogadorRecursivo(fieldValue, nomeJogadorAlvo, novaIdade, novoOver, visited)) return true;
+                    if (nomeJogador.equals(ReflectionUtils.getFieldValue(obj, "dm"))) {
+                        encontrado[0] = obj;
+                        return false;
+                    }
                 } catch (Exception e) { /* Ignora */ }
             }
-        }
-        return false;
+            return true;
+        });
+        return encontrado[0];
     }
 
     public void editarTime(Object objetoRaiz, String arg) {
@@ -250,20 +361,25 @@ public class EditorService {
             }
 
             int contador = 0;
-            Field campo;
+            FieldAccessor campo;
             try {
-                campo = listaJogadores.get(0).getClass().getDeclaredField(atributo);
+                campo = ReflectionUtils.getAccessor(listaJogadores.get(0), atributo);
             } catch (NoSuchFieldException e) {
                 throw new IllegalArgumentException("Atributo '" + atributo + "' não existe");
             }
 
-            Object valorConvertido = ReflectionUtils.converterStringParaTipoDoCampo(valorStr, campo.getType());
+            ValorConvertido valor = ValorConvertido.de(valorStr, campo.getTipo());
 
-            for (Object jogador : listaJogadores) {
-                try {
-                    ReflectionUtils.setFieldValue(jogador, atributo, valorConvertido);
-                    contador++;
-                } catch (Exception e) { /* Ignora */ }
+            iniciarTransacao("Editar '" + atributo + "' no time '" + nomeTime + "'");
+            try {
+                for (Object jogador : listaJogadores) {
+                    try {
+                        definirCampo(jogador, ReflectionUtils.getAccessor(jogador, atributo), valor);
+                        contador++;
+                    } catch (Exception e) { /* Ignora */ }
+                }
+            } finally {
+                terminarTransacao();
             }
             
             System.out.println("✔ " + contador + " jogadores do time '" + nomeTime + "' modificados");
@@ -272,4 +388,27 @@ public class EditorService {
             throw new RuntimeException("Erro ao editar time: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Interface para ser notificado de cada campo alterado.
+     * Pode ser chamada a partir de threads de background (SwingWorker).
+     */
+    public interface ModificationListener {
+        /**
+         * @param estado save a que pertence o objeto alterado (o da transação), ou null se não se sabe
+         */
+        void onFieldModified(NavegacaoState estado, Object dono, String nomeCampo, Object valorAnterior, Object valorNovo);
+
+        /**
+         * As alterações seguintes desta thread, até {@link #onTransacaoTerminada}, são
+         * uma só edição.
+         *
+         * @param estado save da transação, ou null se não se sabe
+         */
+        default void onTransacaoIniciada(NavegacaoState estado, String descricao) {
+        }
+
+        default void onTransacaoTerminada() {
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package br.com.saveeditor.brasfoot.service;
+
+import br.com.saveeditor.brasfoot.util.ClassSchema;
+import br.com.saveeditor.brasfoot.util.ReflectionUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Travessia do grafo de objetos de um save, partilhada por todas as buscas.
+ * <ul>
+ *   <li>Iterativa, com pilha explícita: grafos profundos não estouram a pilha.</li>
+ *   <li>Cada objeto é visitado uma vez, por identidade (não por equals/hashCode);
+ *       as outras referências a ele podem ser recebidas com um {@link ReferenceVisitor}.</li>
+ *   <li>Os caminhos não são montados durante a travessia: cada objeto guarda só o
+ *       pai e o rótulo (em arrays de int), e {@link #caminho(int)} monta o texto
+ *       quando é pedido.</li>
+ * </ul>
+ * A ordem é a de uma busca em profundidade recursiva: campos e elementos pela ordem
+ * em que aparecem, e um objeto só é marcado quando sai da pilha. Assim, um objeto
+ * partilhado fica com o primeiro caminho que a recursão lhe daria, e as outras
+ * referências chegam na mesma ordem. Cada instância percorre o grafo uma vez; os
+ * caminhos continuam disponíveis depois.
+ */
+public final class GraphWalker {
+
+    private final Object raiz;
+    private final String rotuloRaiz;
+    private final boolean manterObjetos;
+
+    // Por objeto visitado (o id é a ordem da visita): pai, rótulo da aresta que vem
+    // do pai e o próprio objeto (com manterObjetos; senão só durante a visita).
+    // O rótulo é o id do nome do campo em 'nomes' (>= 0) ou -(posição + 1) em listas/arrays.
+    private final IntLista pai = new IntLista();
+    private final IntLista rotulo = new IntLista();
+    private final List<String> nomes = new ArrayList<>();
+    private final Map<String, Integer> idNomes = new HashMap<>();
+    private final List<Object> objetos = new ArrayList<>();
+    private final MapaIdentidade ids = new MapaIdentidade();
+    private boolean percorrido;
+
+    public GraphWalker(Object raiz, String rotuloRaiz) {
+        this(raiz, rotuloRaiz, false);
+    }
+
+    /**
+     * @param manterObjetos guardar os objetos depois de visitados, para {@link #getObjeto(int)}
+     */
+    public GraphWalker(Object raiz, String rotuloRaiz, boolean manterObjetos) {
+        this.raiz = raiz;
+        this.rotuloRaiz = rotuloRaiz;
+        this.manterObjetos = manterObjetos;
+    }
+
+    /**
+     * Recebe cada objeto do grafo (objetos do jogo, coleções e arrays).
+     */
+    public interface Visitor {
+        /**
+         * @param no id do objeto, para {@link #caminho(int)}
+         * @return false para terminar a travessia
+         */
+        boolean visitarObjeto(Object objeto, int no);
+    }
+
+    /**
+     * Recebe também os valores simples (texto, números, null...) de cada objeto,
+     * logo a seguir ao próprio objeto.
+     */
+    public interface ValueVisitor extends Visitor {
+        /**
+         * @param campo   nome do campo, ou null se o valor é um elemento de lista/array
+         * @param posicao posição na lista/array, ou -1
+         * @return false para terminar a travessia
+         */
+        boolean visitarValor(Object dono, String campo, int posicao, Object valor, int no);
+    }
+
+    /**
+     * Recebe também as referências a objetos já alcançados por outro caminho
+     * (o objeto não volta a ser visitado).
+     */
+    public interface ReferenceVisitor extends Visitor {
+        /**
+         * @param noAlvo id do objeto referenciado
+         * @param no     id do objeto que contém a referência
+         * @return false para terminar a travessia
+         */
+        boolean visitarReferencia(int noAlvo, int no, String campo, int posicao);
+    }
+
+    /**
+     * Percorre o grafo a partir da raiz.
+     *
+     * @return false se o visitor terminou a travessia antes do fim
+     */
+    public boolean percorrer(Visitor visitor) {
+        if (percorrido) {
+            throw new IllegalStateException("Este GraphWalker já foi usado");
+        }
+        percorrido = true;
+        if (raiz == null || isValorSimples(raiz) || raiz instanceof Map) {
+            return true;
+        }
+        ValueVisitor valores = (visitor instanceof ValueVisitor) ? (ValueVisitor) visitor : null;
+        ReferenceVisitor referencias = (visitor instanceof ReferenceVisitor) ? (ReferenceVisitor) visitor : null;
+
+        // Arestas por seguir: objeto, id do dono e rótulo (marcadas só quando saem)
+        List<Object> pilha = new ArrayList<>();
+        IntLista pilhaPai = new IntLista();
+        IntLista pilhaRotulo = new IntLista();
+        pilha.add(raiz);
+        pilhaPai.adicionar(-1);
+        pilhaRotulo.adicionar(-1);
+
+        while (!pilha.isEmpty()) {
+            Object obj = pilha.remove(pilha.size() - 1);
+            int noPai = pilhaPai.remover();
+            int r = pilhaRotulo.remover();
+            int existente = ids.obterOuAdicionar(obj, pai.tamanho);
+            if (existente >= 0) {
+                // Já visitado por um caminho anterior
+                if (referencias != null && !referencias.visitarReferencia(existente, noPai,
+                        (r >= 0) ? nomes.get(r) : null, (r >= 0) ? -1 : -r - 1)) {
+                    return false;
+                }
+                continue;
+            }
+            int no = pai.tamanho;
+            pai.adicionar(noPai);
+            rotulo.adicionar(r);
+            objetos.add(manterObjetos ? obj : null);
+
+            if (!visitor.visitarObjeto(obj, no)) {
+                return false;
+            }
+
+            int inicio = pilha.size();
+            if (obj instanceof Collection) {
+                int i = 0;
+                for (Object item : (Collection<?>) obj) {
+                    if (!filho(valores, pilha, pilhaPai, pilhaRotulo, obj, no, null, i++, item)) {
+                        return false;
+                    }
+                }
+            } else if (obj.getClass().isArray()) {
+                // Arrays primitivos só têm valores simples
+                if (!obj.getClass().getComponentType().isPrimitive() || valores != null) {
+                    int len = Array.getLength(obj);
+                    for (int i = 0; i < len; i++) {
+                        if (!filho(valores, pilha, pilhaPai, pilhaRotulo, obj, no, null, i, Array.get(obj, i))) {
+                            return false;
+                        }
+                    }
+                }
+            } else {
+                for (Field field : campos(obj.getClass())) {
+                    Object valor;
+                    try {
+                        valor = field.get(obj);
+                    } catch (IllegalAccessException e) {
+                        continue;
+                    }
+                    if (!filho(valores, pilha, pilhaPai, pilhaRotulo, obj, no, field.getName(), -1, valor)) {
+                        return false;
+                    }
+                }
+            }
+
+            // Ao contrário, para o primeiro filho sair primeiro da pilha
+            for (int i = inicio, j = pilha.size() - 1; i < j; i++, j--) {
+                pilha.set(i, pilha.set(j, pilha.get(i)));
+                trocar(pilhaPai, i, j);
+                trocar(pilhaRotulo, i, j);
+            }
+        }
+        return true;
+    }
+
+    private boolean filho(ValueVisitor valores, List<Object> pilha, IntLista pilhaPai, IntLista pilhaRotulo,
+                          Object dono, int no, String nomeCampo, int pos, Object valor) {
+        if (valor == null || isValorSimples(valor)) {
+            return valores == null || valores.visitarValor(dono, nomeCampo, pos, valor, no);
+        }
+        // Mapas não fazem parte dos saves; ficam de fora como nas buscas antigas
+        if (valor instanceof Map) {
+            return true;
+        }
+        pilha.add(valor);
+        pilhaPai.adicionar(no);
+        pilhaRotulo.adicionar((nomeCampo != null) ? idNome(nomeCampo) : -(pos + 1));
+        return true;
+    }
+
+    private static void trocar(IntLista lista, int i, int j) {
+        int t = lista.dados[i];
+        lista.dados[i] = lista.dados[j];
+        lista.dados[j] = t;
+    }
+
+    private int idNome(String nome) {
+        Integer id = idNomes.get(nome);
+        if (id == null) {
+            id = nomes.size();
+            nomes.add(nome);
+            idNomes.put(nome, id);
+        }
+        return id;
+    }
+
+    /**
+     * Caminho do objeto desde a raiz, por exemplo {@code raiz.aj[3].nd[5]}.
+     */
+    public String caminho(int no) {
+        IntLista cadeia = new IntLista();
+        for (int n = no; n >= 0; n = pai.get(n)) {
+            cadeia.adicionar(n);
+        }
+        StringBuilder sb = new StringBuilder(rotuloRaiz);
+        for (int i = cadeia.tamanho - 2; i >= 0; i--) {
+            int r = rotulo.get(cadeia.get(i));
+            if (r >= 0) {
+                sb.append('.').append(nomes.get(r));
+            } else {
+                sb.append('[').append(-r - 1).append(']');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Caminho de um valor do objeto {@code no}, como recebido em {@link ValueVisitor#visitarValor}.
+     */
+    public String caminho(int no, String nomeCampo, int pos) {
+        return anexarRotulo(new StringBuilder(caminho(no)), nomeCampo, pos).toString();
+    }
+
+    private static StringBuilder anexarRotulo(StringBuilder sb, String nomeCampo, int pos) {
+        return (nomeCampo != null) ? sb.append('.').append(nomeCampo) : sb.append('[').append(pos).append(']');
+    }
+
+    /**
+     * true se o objeto foi alcançado como elemento de uma lista ou array.
+     */
+    public boolean isElemento(int no) {
+        return rotulo.get(no) < 0 && pai.get(no) >= 0;
+    }
+
+    /**
+     * Id do objeto que contém o objeto {@code no}, ou -1 na raiz.
+     */
+    public int getPai(int no) {
+        return pai.get(no);
+    }
+
+    /**
+     * O objeto {@code no}. Sem manterObjetos é sempre null.
+     */
+    public Object getObjeto(int no) {
+        return objetos.get(no);
+    }
+
+    /**
+     * Id do objeto nesta travessia, ou -1 se não foi alcançado.
+     */
+    public int getNo(Object objeto) {
+        return ids.obter(objeto);
+    }
+
+    public int getTotalObjetos() {
+        return pai.tamanho;
+    }
+
+    /**
+     * Valores que não são percorridos: tudo o que não é objeto do jogo, coleção, array ou mapa.
+     */
+    public static boolean isValorSimples(Object valor) {
+        return !(valor instanceof Collection) && !(valor instanceof Map) && !valor.getClass().isArray()
+                && !ReflectionUtils.isComplexObject(valor);
+    }
+
+    /**
+     * Campos de instância da classe (sem estáticos nem sintéticos), já acessíveis.
+     * Vêm do {@link ClassSchema} da classe: não alterar o array.
+     */
+    public static Field[] campos(Class<?> classe) {
+        return ClassSchema.de(classe).getFieldsInstancia();
+    }
+}
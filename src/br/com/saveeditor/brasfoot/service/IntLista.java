@@ -0,0 +1,56 @@
+package br.com.saveeditor.brasfoot.service;
+
+import java.util.Arrays;
+
+/**
+ * Lista de int sem boxing, para as estruturas das buscas.
+ */
+final class IntLista {
+    int[] dados;
+    int tamanho;
+
+    IntLista() {
+        this(16);
+    }
+
+    IntLista(int capacidade) {
+        dados = new int[Math.max(4, capacidade)];
+    }
+
+    void adicionar(int valor) {
+        if (tamanho == dados.length) {
+            dados = Arrays.copyOf(dados, tamanho * 2);
+        }
+        dados[tamanho++] = valor;
+    }
+
+    /**
+     * Não repete o último valor: ids adicionados por ordem ficam sem duplicados.
+     */
+    void adicionarSemRepetir(int valor) {
+        if (tamanho == 0 || dados[tamanho - 1] != valor) {
+            adicionar(valor);
+        }
+    }
+
+    int remover() {
+        return dados[--tamanho];
+    }
+
+    int get(int i) {
+        if (i >= tamanho) {
+            throw new IndexOutOfBoundsException("Índice " + i + ", tamanho " + tamanho);
+        }
+        return dados[i];
+    }
+
+    /**
+     * Define a posição i, aumentando a lista (com zeros) se for preciso.
+     */
+    void definir(int i, int valor) {
+        while (tamanho <= i) {
+            adicionar(0);
+        }
+        dados[i] = valor;
+    }
+}
@@ -0,0 +1,164 @@
+package br.com.saveeditor.brasfoot.service;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.serializers.CollectionSerializer;
+import org.objenesis.instantiator.ObjectInstantiator;
+import org.objenesis.strategy.InstantiatorStrategy;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pool de instâncias Kryo reutilizáveis.
+ * Um Kryo novo precisa de resolver de novo os serializers de cada classe best.*,
+ * por isso as instâncias são mantidas entre operações.
+ * Cada instância é usada por uma única thread de cada vez: obter() → usar → devolver().
+ * IMPORTANTE: Leitura e escrita usam perfis (e pools) separados!
+ */
+public final class KryoPool {
+
+    private static final int MAX_INSTANCIAS_LIVRES = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final KryoPool LEITURA = new KryoPool(Perfil.LEITURA);
+    private static final KryoPool ESCRITA = new KryoPool(Perfil.ESCRITA);
+    private static final KryoPool COPIA = new KryoPool(Perfil.COPIA);
+
+    private final Perfil perfil;
+    private final ConcurrentLinkedQueue<Kryo> livres = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger quantidadeLivres = new AtomicInteger();
+
+    private KryoPool(Perfil perfil) {
+        this.perfil = perfil;
+    }
+
+    /**
+     * Pool com a configuração especial de leitura (ver {@link Perfil#LEITURA}).
+     */
+    public static KryoPool leitura() {
+        return LEITURA;
+    }
+
+    /**
+     * Pool com a configuração limpa de escrita (ver {@link Perfil#ESCRITA}).
+     */
+    public static KryoPool escrita() {
+        return ESCRITA;
+    }
+
+    /**
+     * Pool para cópias profundas em memória (ver {@link Perfil#COPIA}).
+     */
+    public static KryoPool copia() {
+        return COPIA;
+    }
+
+    /**
+     * Obtém um Kryo do pool, criando um novo se não houver nenhum livre.
+     */
+    public Kryo obter() {
+        Kryo kryo = livres.poll();
+        if (kryo == null) {
+            return perfil.criar();
+        }
+        quantidadeLivres.decrementAndGet();
+        return kryo;
+    }
+
+    /**
+     * Devolve um Kryo ao pool. Não o use mais depois de devolvido.
+     */
+    public void devolver(Kryo kryo) {
+        if (kryo == null) {
+            return;
+        }
+        // Limpa referências de uma leitura/escrita interrompida a meio
+        kryo.reset();
+        if (quantidadeLivres.incrementAndGet() <= MAX_INSTANCIAS_LIVRES) {
+            livres.offer(kryo);
+        } else {
+            quantidadeLivres.decrementAndGet();
+        }
+    }
+
+    /**
+     * Executa uma ação com um Kryo do pool, devolvendo-o no fim.
+     */
+    public <T> T executar(Function<Kryo, T> acao) {
+        Kryo kryo = obter();
+        try {
+            return acao.apply(kryo);
+        } finally {
+            devolver(kryo);
+        }
+    }
+
+    /**
+     * Perfis de configuração do Kryo.
+     */
+    public enum Perfil {
+        LEITURA {
+            @Override
+            Kryo criar() {
+                Kryo kryo = new Kryo();
+                kryo.setInstantiatorStrategy(new StdInstantiatorStrategy());
+                kryo.setRegistrationRequired(false);
+                kryo.setClassLoader(KryoPool.class.getClassLoader());
+
+                // Serializer especial para ArrayList (apenas para leitura)
+                CollectionSerializer arrayListSerializer = new CollectionSerializer() {
+                    @Override
+                    protected Collection create(Kryo kryo, Input input, Class<Collection> type) {
+                        return new ArrayList();
+                    }
+                };
+                kryo.register(ArrayList.class, arrayListSerializer);
+                kryo.setDefaultSerializer((k, type) -> new LayoutFieldSerializer<>(k, type));
+                return kryo;
+            }
+        },
+        ESCRITA {
+            @Override
+            Kryo criar() {
+                // NÃO configura InstantiatorStrategy nem CollectionSerializer customizado
+                Kryo kryo = new Kryo();
+                kryo.setRegistrationRequired(false);
+                kryo.setClassLoader(KryoPool.class.getClassLoader());
+                // Mesmo formato do FieldSerializer, mas capaz de registar o layout dos campos
+                kryo.setDefaultSerializer((k, type) -> new LayoutFieldSerializer<>(k, type));
+                return kryo;
+            }
+        },
+        COPIA {
+            @Override
+            Kryo criar() {
+                // Coleções do JDK precisam do construtor (ex: ArrayList.elementData);
+                // as classes do jogo são criadas sem construtor, como na leitura
+                Kryo kryo = new Kryo();
+                kryo.setInstantiatorStrategy(new CopiaInstantiatorStrategy());
+                kryo.setRegistrationRequired(false);
+                kryo.setClassLoader(KryoPool.class.getClassLoader());
+                return kryo;
+            }
+        };
+
+        abstract Kryo criar();
+    }
+
+    /**
+     * Usa o construtor sem argumentos para classes java.* e Objenesis para as restantes.
+     */
+    private static class CopiaInstantiatorStrategy implements InstantiatorStrategy {
+        private final InstantiatorStrategy jdk = new Kryo.DefaultInstantiatorStrategy(new StdInstantiatorStrategy());
+        private final InstantiatorStrategy jogo = new StdInstantiatorStrategy();
+
+        @Override
+        public <T> ObjectInstantiator<T> newInstantiatorOf(Class<T> type) {
+            return type.getName().startsWith("java.") ? jdk.newInstantiatorOf(type) : jogo.newInstantiatorOf(type);
+        }
+    }
+}
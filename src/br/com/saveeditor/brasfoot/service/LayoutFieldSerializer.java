@@ -0,0 +1,80 @@
+package br.com.saveeditor.brasfoot.service;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+
+import java.util.IdentityHashMap;
+
+/**
+ * FieldSerializer que anota a posição de cada campo no stream quando há um
+ * registo ativo no contexto do Kryo (ver {@link #ativarRegisto}).
+ * Sem registo ativo comporta-se exatamente como o FieldSerializer.
+ */
+class LayoutFieldSerializer<T> extends FieldSerializer<T> {
+
+    private static final String CHAVE_REGISTO = "brasfoot.layout";
+
+    LayoutFieldSerializer(Kryo kryo, Class<?> type) {
+        super(kryo, type);
+    }
+
+    /**
+     * Passa a registar os limites dos campos de cada objeto lido ou escrito por este Kryo.
+     */
+    @SuppressWarnings("unchecked")
+    static void ativarRegisto(Kryo kryo, IdentityHashMap<Object, int[]> registo) {
+        kryo.getContext().put(CHAVE_REGISTO, registo);
+    }
+
+    @SuppressWarnings("unchecked")
+    static void desativarRegisto(Kryo kryo) {
+        kryo.getContext().remove(CHAVE_REGISTO);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, T object) {
+        IdentityHashMap<Object, int[]> registo = registoAtivo(kryo);
+        if (registo == null) {
+            super.write(kryo, output, object);
+            return;
+        }
+        CachedField<?>[] campos = getFields();
+        int[] limites = new int[campos.length + 1];
+        for (int i = 0; i < campos.length; i++) {
+            limites[i] = (int) output.total();
+            campos[i].write(output, object);
+        }
+        limites[campos.length] = (int) output.total();
+        registo.put(object, limites);
+    }
+
+    @Override
+    public T read(Kryo kryo, Input input, Class<T> type) {
+        IdentityHashMap<Object, int[]> registo = registoAtivo(kryo);
+        if (registo == null) {
+            return super.read(kryo, input, type);
+        }
+        T object = create(kryo, input, type);
+        kryo.reference(object);
+        CachedField<?>[] campos = getFields();
+        int[] limites = new int[campos.length + 1];
+        for (int i = 0; i < campos.length; i++) {
+            limites[i] = (int) input.total();
+            campos[i].read(input, object);
+        }
+        limites[campos.length] = (int) input.total();
+        registo.put(object, limites);
+        return object;
+    }
+
+    @SuppressWarnings("unchecked")
+    private IdentityHashMap<Object, int[]> registoAtivo(Kryo kryo) {
+        // Genéricos otimizados e campos transient mudam o formato: nesses casos não se regista
+        if (config.isOptimizedGenerics() || config.isSerializeTransient()) {
+            return null;
+        }
+        return (IdentityHashMap<Object, int[]>) kryo.getContext().get(CHAVE_REGISTO);
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.saveeditor.brasfoot.service;
+
+/**
+ * Mapa objeto → id por identidade, em endereçamento aberto: sem um objeto Entry por elemento.
+ * Não é thread-safe.
+ */
+final class MapaIdentidade {
+    private Object[] chaves = new Object[1024];
+    private int[] valores = new int[1024];
+    private int tamanho;
+
+    /**
+     * @return o id já associado ao objeto, ou -1 se o objeto era novo e ficou com {@code id}
+     */
+    int obterOuAdicionar(Object obj, int id) {
+        if ((tamanho + 1) * 2 > chaves.length) {
+            redimensionar();
+        }
+        int mascara = chaves.length - 1;
+        int i = espalhar(System.identityHashCode(obj)) & mascara;
+        while (chaves[i] != null) {
+            if (chaves[i] == obj) {
+                return valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = obj;
+        valores[i] = id;
+        tamanho++;
+        return -1;
+    }
+
+    int obter(Object obj) {
+        int mascara = chaves.length - 1;
+        int i = espalhar(System.identityHashCode(obj)) & mascara;
+        while (chaves[i] != null) {
+            if (chaves[i] == obj) {
+                return valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private void redimensionar() {
+        Object[] chavesAntigas = chaves;
+        int[] valoresAntigos = valores;
+        chaves = new Object[chavesAntigas.length * 2];
+        valores = new int[chaves.length];
+        int mascara = chaves.length - 1;
+        for (int j = 0; j < chavesAntigas.length; j++) {
+            if (chavesAntigas[j] != null) {
+                int i = espalhar(System.identityHashCode(chavesAntigas[j])) & mascara;
+                while (chaves[i] != null) {
+                    i = (i + 1) & mascara;
+                }
+                chaves[i] = chavesAntigas[j];
+                valores[i] = valoresAntigos[j];
+            }
+        }
+    }
+
+    private static int espalhar(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,180 @@
+package br.com.saveeditor.brasfoot.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Busca de texto em todo o grafo, sem índice, com a comparação em paralelo.
+ * A travessia é a do {@link GraphWalker}, a mesma do {@link SearchIndex}: os
+ * resultados têm os mesmos caminhos (incluindo os de objetos partilhados) e a
+ * mesma ordem que os do índice. Os valores simples lidos são juntados em blocos,
+ * pela ordem da travessia, e cada bloco é comparado com o critério (toString e
+ * {@link TextMatcher}) por uma tarefa do ForkJoinPool enquanto a travessia
+ * continua. Os blocos são entregues pela ordem, assim que cada um e os anteriores
+ * terminam: os resultados chegam durante a busca e, quando o listener pára, a
+ * travessia também pára.
+ */
+final class ParallelSearch {
+
+    // Valores por tarefa, e tarefas à frente da entrega antes de a travessia esperar
+    private static final int VALORES_POR_BLOCO = 4096;
+    private static final int BLOCOS_EM_CURSO = Runtime.getRuntime().availableProcessors() * 2;
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final GraphWalker walker;
+    private final TextMatcher criterio;
+    private final AtomicBoolean cancelado;
+    private final SearchService.SearchHitListener listener;
+
+    // Blocos enviados, pela ordem da travessia, e o que está a ser enchido
+    private final ArrayDeque<Bloco> emCurso = new ArrayDeque<>();
+    private Bloco atual = new Bloco();
+    private int entregues;
+    private boolean parar;
+
+    private ParallelSearch(Object raiz, String rotuloRaiz, TextMatcher criterio, AtomicBoolean cancelado,
+                           SearchService.SearchHitListener listener) {
+        this.walker = new GraphWalker(raiz, rotuloRaiz);
+        this.criterio = criterio;
+        this.cancelado = cancelado;
+        this.listener = listener;
+    }
+
+    /**
+     * @param criterio  partilhado pelas tarefas (é imutável)
+     * @param cancelado quando passa a true a busca termina com CancellationException
+     * @return número de resultados entregues ao listener
+     */
+    static int buscar(Object raiz, String rotuloRaiz, TextMatcher criterio, AtomicBoolean cancelado,
+                      SearchService.SearchHitListener listener) {
+        if (raiz == null || GraphWalker.isValorSimples(raiz) || raiz instanceof Map) {
+            return 0;
+        }
+        ParallelSearch busca = new ParallelSearch(raiz, rotuloRaiz, criterio, cancelado, listener);
+        try {
+            busca.walker.percorrer(busca.new Leitor());
+            if (!busca.parar) {
+                busca.enviar();
+                busca.entregar(true);
+            }
+        } finally {
+            for (Bloco bloco : busca.emCurso) {
+                bloco.tarefa.cancel(false);
+            }
+        }
+        return busca.entregues;
+    }
+
+    /**
+     * Junta os valores da travessia ao bloco atual.
+     */
+    private final class Leitor implements GraphWalker.ValueVisitor {
+        @Override
+        public boolean visitarObjeto(Object objeto, int no) {
+            verificarCancelamento(cancelado);
+            return !parar;
+        }
+
+        @Override
+        public boolean visitarValor(Object dono, String campo, int posicao, Object valor, int no) {
+            if (valor == null) {
+                return true;
+            }
+            atual.adicionar(dono, no, campo, posicao, valor);
+            if (atual.valores.size() >= VALORES_POR_BLOCO) {
+                enviar();
+                entregar(false);
+            }
+            return !parar;
+        }
+    }
+
+    private void enviar() {
+        if (atual.valores.isEmpty()) {
+            return;
+        }
+        Bloco bloco = atual;
+        bloco.tarefa = POOL.submit(() -> bloco.comparar(criterio, cancelado));
+        emCurso.addLast(bloco);
+        atual = new Bloco();
+    }
+
+    /**
+     * Entrega os blocos da frente que já terminaram. Com esperar, ou se há blocos
+     * demais em curso, espera por eles.
+     */
+    private void entregar(boolean esperar) {
+        while (!emCurso.isEmpty() && !parar) {
+            Bloco bloco = emCurso.peekFirst();
+            if (!esperar && !bloco.tarefa.isDone() && emCurso.size() < BLOCOS_EM_CURSO) {
+                return;
+            }
+            bloco.tarefa.join();
+            verificarCancelamento(cancelado);
+            emCurso.removeFirst();
+            for (int k = 0; k < bloco.acertos.tamanho; k++) {
+                int i = bloco.acertos.get(k);
+                int no = bloco.nos.get(i);
+                String campo = bloco.campos.get(i);
+                int posicao = bloco.posicoes.get(i);
+                entregues++;
+                SearchHit hit = new SearchHit(walker.caminho(no, campo, posicao), bloco.donos.get(i), campo, posicao,
+                        bloco.textos[i]);
+                if (!listener.onHit(hit)) {
+                    parar = true;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void verificarCancelamento(AtomicBoolean cancelado) {
+        if (cancelado.get()) {
+            throw new CancellationException("Busca cancelada");
+        }
+    }
+
+    /**
+     * Valores seguidos da travessia, em colunas, e os que têm o termo.
+     */
+    private static final class Bloco {
+        final List<Object> donos = new ArrayList<>();
+        final IntLista nos = new IntLista();
+        final List<String> campos = new ArrayList<>();
+        final IntLista posicoes = new IntLista();
+        final List<Object> valores = new ArrayList<>();
+
+        // Preenchidos pela tarefa
+        String[] textos;
+        final IntLista acertos = new IntLista();
+        ForkJoinTask<?> tarefa;
+
+        void adicionar(Object dono, int no, String campo, int posicao, Object valor) {
+            donos.add(dono);
+            nos.adicionar(no);
+            campos.add(campo);
+            posicoes.adicionar(posicao);
+            valores.add(valor);
+        }
+
+        void comparar(TextMatcher criterio, AtomicBoolean cancelado) {
+            textos = new String[valores.size()];
+            for (int i = 0; i < textos.length; i++) {
+                if ((i & 255) == 0 && cancelado.get()) {
+                    return;
+                }
+                String texto = valores.get(i).toString();
+                if (criterio.encontra(texto)) {
+                    textos[i] = texto;
+                    acertos.adicionar(i);
+                }
+            }
+        }
+    }
+}
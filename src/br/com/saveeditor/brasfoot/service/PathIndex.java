@@ -0,0 +1,150 @@
+package br.com.saveeditor.brasfoot.service;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Endereço de cada objeto do save, por exemplo {@code raiz.aj[12].nd[3]}.
+ * Guarda, da travessia do {@link GraphWalker}, o pai e o rótulo da aresta de cada
+ * objeto em arrays de int e o mapa de identidade objeto → id: o caminho de um
+ * objeto é montado subindo pelos pais, em O(profundidade). No sentido contrário,
+ * um caminho é seguido a partir da raiz campo a campo, também em O(profundidade).
+ */
+public final class PathIndex {
+
+    private final Object raiz;
+    private final String rotuloRaiz;
+    // Percorrido com manterObjetos
+    private final GraphWalker walker;
+
+    PathIndex(Object raiz, String rotuloRaiz, GraphWalker walker) {
+        this.raiz = raiz;
+        this.rotuloRaiz = rotuloRaiz;
+        this.walker = walker;
+    }
+
+    /**
+     * Percorre o grafo e indexa todos os objetos.
+     */
+    static PathIndex construir(Object raiz, String rotuloRaiz) {
+        GraphWalker walker = new GraphWalker(raiz, rotuloRaiz, true);
+        walker.percorrer((objeto, no) -> true);
+        return new PathIndex(raiz, rotuloRaiz, walker);
+    }
+
+    /**
+     * Caminho do objeto desde a raiz, ou null se ele não faz parte do grafo indexado.
+     */
+    public String caminho(Object objeto) {
+        int no = walker.getNo(objeto);
+        return (no >= 0) ? walker.caminho(no) : null;
+    }
+
+    /**
+     * Objetos desde a raiz até ao objeto (inclusive), ou lista vazia se ele não foi indexado.
+     */
+    public List<Object> cadeia(Object objeto) {
+        int no = walker.getNo(objeto);
+        if (no < 0) {
+            return Collections.emptyList();
+        }
+        List<Object> cadeia = new ArrayList<>();
+        for (int n = no; n >= 0; n = walker.getPai(n)) {
+            cadeia.add(walker.getObjeto(n));
+        }
+        Collections.reverse(cadeia);
+        return cadeia;
+    }
+
+    /**
+     * Segue um caminho a partir da raiz. Aceita qualquer caminho válido no grafo
+     * atual, não só o que o índice atribuiu ao objeto.
+     *
+     * @return os valores ao longo do caminho, da raiz ao último (que pode ser um valor simples ou null)
+     * @throws IllegalArgumentException se o caminho não existe
+     */
+    public List<Object> resolver(String caminho) {
+        String texto = caminho.trim();
+        if (!texto.startsWith(rotuloRaiz)) {
+            throw new IllegalArgumentException("O caminho deve começar por '" + rotuloRaiz + "'");
+        }
+        List<Object> cadeia = new ArrayList<>();
+        Object atual = raiz;
+        cadeia.add(atual);
+
+        int pos = rotuloRaiz.length();
+        while (pos < texto.length()) {
+            if (atual == null) {
+                throw new IllegalArgumentException("'" + texto.substring(0, pos) + "' é null");
+            }
+            char c = texto.charAt(pos);
+            if (c == '.') {
+                int fim = pos + 1;
+                while (fim < texto.length() && texto.charAt(fim) != '.' && texto.charAt(fim) != '[') {
+                    fim++;
+                }
+                atual = campo(atual, texto.substring(pos + 1, fim), texto.substring(0, pos));
+                pos = fim;
+            } else if (c == '[') {
+                int fim = texto.indexOf(']', pos);
+                if (fim < 0) {
+                    throw new IllegalArgumentException("Falta ']' em '" + texto + "'");
+                }
+                int indice;
+                try {
+                    indice = Integer.parseInt(texto.substring(pos + 1, fim).trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Índice inválido em '" + texto.substring(0, fim + 1) + "'");
+                }
+                atual = elemento(atual, indice, texto.substring(0, pos));
+                pos = fim + 1;
+            } else {
+                throw new IllegalArgumentException("Caminho inválido a partir de '" + texto.substring(pos) + "'");
+            }
+            cadeia.add(atual);
+        }
+        return cadeia;
+    }
+
+    private static Object campo(Object dono, String nome, String caminhoDono) {
+        for (Field field : GraphWalker.campos(dono.getClass())) {
+            if (field.getName().equals(nome)) {
+                try {
+                    return field.get(dono);
+                } catch (IllegalAccessException e) {
+                    break;
+                }
+            }
+        }
+        throw new IllegalArgumentException("'" + caminhoDono + "' não tem o campo '" + nome + "'");
+    }
+
+    private static Object elemento(Object dono, int indice, String caminhoDono) {
+        int tamanho = (dono instanceof Collection) ? ((Collection<?>) dono).size()
+                : dono.getClass().isArray() ? Array.getLength(dono) : -1;
+        if (tamanho < 0) {
+            throw new IllegalArgumentException("'" + caminhoDono + "' não é uma lista");
+        }
+        if (indice < 0 || indice >= tamanho) {
+            throw new IllegalArgumentException("Índice " + indice + " fora dos limites de '" + caminhoDono + "' (" + tamanho + ")");
+        }
+        if (dono instanceof List) {
+            return ((List<?>) dono).get(indice);
+        }
+        if (dono instanceof Collection) {
+            Iterator<?> it = ((Collection<?>) dono).iterator();
+            for (int i = 0; i < indice; i++) it.next();
+            return it.next();
+        }
+        return Array.get(dono, indice);
+    }
+
+    public int getTotalObjetos() {
+        return walker.getTotalObjetos();
+    }
+}
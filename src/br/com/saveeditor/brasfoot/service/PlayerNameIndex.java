@@ -0,0 +1,247 @@
+package br.com.saveeditor.brasfoot.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Índice dos nomes dos jogadores para a busca por nome enquanto se escreve.
+ * Os nomes são guardados sem acentos e em minúsculas, num array ordenado com o
+ * nome completo e cada palavra dele: um prefixo é um intervalo encontrado por
+ * pesquisa binária. Se os prefixos não chegam, os nomes são comparados pela
+ * distância de edição ao que foi escrito (para aceitar erros de digitação).
+ */
+public final class PlayerNameIndex {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    // Relevância de cada tipo de resultado (menor = melhor)
+    private static final int NOME_EXATO = 0;
+    private static final int PREFIXO_NOME = 1;
+    private static final int PREFIXO_PALAVRA = 2;
+    private static final int APROXIMADO = 3;
+
+    private final PlayerTable tabela;
+    // Entradas ordenadas pela chave: chave normalizada, linha do jogador e se é o nome completo
+    private final String[] chaves;
+    private final int[] linhas;
+    private final BitSet nomeCompleto;
+
+    private PlayerNameIndex(PlayerTable tabela, String[] chaves, int[] linhas, BitSet nomeCompleto) {
+        this.tabela = tabela;
+        this.chaves = chaves;
+        this.linhas = linhas;
+        this.nomeCompleto = nomeCompleto;
+    }
+
+    /**
+     * Indexa os nomes ('dm') dos jogadores da tabela.
+     */
+    static PlayerNameIndex construir(PlayerTable tabela) {
+        List<String> chavesLidas = new ArrayList<>();
+        IntLista linhasLidas = new IntLista(tabela.getTotal() * 2);
+        BitSet completos = new BitSet();
+        for (int linha = 0; linha < tabela.getTotal(); linha++) {
+            String nome = tabela.getNome(linha);
+            if (nome == null) continue;
+            String chave = normalizar(nome);
+            if (chave.isEmpty()) continue;
+            completos.set(chavesLidas.size());
+            chavesLidas.add(chave);
+            linhasLidas.adicionar(linha);
+            // Também cada palavra a seguir à primeira: "silva" encontra "João Silva"
+            int inicio = chave.indexOf(' ');
+            while (inicio >= 0) {
+                int fim = chave.indexOf(' ', inicio + 1);
+                String palavra = chave.substring(inicio + 1, fim < 0 ? chave.length() : fim);
+                if (!palavra.isEmpty()) {
+                    chavesLidas.add(palavra);
+                    linhasLidas.adicionar(linha);
+                }
+                inicio = fim;
+            }
+        }
+
+        // Ordenar as entradas pela chave, levando linhas e marcas juntas
+        Integer[] ordem = new Integer[chavesLidas.size()];
+        for (int i = 0; i < ordem.length; i++) ordem[i] = i;
+        Arrays.sort(ordem, (a, b) -> chavesLidas.get(a).compareTo(chavesLidas.get(b)));
+
+        String[] chaves = new String[ordem.length];
+        int[] linhas = new int[ordem.length];
+        BitSet nomeCompleto = new BitSet(ordem.length);
+        for (int i = 0; i < ordem.length; i++) {
+            chaves[i] = chavesLidas.get(ordem[i]);
+            linhas[i] = linhasLidas.get(ordem[i]);
+            if (completos.get(ordem[i])) nomeCompleto.set(i);
+        }
+        return new PlayerNameIndex(tabela, chaves, linhas, nomeCompleto);
+    }
+
+    /**
+     * Sem acentos, em minúsculas e com os espaços reduzidos a um.
+     */
+    public static String normalizar(String texto) {
+        if (isAsciiSimples(texto)) {
+            // A maioria dos nomes: sem acentos nem espaços a mais, só falta passar a minúsculas
+            return texto.toLowerCase(Locale.ROOT);
+        }
+        String semAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcentos.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    private static boolean isAsciiSimples(String texto) {
+        if (texto.isEmpty() || texto.charAt(0) == ' ' || texto.charAt(texto.length() - 1) == ' ') {
+            return false;
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= 128 || (c < ' ') || (c == ' ' && texto.charAt(i - 1) == ' ')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Jogadores cujo nome começa pelo texto, ou tem uma palavra que começa por ele;
+     * se forem menos do que o limite, completa com os nomes mais próximos por
+     * distância de edição. Ordenados por relevância e depois pela ordem do save.
+     */
+    public List<Sugestao> buscar(String texto, int limite) {
+        String consulta = normalizar(texto);
+        List<Sugestao> resultado = new ArrayList<>();
+        if (consulta.isEmpty() || limite <= 0) {
+            return resultado;
+        }
+        int total = tabela.getTotal();
+        int[] relevancia = new int[total];
+        Arrays.fill(relevancia, Integer.MAX_VALUE);
+        BitSet encontrados = new BitSet(total);
+
+        // Prefixos: as chaves que começam pela consulta são contíguas no array ordenado
+        for (int i = primeiraChaveDesde(consulta); i < chaves.length && chaves[i].startsWith(consulta); i++) {
+            int tipo = !nomeCompleto.get(i) ? PREFIXO_PALAVRA
+                    : chaves[i].length() == consulta.length() ? NOME_EXATO : PREFIXO_NOME;
+            marcar(linhas[i], tipo, relevancia, encontrados);
+        }
+
+        if (encontrados.cardinality() < limite) {
+            // Um erro a cada quatro letras, no máximo dois
+            int maximo = Math.min(2, consulta.length() / 4);
+            if (maximo > 0) {
+                int[] anterior = new int[consulta.length() + 1];
+                int[] atual = new int[consulta.length() + 1];
+                for (int i = 0; i < chaves.length; i++) {
+                    int distancia = distanciaPrefixo(consulta, chaves[i], maximo, anterior, atual);
+                    if (distancia <= maximo) {
+                        marcar(linhas[i], APROXIMADO + distancia, relevancia, encontrados);
+                    }
+                }
+            }
+        }
+
+        List<Integer> ordem = new ArrayList<>(encontrados.cardinality());
+        for (int linha = encontrados.nextSetBit(0); linha >= 0; linha = encontrados.nextSetBit(linha + 1)) {
+            ordem.add(linha);
+        }
+        // Estável: dentro da mesma relevância fica a ordem do save
+        ordem.sort((a, b) -> Integer.compare(relevancia[a], relevancia[b]));
+        for (int i = 0; i < ordem.size() && i < limite; i++) {
+            int linha = ordem.get(i);
+            resultado.add(new Sugestao(tabela.getJogador(linha), tabela.getNome(linha), tabela.getCaminho(linha),
+                    Math.max(0, relevancia[linha] - APROXIMADO)));
+        }
+        return resultado;
+    }
+
+    private static void marcar(int linha, int tipo, int[] relevancia, BitSet encontrados) {
+        encontrados.set(linha);
+        if (tipo < relevancia[linha]) {
+            relevancia[linha] = tipo;
+        }
+    }
+
+    private int primeiraChaveDesde(String consulta) {
+        int baixo = 0, alto = chaves.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (chaves[meio].compareTo(consulta) < 0) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    /**
+     * Menor distância de Levenshtein entre a consulta e um prefixo da chave.
+     * Pára assim que a distância passa do máximo (devolve máximo + 1).
+     */
+    private static int distanciaPrefixo(String consulta, String chave, int maximo, int[] anterior, int[] atual) {
+        int n = consulta.length();
+        int colunas = Math.min(chave.length(), n + maximo);
+        if (colunas < n - maximo) {
+            return maximo + 1;
+        }
+        // Linha 0: chave vazia contra os primeiros i caracteres da consulta
+        for (int i = 0; i <= n; i++) anterior[i] = i;
+        int melhor = anterior[n];
+        for (int j = 1; j <= colunas; j++) {
+            char c = chave.charAt(j - 1);
+            atual[0] = j;
+            int minimoLinha = atual[0];
+            for (int i = 1; i <= n; i++) {
+                int custo = (consulta.charAt(i - 1) == c) ? 0 : 1;
+                int v = Math.min(Math.min(atual[i - 1] + 1, anterior[i] + 1), anterior[i - 1] + custo);
+                atual[i] = v;
+                if (v < minimoLinha) minimoLinha = v;
+            }
+            if (atual[n] < melhor) melhor = atual[n];
+            if (minimoLinha > maximo) {
+                break;
+            }
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return melhor;
+    }
+
+    public int getTotalNomes() {
+        return nomeCompleto.cardinality();
+    }
+
+    /**
+     * Um jogador encontrado pelo nome.
+     */
+    public static final class Sugestao {
+        private final Object jogador;
+        private final String nome;
+        private final String caminho;
+        private final int distancia;
+
+        Sugestao(Object jogador, String nome, String caminho, int distancia) {
+            this.jogador = jogador;
+            this.nome = nome;
+            this.caminho = caminho;
+            this.distancia = distancia;
+        }
+
+        public Object getJogador() { return jogador; }
+        public String getNome() { return nome; }
+        public String getCaminho() { return caminho; }
+        /** 0 para prefixos; senão o número de letras diferentes. */
+        public int getDistancia() { return distancia; }
+
+        @Override
+        public String toString() {
+            return nome;
+        }
+    }
+}
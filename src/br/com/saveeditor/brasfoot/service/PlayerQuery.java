@@ -0,0 +1,516 @@
+package br.com.saveeditor.brasfoot.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Consulta sobre os jogadores de um save, por exemplo
+ * {@code eq>=85 AND em<=21}, {@code time="Flamengo"} ou {@code ek=true}.
+ * <ul>
+ *   <li>Comparações: {@code = != > >= < <=} e {@code ~} (contém, só em texto).
+ *       Texto compara sem diferenciar maiúsculas; booleanos valem 1/0.</li>
+ *   <li>Combinações: {@code AND}, {@code OR}, {@code NOT} e parênteses
+ *       ({@code && || !} também servem).</li>
+ *   <li>Atributos: campos do jogador ({@code eq}, {@code em}...), {@code time}
+ *       (nome do time em 'aj') ou {@code time.xx} (campo xx do time);
+ *       {@code team} é sinónimo de {@code time}.</li>
+ * </ul>
+ * A consulta é compilada uma vez; cada comparação corre num ciclo sobre a coluna
+ * do atributo na {@link PlayerTable} e produz um BitSet de linhas, e AND/OR/NOT
+ * são operações sobre esses BitSets. Valores nulos só satisfazem {@code =null}, e
+ * um NOT não devolve linhas em que algum atributo comparado dentro dele é nulo.
+ */
+public final class PlayerQuery {
+
+    private final String texto;
+    private final No raiz;
+    private final List<String> atributos;
+
+    private PlayerQuery(String texto, No raiz, List<String> atributos) {
+        this.texto = texto;
+        this.raiz = raiz;
+        this.atributos = Collections.unmodifiableList(atributos);
+    }
+
+    /**
+     * @throws IllegalArgumentException se a consulta tem erros de sintaxe (ou compara null com
+     *         um operador que não seja = ou !=)
+     */
+    public static PlayerQuery compilar(String consulta) {
+        if (consulta == null || consulta.trim().isEmpty()) {
+            throw new IllegalArgumentException("Especifique a consulta");
+        }
+        Parser parser = new Parser(consulta);
+        No raiz = parser.expressao();
+        if (parser.atual.tipo != Tipo.FIM) {
+            throw parser.erro("'" + parser.atual.texto + "' inesperado");
+        }
+        return new PlayerQuery(consulta.trim(), raiz, parser.atributos);
+    }
+
+    /**
+     * Linhas da tabela que satisfazem a consulta.
+     *
+     * @throws IllegalArgumentException se um atributo não existe ou o valor não serve para o tipo dele
+     */
+    BitSet executar(PlayerTable tabela) {
+        // Valida a árvore inteira antes: o AND não avalia a direita quando a esquerda
+        // é vazia, e um erro lá não pode depender dos dados
+        raiz.validar(tabela);
+        return raiz.avaliar(tabela);
+    }
+
+    /**
+     * Atributos usados, pela ordem em que aparecem (sem repetições).
+     */
+    public List<String> getAtributos() {
+        return atributos;
+    }
+
+    @Override
+    public String toString() {
+        return texto;
+    }
+
+    // ==================== Árvore compilada ====================
+
+    private abstract static class No {
+        /**
+         * @throws IllegalArgumentException se um atributo não existe ou o valor não serve para o tipo dele
+         */
+        abstract void validar(PlayerTable tabela);
+
+        abstract BitSet avaliar(PlayerTable tabela);
+
+        /**
+         * Linhas em que algum atributo comparado (com um valor que não seja null) é nulo.
+         */
+        abstract BitSet nulos(PlayerTable tabela);
+    }
+
+    private static final class E extends No {
+        final No esquerda, direita;
+
+        E(No esquerda, No direita) {
+            this.esquerda = esquerda;
+            this.direita = direita;
+        }
+
+        @Override
+        void validar(PlayerTable tabela) {
+            esquerda.validar(tabela);
+            direita.validar(tabela);
+        }
+
+        @Override
+        BitSet nulos(PlayerTable tabela) {
+            BitSet resultado = esquerda.nulos(tabela);
+            resultado.or(direita.nulos(tabela));
+            return resultado;
+        }
+
+        @Override
+        BitSet avaliar(PlayerTable tabela) {
+            BitSet resultado = esquerda.avaliar(tabela);
+            if (!resultado.isEmpty()) {
+                resultado.and(direita.avaliar(tabela));
+            }
+            return resultado;
+        }
+    }
+
+    private static final class Ou extends No {
+        final No esquerda, direita;
+
+        Ou(No esquerda, No direita) {
+            this.esquerda = esquerda;
+            this.direita = direita;
+        }
+
+        @Override
+        void validar(PlayerTable tabela) {
+            esquerda.validar(tabela);
+            direita.validar(tabela);
+        }
+
+        @Override
+        BitSet nulos(PlayerTable tabela) {
+            BitSet resultado = esquerda.nulos(tabela);
+            resultado.or(direita.nulos(tabela));
+            return resultado;
+        }
+
+        @Override
+        BitSet avaliar(PlayerTable tabela) {
+            BitSet resultado = esquerda.avaliar(tabela);
+            resultado.or(direita.avaliar(tabela));
+            return resultado;
+        }
+    }
+
+    private static final class Nao extends No {
+        final No operando;
+
+        Nao(No operando) {
+            this.operando = operando;
+        }
+
+        @Override
+        void validar(PlayerTable tabela) {
+            operando.validar(tabela);
+        }
+
+        @Override
+        BitSet avaliar(PlayerTable tabela) {
+            BitSet resultado = operando.avaliar(tabela);
+            resultado.flip(0, tabela.getTotal());
+            // Um nulo não satisfaz a comparação, mas a negação também não
+            resultado.andNot(operando.nulos(tabela));
+            return resultado;
+        }
+
+        @Override
+        BitSet nulos(PlayerTable tabela) {
+            return operando.nulos(tabela);
+        }
+    }
+
+    private enum Operador {
+        IGUAL("="), DIFERENTE("!="), MAIOR(">"), MAIOR_IGUAL(">="), MENOR("<"), MENOR_IGUAL("<="), CONTEM("~");
+
+        final String simbolo;
+
+        Operador(String simbolo) {
+            this.simbolo = simbolo;
+        }
+
+        boolean aceita(int comparacao) {
+            switch (this) {
+                case IGUAL: return comparacao == 0;
+                case DIFERENTE: return comparacao != 0;
+                case MAIOR: return comparacao > 0;
+                case MAIOR_IGUAL: return comparacao >= 0;
+                case MENOR: return comparacao < 0;
+                default: return comparacao <= 0;
+            }
+        }
+    }
+
+    private static final class Comparacao extends No {
+        final String atributo;
+        final Operador operador;
+        // Literal: texto (null para a palavra null) e, se for número ou booleano, o valor
+        final String literal;
+        final boolean literalNumerico;
+        final double numero;
+
+        Comparacao(String atributo, Operador operador, String literal, boolean literalNumerico, double numero) {
+            if (literal == null && operador != Operador.IGUAL && operador != Operador.DIFERENTE) {
+                throw new IllegalArgumentException("null só pode ser comparado com = ou !=");
+            }
+            this.atributo = atributo;
+            this.operador = operador;
+            this.literal = literal;
+            this.literalNumerico = literalNumerico;
+            this.numero = numero;
+        }
+
+        @Override
+        void validar(PlayerTable tabela) {
+            PlayerTable.Coluna coluna = tabela.coluna(atributo);
+            if (literal == null || !coluna.numerica) {
+                return;
+            }
+            if (!literalNumerico) {
+                throw new IllegalArgumentException("'" + atributo + "' é numérico: '" + literal + "' não é um número");
+            }
+            if (operador == Operador.CONTEM) {
+                throw new IllegalArgumentException("'~' só se aplica a texto ('" + atributo + "' é numérico)");
+            }
+        }
+
+        @Override
+        BitSet nulos(PlayerTable tabela) {
+            return (literal == null) ? new BitSet() : (BitSet) tabela.coluna(atributo).nulos.clone();
+        }
+
+        @Override
+        BitSet avaliar(PlayerTable tabela) {
+            PlayerTable.Coluna coluna = tabela.coluna(atributo);
+            int linhas = tabela.getTotal();
+
+            if (literal == null) {
+                BitSet resultado = (BitSet) coluna.nulos.clone();
+                if (operador == Operador.DIFERENTE) {
+                    resultado.flip(0, linhas);
+                }
+                return resultado;
+            }
+
+            BitSet resultado = new BitSet(linhas);
+            if (coluna.numerica) {
+                compararNumeros(coluna.numeros, linhas, resultado);
+            } else {
+                compararTextos(coluna.textos, linhas, resultado);
+            }
+            resultado.andNot(coluna.nulos);
+            return resultado;
+        }
+
+        private void compararNumeros(double[] valores, int linhas, BitSet resultado) {
+            double x = numero;
+            // Um ciclo por operador: a escolha sai de dentro do ciclo
+            switch (operador) {
+                case IGUAL:
+                    for (int i = 0; i < linhas; i++) if (valores[i] == x) resultado.set(i);
+                    break;
+                case DIFERENTE:
+                    for (int i = 0; i < linhas; i++) if (valores[i] != x) resultado.set(i);
+                    break;
+                case MAIOR:
+                    for (int i = 0; i < linhas; i++) if (valores[i] > x) resultado.set(i);
+                    break;
+                case MAIOR_IGUAL:
+                    for (int i = 0; i < linhas; i++) if (valores[i] >= x) resultado.set(i);
+                    break;
+                case MENOR:
+                    for (int i = 0; i < linhas; i++) if (valores[i] < x) resultado.set(i);
+                    break;
+                case MENOR_IGUAL:
+                    for (int i = 0; i < linhas; i++) if (valores[i] <= x) resultado.set(i);
+                    break;
+                default:
+                    throw new IllegalArgumentException("'~' só se aplica a texto ('" + atributo + "' é numérico)");
+            }
+        }
+
+        private void compararTextos(String[] valores, int linhas, BitSet resultado) {
+            if (operador == Operador.CONTEM) {
+                String termo = literal.toLowerCase(Locale.ROOT);
+                for (int i = 0; i < linhas; i++) {
+                    if (valores[i] != null && valores[i].toLowerCase(Locale.ROOT).contains(termo)) resultado.set(i);
+                }
+            } else if (operador == Operador.IGUAL) {
+                for (int i = 0; i < linhas; i++) {
+                    if (valores[i] != null && valores[i].equalsIgnoreCase(literal)) resultado.set(i);
+                }
+            } else {
+                for (int i = 0; i < linhas; i++) {
+                    if (valores[i] != null && operador.aceita(valores[i].compareToIgnoreCase(literal))) resultado.set(i);
+                }
+            }
+        }
+    }
+
+    // ==================== Análise ====================
+
+    private enum Tipo { ATRIBUTO, NUMERO, TEXTO, OPERADOR, ABRE, FECHA, E, OU, NAO, FIM }
+
+    private static final class Token {
+        final Tipo tipo;
+        final String texto;
+        final int posicao;
+
+        Token(Tipo tipo, String texto, int posicao) {
+            this.tipo = tipo;
+            this.texto = texto;
+            this.posicao = posicao;
+        }
+    }
+
+    /**
+     * Descendente recursivo: expressao := termo (OR termo)*, termo := fator (AND fator)*,
+     * fator := NOT fator | ( expressao ) | atributo operador valor.
+     */
+    private static final class Parser {
+        private final String entrada;
+        private int pos;
+        Token atual;
+        final List<String> atributos = new ArrayList<>();
+
+        Parser(String entrada) {
+            this.entrada = entrada;
+            avancar();
+        }
+
+        No expressao() {
+            No no = termo();
+            while (atual.tipo == Tipo.OU) {
+                avancar();
+                no = new Ou(no, termo());
+            }
+            return no;
+        }
+
+        private No termo() {
+            No no = fator();
+            while (atual.tipo == Tipo.E) {
+                avancar();
+                no = new E(no, fator());
+            }
+            return no;
+        }
+
+        private No fator() {
+            if (atual.tipo == Tipo.NAO) {
+                avancar();
+                return new Nao(fator());
+            }
+            if (atual.tipo == Tipo.ABRE) {
+                avancar();
+                No no = expressao();
+                esperar(Tipo.FECHA, "')'");
+                return no;
+            }
+            if (atual.tipo != Tipo.ATRIBUTO) {
+                throw erro("esperado um atributo");
+            }
+            String atributo = normalizarAtributo(atual.texto);
+            avancar();
+            if (atual.tipo != Tipo.OPERADOR) {
+                throw erro("esperado um operador depois de '" + atributo + "'");
+            }
+            Operador operador = operador(atual.texto);
+            avancar();
+
+            Token valor = atual;
+            avancar();
+            if (!atributos.contains(atributo)) {
+                atributos.add(atributo);
+            }
+            switch (valor.tipo) {
+                case NUMERO:
+                    return new Comparacao(atributo, operador, valor.texto, true, Double.parseDouble(valor.texto));
+                case TEXTO:
+                    return new Comparacao(atributo, operador, valor.texto, false, 0);
+                case ATRIBUTO:
+                    // Palavra sem aspas: true, false, null ou texto (time=Flamengo)
+                    String palavra = valor.texto.toLowerCase(Locale.ROOT);
+                    if (palavra.equals("true") || palavra.equals("false")) {
+                        return new Comparacao(atributo, operador, palavra, true, palavra.equals("true") ? 1 : 0);
+                    }
+                    if (palavra.equals("null")) {
+                        return new Comparacao(atributo, operador, null, false, 0);
+                    }
+                    return new Comparacao(atributo, operador, valor.texto, false, 0);
+                default:
+                    throw erro("esperado um valor depois de '" + atributo + " " + operador.simbolo + "'", valor);
+            }
+        }
+
+        private static String normalizarAtributo(String nome) {
+            if (nome.equalsIgnoreCase("team") || nome.equalsIgnoreCase(PlayerTable.ATRIBUTO_TIME)) {
+                return PlayerTable.ATRIBUTO_TIME;
+            }
+            int ponto = nome.indexOf('.');
+            if (ponto > 0) {
+                String prefixo = nome.substring(0, ponto);
+                if (prefixo.equalsIgnoreCase("team") || prefixo.equalsIgnoreCase(PlayerTable.ATRIBUTO_TIME)) {
+                    return PlayerTable.ATRIBUTO_TIME + nome.substring(ponto);
+                }
+            }
+            return nome;
+        }
+
+        private static Operador operador(String simbolo) {
+            if (simbolo.equals("==")) return Operador.IGUAL;
+            for (Operador operador : Operador.values()) {
+                if (operador.simbolo.equals(simbolo)) return operador;
+            }
+            throw new IllegalStateException(simbolo);
+        }
+
+        private void esperar(Tipo tipo, String descricao) {
+            if (atual.tipo != tipo) {
+                throw erro("esperado " + descricao);
+            }
+            avancar();
+        }
+
+        IllegalArgumentException erro(String mensagem) {
+            return erro(mensagem, atual);
+        }
+
+        private IllegalArgumentException erro(String mensagem, Token token) {
+            return new IllegalArgumentException("Consulta inválida: " + mensagem + " (posição " + (token.posicao + 1) + ")");
+        }
+
+        private void avancar() {
+            while (pos < entrada.length() && Character.isWhitespace(entrada.charAt(pos))) {
+                pos++;
+            }
+            int inicio = pos;
+            if (pos >= entrada.length()) {
+                atual = new Token(Tipo.FIM, "", inicio);
+                return;
+            }
+            char c = entrada.charAt(pos);
+
+            if (c == '(' || c == ')') {
+                pos++;
+                atual = new Token(c == '(' ? Tipo.ABRE : Tipo.FECHA, String.valueOf(c), inicio);
+            } else if (c == '"' || c == '\'') {
+                atual = new Token(Tipo.TEXTO, lerTexto(c), inicio);
+            } else if (entrada.startsWith("&&", pos) || entrada.startsWith("||", pos)) {
+                pos += 2;
+                atual = new Token(c == '&' ? Tipo.E : Tipo.OU, entrada.substring(inicio, pos), inicio);
+            } else if (c == '!' && !entrada.startsWith("!=", pos)) {
+                pos++;
+                atual = new Token(Tipo.NAO, "!", inicio);
+            } else if ("=!<>~".indexOf(c) >= 0) {
+                pos++;
+                if (pos < entrada.length() && entrada.charAt(pos) == '=' && c != '~') {
+                    pos++;
+                }
+                atual = new Token(Tipo.OPERADOR, entrada.substring(inicio, pos), inicio);
+            } else if (Character.isDigit(c) || ((c == '-' || c == '.') && pos + 1 < entrada.length()
+                    && Character.isDigit(entrada.charAt(pos + 1)))) {
+                pos++;
+                while (pos < entrada.length() && (Character.isDigit(entrada.charAt(pos)) || entrada.charAt(pos) == '.')) {
+                    pos++;
+                }
+                String numero = entrada.substring(inicio, pos);
+                try {
+                    Double.parseDouble(numero);
+                } catch (NumberFormatException e) {
+                    throw erro("número inválido '" + numero + "'", new Token(Tipo.NUMERO, numero, inicio));
+                }
+                atual = new Token(Tipo.NUMERO, numero, inicio);
+            } else if (Character.isLetter(c) || c == '_') {
+                while (pos < entrada.length() && (Character.isLetterOrDigit(entrada.charAt(pos))
+                        || entrada.charAt(pos) == '_' || entrada.charAt(pos) == '.')) {
+                    pos++;
+                }
+                String palavra = entrada.substring(inicio, pos);
+                switch (palavra.toUpperCase(Locale.ROOT)) {
+                    case "AND": atual = new Token(Tipo.E, palavra, inicio); break;
+                    case "OR": atual = new Token(Tipo.OU, palavra, inicio); break;
+                    case "NOT": atual = new Token(Tipo.NAO, palavra, inicio); break;
+                    default: atual = new Token(Tipo.ATRIBUTO, palavra, inicio);
+                }
+            } else {
+                throw erro("caractere inesperado '" + c + "'", new Token(Tipo.FIM, String.valueOf(c), inicio));
+            }
+        }
+
+        private String lerTexto(char aspa) {
+            int inicio = pos;
+            StringBuilder sb = new StringBuilder();
+            pos++;
+            while (pos < entrada.length()) {
+                char c = entrada.charAt(pos++);
+                if (c == aspa) {
+                    return sb.toString();
+                }
+                if (c == '\\' && pos < entrada.length()) {
+                    c = entrada.charAt(pos++);
+                }
+                sb.append(c);
+            }
+            throw erro("texto sem aspas de fecho", new Token(Tipo.TEXTO, "", inicio));
+        }
+    }
+}
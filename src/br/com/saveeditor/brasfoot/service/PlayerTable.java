@@ -0,0 +1,311 @@
+package br.com.saveeditor.brasfoot.service;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Os jogadores (best.F) de um save em colunas, para as consultas do {@link PlayerQuery}.
+ * Cada jogador é uma linha, com o time da lista 'aj' da raiz a que pertence (se houver).
+ * As colunas são lidas uma vez por atributo, quando uma consulta as usa pela primeira
+ * vez, com um leitor escolhido pelo tipo do campo: a consulta só percorre arrays.
+ */
+public final class PlayerTable {
+
+    static final String CLASSE_JOGADOR = "best.F";
+    // Atributo do time na consulta: "time" é o nome, "time.xx" o campo xx do time
+    static final String ATRIBUTO_TIME = "time";
+    private static final String CAMPO_NOME = "dm";
+
+    private final GraphWalker walker;
+    private final List<Object> jogadores = new ArrayList<>();
+    private final IntLista nos = new IntLista();
+    private final List<Object> times = new ArrayList<>();
+    // Linha → posição do time em 'times', ou -1
+    private final IntLista timeDaLinha = new IntLista();
+
+    private final Map<String, Coluna> colunas = new HashMap<>();
+    private volatile long geracao;
+
+    private PlayerTable(GraphWalker walker) {
+        this.walker = walker;
+    }
+
+    /**
+     * Recolhe os jogadores do grafo (pela ordem da travessia) e os times de 'aj'.
+     */
+    static PlayerTable construir(Object raiz) {
+        PlayerTable tabela = new PlayerTable(new GraphWalker(raiz, "raiz"));
+        tabela.walker.percorrer((objeto, no) -> {
+            if (CLASSE_JOGADOR.equals(objeto.getClass().getName())) {
+                tabela.jogadores.add(objeto);
+                tabela.nos.adicionar(no);
+            }
+            return true;
+        });
+
+        IdentityHashMap<Object, Integer> timeDoJogador = new IdentityHashMap<>();
+        Object aj = (raiz == null) ? null : lerCampo(raiz, "aj");
+        if (aj instanceof List) {
+            for (Object time : (List<?>) aj) {
+                if (time == null) continue;
+                Object nd = lerCampo(time, "nd");
+                if (nd instanceof List) {
+                    for (Object jogador : (List<?>) nd) {
+                        if (jogador != null) {
+                            timeDoJogador.putIfAbsent(jogador, tabela.times.size());
+                        }
+                    }
+                }
+                tabela.times.add(time);
+            }
+        }
+        for (Object jogador : tabela.jogadores) {
+            Integer time = timeDoJogador.get(jogador);
+            tabela.timeDaLinha.adicionar(time != null ? time : -1);
+        }
+        return tabela;
+    }
+
+    private static Object lerCampo(Object obj, String nome) {
+        Field campo = campo(obj.getClass(), nome);
+        if (campo == null) {
+            return null;
+        }
+        try {
+            return campo.get(obj);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static Field campo(Class<?> classe, String nome) {
+        for (Field field : GraphWalker.campos(classe)) {
+            if (field.getName().equals(nome)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Coluna de um atributo do jogador ("eq"), do time ("time.xx") ou o nome do time ("time").
+     *
+     * @throws IllegalArgumentException se os jogadores (ou os times) não têm o campo
+     */
+    synchronized Coluna coluna(String atributo) {
+        Coluna coluna = colunas.get(atributo);
+        if (coluna == null) {
+            if (atributo.equals(ATRIBUTO_TIME)) {
+                coluna = Coluna.doTime(lerColuna(times, CAMPO_NOME, atributo), timeDaLinha);
+            } else if (atributo.startsWith(ATRIBUTO_TIME + ".")) {
+                coluna = Coluna.doTime(lerColuna(times, atributo.substring(ATRIBUTO_TIME.length() + 1), atributo), timeDaLinha);
+            } else {
+                coluna = lerColuna(jogadores, atributo, atributo);
+            }
+            colunas.put(atributo, coluna);
+        }
+        return coluna;
+    }
+
+    private static Coluna lerColuna(List<Object> objetos, String nomeCampo, String atributo) {
+        if (objetos.isEmpty()) {
+            return new Coluna(false, 0);
+        }
+        Field campo = campo(objetos.get(0).getClass(), nomeCampo);
+        if (campo == null) {
+            throw new IllegalArgumentException("Atributo '" + atributo + "' não existe");
+        }
+        Leitor leitor = Leitor.para(campo);
+        Coluna coluna = new Coluna(leitor.isNumerico(), objetos.size());
+        coluna.booleana = campo.getType() == boolean.class || campo.getType() == Boolean.class;
+        for (int i = 0; i < objetos.size(); i++) {
+            Object obj = objetos.get(i);
+            // Linhas de outra classe (não deve acontecer em saves do jogo) ficam nulas
+            if (obj.getClass() != campo.getDeclaringClass()) {
+                coluna.nulos.set(i);
+                continue;
+            }
+            try {
+                leitor.ler(obj, coluna, i);
+            } catch (IllegalAccessException e) {
+                coluna.nulos.set(i);
+            }
+        }
+        return coluna;
+    }
+
+    public long getGeracao() { return geracao; }
+    public void setGeracao(long geracao) { this.geracao = geracao; }
+    public int getTotal() { return jogadores.size(); }
+    public int getTotalTimes() { return times.size(); }
+    public Object getJogador(int linha) { return jogadores.get(linha); }
+
+    /**
+     * Time do jogador na lista 'aj', ou null se não está em nenhum.
+     */
+    public Object getTime(int linha) {
+        int time = timeDaLinha.get(linha);
+        return (time >= 0) ? times.get(time) : null;
+    }
+
+    /**
+     * Caminho do jogador desde a raiz, por exemplo {@code raiz.aj[3].nd[5]}.
+     */
+    public String getCaminho(int linha) {
+        return walker.caminho(nos.get(linha));
+    }
+
+    /**
+     * Nome ('dm') do jogador, ou null se não tem.
+     */
+    public String getNome(int linha) {
+        Coluna nomes = coluna(CAMPO_NOME);
+        return nomes.nulos.get(linha) ? null : nomes.texto(linha);
+    }
+
+    /**
+     * Texto do atributo na linha, como a consulta o vê ("null" se não tem valor).
+     */
+    public String getTexto(int linha, String atributo) {
+        return coluna(atributo).texto(linha);
+    }
+
+    /**
+     * Valores de um atributo para todas as linhas: números (e booleanos, como 0/1)
+     * em double, o resto como texto.
+     */
+    static final class Coluna {
+        final boolean numerica;
+        final double[] numeros;
+        final String[] textos;
+        final BitSet nulos = new BitSet();
+        // Só nas colunas booleanas: para mostrar true/false em vez de 1/0
+        boolean booleana;
+
+        Coluna(boolean numerica, int linhas) {
+            this.numerica = numerica;
+            this.numeros = numerica ? new double[linhas] : null;
+            this.textos = numerica ? null : new String[linhas];
+        }
+
+        /**
+         * Coluna por jogador a partir da coluna dos times.
+         */
+        static Coluna doTime(Coluna porTime, IntLista timeDaLinha) {
+            Coluna coluna = new Coluna(porTime.numerica, timeDaLinha.tamanho);
+            coluna.booleana = porTime.booleana;
+            for (int i = 0; i < timeDaLinha.tamanho; i++) {
+                int time = timeDaLinha.get(i);
+                if (time < 0 || porTime.nulos.get(time)) {
+                    coluna.nulos.set(i);
+                } else if (coluna.numerica) {
+                    coluna.numeros[i] = porTime.numeros[time];
+                } else {
+                    coluna.textos[i] = porTime.textos[time];
+                }
+            }
+            return coluna;
+        }
+
+        int linhas() {
+            return numerica ? numeros.length : textos.length;
+        }
+
+        String texto(int linha) {
+            if (nulos.get(linha)) return "null";
+            if (!numerica) return textos[linha];
+            double valor = numeros[linha];
+            if (booleana) return String.valueOf(valor != 0);
+            return (valor == Math.rint(valor) && Math.abs(valor) < 1e15) ? String.valueOf((long) valor) : String.valueOf(valor);
+        }
+    }
+
+    /**
+     * Leitor de um campo, escolhido uma vez pelo tipo: os primitivos são lidos sem boxing.
+     */
+    private abstract static class Leitor {
+        final Field campo;
+
+        Leitor(Field campo) {
+            this.campo = campo;
+        }
+
+        boolean isNumerico() {
+            return true;
+        }
+
+        abstract void ler(Object obj, Coluna coluna, int linha) throws IllegalAccessException;
+
+        static Leitor para(Field campo) {
+            Class<?> tipo = campo.getType();
+            if (tipo == int.class || tipo == short.class || tipo == byte.class || tipo == long.class) {
+                return new Leitor(campo) {
+                    @Override
+                    void ler(Object obj, Coluna coluna, int linha) throws IllegalAccessException {
+                        coluna.numeros[linha] = campo.getLong(obj);
+                    }
+                };
+            }
+            if (tipo == double.class || tipo == float.class) {
+                return new Leitor(campo) {
+                    @Override
+                    void ler(Object obj, Coluna coluna, int linha) throws IllegalAccessException {
+                        coluna.numeros[linha] = campo.getDouble(obj);
+                    }
+                };
+            }
+            if (tipo == boolean.class || tipo == Boolean.class) {
+                boolean primitivo = tipo.isPrimitive();
+                return new Leitor(campo) {
+                    @Override
+                    void ler(Object obj, Coluna coluna, int linha) throws IllegalAccessException {
+                        if (primitivo) {
+                            coluna.numeros[linha] = campo.getBoolean(obj) ? 1 : 0;
+                            return;
+                        }
+                        Object valor = campo.get(obj);
+                        if (valor == null) {
+                            coluna.nulos.set(linha);
+                        } else {
+                            coluna.numeros[linha] = ((Boolean) valor) ? 1 : 0;
+                        }
+                    }
+                };
+            }
+            if (Number.class.isAssignableFrom(tipo)) {
+                return new Leitor(campo) {
+                    @Override
+                    void ler(Object obj, Coluna coluna, int linha) throws IllegalAccessException {
+                        Object valor = campo.get(obj);
+                        if (valor == null) {
+                            coluna.nulos.set(linha);
+                        } else {
+                            coluna.numeros[linha] = ((Number) valor).doubleValue();
+                        }
+                    }
+                };
+            }
+            return new Leitor(campo) {
+                @Override
+                boolean isNumerico() {
+                    return false;
+                }
+
+                @Override
+                void ler(Object obj, Coluna coluna, int linha) throws IllegalAccessException {
+                    Object valor = campo.get(obj);
+                    if (valor == null) {
+                        coluna.nulos.set(linha);
+                    } else {
+                        coluna.textos[linha] = valor.toString();
+                    }
+                }
+            };
+        }
+    }
+}
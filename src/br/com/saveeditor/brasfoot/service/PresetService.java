@@ -1,12 +1,13 @@
 package br.com.saveeditor.brasfoot.service;
 
 import br.com.saveeditor.brasfoot.config.PreferencesManager;
+import br.com.saveeditor.brasfoot.model.NavegacaoState;
 import br.com.saveeditor.brasfoot.model.PlayerPreset;
 import br.com.saveeditor.brasfoot.model.PlayerPreset.PresetType;
 import br.com.saveeditor.brasfoot.util.ReflectionUtils;
 
-import java.lang.reflect.Array;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Serviço para gerenciar e aplicar presets de jogadores.
@@ -15,6 +16,7 @@ public class PresetService {
 
     private final List<PlayerPreset> builtInPresets;
     private final List<PlayerPreset> customPresets;
+    private final List<EditorService.ModificationListener> listeners = new CopyOnWriteArrayList<>();
 
     public PresetService() {
         this.builtInPresets = new ArrayList<>();
@@ -23,6 +25,70 @@ public class PresetService {
         loadCustomPresets();
     }
 
+    public void addModificationListener(EditorService.ModificationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeModificationListener(EditorService.ModificationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * As aplicações seguintes desta thread, até {@link #terminarTransacao}, são uma só
+     * edição do save indicado para os listeners. Com estado null fica o da transação de fora.
+     */
+    private void iniciarTransacao(NavegacaoState estado, String descricao) {
+        NavegacaoState dono = DonoDaEdicao.entrar(estado);
+        for (EditorService.ModificationListener listener : listeners) {
+            listener.onTransacaoIniciada(dono, descricao);
+        }
+    }
+
+    private void terminarTransacao() {
+        try {
+            for (EditorService.ModificationListener listener : listeners) {
+                listener.onTransacaoTerminada();
+            }
+        } finally {
+            DonoDaEdicao.sair();
+        }
+    }
+
+    /**
+     * Aplica o preset a um jogador e notifica os listeners de cada atributo que mudou.
+     * Os atributos de um jogador formam uma transação (ou juntam-se à que está aberta).
+     */
+    private void aplicar(PlayerPreset preset, Object jogador) throws Exception {
+        iniciarTransacao(null, "Preset '" + preset.getName() + "'");
+        try {
+            aplicarAtributos(preset, jogador);
+        } finally {
+            terminarTransacao();
+        }
+    }
+
+    private void aplicarAtributos(PlayerPreset preset, Object jogador) throws Exception {
+        Map<String, Object> anteriores = new HashMap<>();
+        for (String campo : preset.getAttributes().keySet()) {
+            try {
+                anteriores.put(campo, ReflectionUtils.getFieldValue(jogador, campo));
+            } catch (NoSuchFieldException e) {
+                // applyTo avisa sobre campos inexistentes
+            }
+        }
+
+        preset.applyTo(jogador);
+
+        for (Map.Entry<String, Object> entry : anteriores.entrySet()) {
+            Object novo = ReflectionUtils.getFieldValue(jogador, entry.getKey());
+            if (!Objects.equals(entry.getValue(), novo)) {
+                for (EditorService.ModificationListener listener : listeners) {
+                    listener.onFieldModified(DonoDaEdicao.atual(), jogador, entry.getKey(), entry.getValue(), novo);
+                }
+            }
+        }
+    }
+
     private void loadCustomPresets() {
         List<PlayerPreset> savedPresets = PreferencesManager.getInstance().getPreferences().getCustomPresets();
         if (savedPresets != null) {
@@ -140,7 +206,7 @@ public class PresetService {
             throw new IllegalArgumentException("Jogador não pode ser nulo");
         }
 
-        preset.applyTo(playerObject);
+        aplicar(preset, playerObject);
     }
 
     /**
@@ -152,13 +218,18 @@ public class PresetService {
         }
 
         int successCount = 0;
-        for (Object player : players) {
-            try {
-                preset.applyTo(player);
-                successCount++;
-            } catch (Exception e) {
-                System.err.println("❌ Erro ao aplicar preset: " + e.getMessage());
+        iniciarTransacao(null, "Preset '" + preset.getName() + "' em " + players.size() + " jogadores");
+        try {
+            for (Object player : players) {
+                try {
+                    aplicar(preset, player);
+                    successCount++;
+                } catch (Exception e) {
+                    System.err.println("❌ Erro ao aplicar preset: " + e.getMessage());
+                }
             }
+        } finally {
+            terminarTransacao();
         }
 
         return successCount;
@@ -264,18 +335,35 @@ public class PresetService {
     /**
      * Aplica preset em massa a todos os jogadores do save.
      */
-    public int applyPresetToAllPlayers(PlayerPreset preset, Object rootObject) {
-        Set<Object> visited = new HashSet<>();
-        int count = applyPresetRecursive(preset, rootObject, visited);
-        System.out.println("✅ Preset aplicado a " + count + " jogadores");
-        return count;
+    public int applyPresetToAllPlayers(PlayerPreset preset, NavegacaoState estado) {
+        int[] count = {0};
+        iniciarTransacao(estado, "Preset '" + preset.getName() + "' em todos os jogadores");
+        try {
+            new GraphWalker(estado.getObjetoRaiz(), "raiz").percorrer((obj, no) -> {
+                // Se é um jogador (classe F), aplicar preset
+                if ("best.F".equals(obj.getClass().getName())) {
+                    try {
+                        aplicar(preset, obj);
+                        count[0]++;
+                    } catch (Exception e) {
+                        System.err.println("⚠ Erro ao aplicar preset: " + e.getMessage());
+                    }
+                }
+                return true;
+            });
+        } finally {
+            terminarTransacao();
+        }
+        System.out.println("✅ Preset aplicado a " + count[0] + " jogadores");
+        return count[0];
     }
 
     /**
      * Aplica preset a todos os jogadores de um time específico pelo nome.
      * Usa a mesma lógica do EditorService.editarTime.
      */
-    public int applyPresetToTeamByName(PlayerPreset preset, Object rootObject, String teamName) {
+    public int applyPresetToTeamByName(PlayerPreset preset, NavegacaoState estado, String teamName) {
+        Object rootObject = (estado != null) ? estado.getObjetoRaiz() : null;
         if (preset == null || rootObject == null || teamName == null || teamName.trim().isEmpty()) {
             return 0;
         }
@@ -330,61 +418,21 @@ public class PresetService {
 
         // Aplicar preset em cada jogador (igual EditorService.editarTime)
         int contador = 0;
-        for (Object jogador : listaJogadores) {
-            try {
-                preset.applyTo(jogador);
-                contador++;
-            } catch (Exception e) {
-                System.err.println("⚠️ Erro ao aplicar preset em jogador: " + e.getMessage());
-            }
-        }
-
-        System.out.println("✅ Preset aplicado a " + contador + " jogadores do time '" + teamName + "'");
-        return contador;
-    }
-
-    /**
-     * Busca recursiva e aplicação de preset.
-     */
-    private int applyPresetRecursive(PlayerPreset preset, Object currentObject, Set<Object> visited) {
-        if (currentObject == null || !ReflectionUtils.isComplexObject(currentObject)
-                || visited.contains(currentObject)) {
-            return 0;
-        }
-        visited.add(currentObject);
-
-        int count = 0;
-
-        // Se é um jogador (classe F), aplicar preset
-        if ("best.F".equals(currentObject.getClass().getName())) {
-            try {
-                preset.applyTo(currentObject);
-                count++;
-            } catch (Exception e) {
-                System.err.println("⚠ Erro ao aplicar preset: " + e.getMessage());
-            }
-        }
-
-        // Continuar busca recursiva
-        if (currentObject instanceof Collection) {
-            for (Object item : (Collection<?>) currentObject) {
-                count += applyPresetRecursive(preset, item, visited);
-            }
-        } else if (currentObject.getClass().isArray()) {
-            for (int i = 0; i < Array.getLength(currentObject); i++) {
-                count += applyPresetRecursive(preset, Array.get(currentObject, i), visited);
-            }
-        } else {
-            for (java.lang.reflect.Field field : currentObject.getClass().getDeclaredFields()) {
+        iniciarTransacao(estado, "Preset '" + preset.getName() + "' no time '" + teamName.trim() + "'");
+        try {
+            for (Object jogador : listaJogadores) {
                 try {
-                    Object fieldValue = ReflectionUtils.getFieldValue(currentObject, field.getName());
-                    count += applyPresetRecursive(preset, fieldValue, visited);
+                    aplicar(preset, jogador);
+                    contador++;
                 } catch (Exception e) {
-                    // Ignorar
+                    System.err.println("⚠️ Erro ao aplicar preset em jogador: " + e.getMessage());
                 }
             }
+        } finally {
+            terminarTransacao();
         }
 
-        return count;
+        System.out.println("✅ Preset aplicado a " + contador + " jogadores do time '" + teamName + "'");
+        return contador;
     }
 }
@@ -1,107 +1,405 @@
 package br.com.saveeditor.brasfoot.service;
 
 import br.com.saveeditor.brasfoot.model.NavegacaoState;
+import br.com.saveeditor.brasfoot.model.SaveLayout;
+import br.com.saveeditor.brasfoot.util.FieldAccessorRegistry;
+import br.com.saveeditor.brasfoot.util.ReflectionUtils;
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import com.esotericsoftware.kryo.serializers.CollectionSerializer;
-import org.objenesis.strategy.StdInstantiatorStrategy;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.security.MessageDigest;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 /**
  * Serviço responsável por todas as operações de ficheiro.
- * IMPORTANTE: Usa Kryo separados para leitura e escrita!
+ * IMPORTANTE: Usa Kryo separados para leitura e escrita (ver {@link KryoPool})!
  */
 public class SaveFileService {
-    private final Kryo kryoReader;  // Apenas para leitura
+    // Buffer grande: evita milhares de read() pequenos em saves de fim de temporada
+    private static final int BUFFER_LEITURA = 1024 * 1024;
+    private static final int BUFFER_ESCRITA = 1024 * 1024;
+    private static final long INTERVALO_PROGRESSO = 256 * 1024;
+    // Acima deste tamanho não se regista o layout dos campos para salvamentos incrementais
+    private static final int LIMITE_LAYOUT = 128 * 1024 * 1024;
 
-    public SaveFileService() {
-        this.kryoReader = new Kryo();
-        configurarKryoParaLeitura(this.kryoReader);
+    // Formato dos checkpoints: "BSKP" + versão
+    private static final int MAGIC_CHECKPOINT = 0x42534B50;
+    private static final int VERSAO_CHECKPOINT = 1;
+
+    // Buffer de serialização reaproveitado entre salvamentos (cresce conforme o save)
+    private static final AtomicReference<Output> BUFFER_SALVAMENTO = new AtomicReference<>();
+
+    // Sondagem: bytes lidos do início (classe raiz) e de cada ponta para o hash parcial
+    private static final int BYTES_CABECALHO = 4 * 1024;
+    private static final int BYTES_HASH_PARCIAL = 64 * 1024;
+    private static final int MAX_SONDAGENS_CACHE = 256;
+    // Caminho absoluto → resumo; válido enquanto o tamanho e a data de modificação forem os mesmos
+    private static final Map<String, SaveSummary> CACHE_SONDAGEM = new ConcurrentHashMap<>();
+
+    public Optional<NavegacaoState> carregarSave(String filePath) {
+        return carregarSave(filePath, null);
     }
 
-    private void configurarKryoParaLeitura(Kryo kryo) {
-        kryo.setInstantiatorStrategy(new StdInstantiatorStrategy());
-        kryo.setRegistrationRequired(false);
-        kryo.setClassLoader(this.getClass().getClassLoader());
-        
-        // Serializer especial para ArrayList (apenas para leitura)
-        CollectionSerializer arrayListSerializer = new CollectionSerializer() {
-            @Override
-            protected Collection create(Kryo kryo, Input input, Class<Collection> type) {
-                return new ArrayList();
+    /**
+     * Carrega um save em modo streaming.
+     * Retorna assim que o objeto raiz é lido; o dataAfQ é desserializado numa
+     * thread separada e fica disponível via {@link NavegacaoState#getDataAfQ()}.
+     */
+    public Optional<NavegacaoState> carregarSave(String filePath, LoadProgressListener listener) {
+        // Ler arquivo
+        System.out.println("\nA tentar ler o ficheiro: " + filePath);
+        File file = new File(filePath);
+        long tamanhoArquivo = file.length();
+        long modificadoEm = file.lastModified();
+        // Registar a posição dos campos permite salvamentos incrementais (os bytes são relidos ao salvar)
+        IdentityHashMap<Object, int[]> limites = (tamanhoArquivo <= LIMITE_LAYOUT) ? new IdentityHashMap<>() : null;
+        Kryo kryo = KryoPool.leitura().obter();
+        Input input = null;
+        ProgressInputStream stream = null;
+        Object objetoRaiz;
+        try {
+            stream = new ProgressInputStream(new FileInputStream(file), tamanhoArquivo, listener);
+            input = new Input(stream, BUFFER_LEITURA);
+            if (limites != null) {
+                LayoutFieldSerializer.ativarRegisto(kryo, limites);
+            }
+            objetoRaiz = kryo.readClassAndObject(input);
+            System.out.println("✔ Objeto raiz lido (" + input.total() + " bytes)");
+        } catch (Exception e) {
+            System.err.println("✖ Erro ao ler o ficheiro: " + e.getMessage());
+            e.printStackTrace();
+            if (input != null) {
+                input.close();
+            }
+            LayoutFieldSerializer.desativarRegisto(kryo);
+            KryoPool.leitura().devolver(kryo);
+            return Optional.empty();
+        }
+
+        // A raiz já pode ser exibida; o dataAfQ continua em segundo plano
+        CompletableFuture<Object> dataAfQ = new CompletableFuture<>();
+        NavegacaoState estado = new NavegacaoState(objetoRaiz, dataAfQ, filePath);
+        Input restante = input;
+        Thread leitor = new Thread(() -> {
+            try (Input in = restante) {
+                Object objeto = kryo.readClassAndObject(in);
+                System.out.println("✔ Ficheiro lido com sucesso!");
+
+                BackupService.getInstance().agendarBackup(file.toPath());
+
+                if (limites != null) {
+                    estado.setLayoutSerializado(new SaveLayout(file.toPath(), modificadoEm, (int) tamanhoArquivo, limites));
+                }
+                dataAfQ.complete(objeto);
+                prepararAcessores(objetoRaiz);
+            } catch (Throwable t) {
+                System.err.println("✖ Erro ao ler o dataAfQ: " + t.getMessage());
+                dataAfQ.completeExceptionally(t);
+            } finally {
+                LayoutFieldSerializer.desativarRegisto(kryo);
+                KryoPool.leitura().devolver(kryo);
+            }
+        }, "DataAfQ-Loader");
+        leitor.setDaemon(true);
+        leitor.start();
+
+        return Optional.of(estado);
+    }
+
+    /**
+     * Gera os acessores das classes do jogo da raiz, dos times ('aj') e dos jogadores
+     * ('nd'), para que a primeira edição ou preset não pague a geração.
+     */
+    private static void prepararAcessores(Object objetoRaiz) {
+        long inicio = System.nanoTime();
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        classes.add(objetoRaiz.getClass());
+        try {
+            Object times = ReflectionUtils.getFieldValue(objetoRaiz, "aj");
+            if (times instanceof List) {
+                for (Object time : (List<?>) times) {
+                    if (time == null) continue;
+                    classes.add(time.getClass());
+                    Object jogadores = ReflectionUtils.getFieldValue(time, "nd");
+                    if (jogadores instanceof List) {
+                        for (Object jogador : (List<?>) jogadores) {
+                            if (jogador != null) classes.add(jogador.getClass());
+                        }
+                    }
+                }
             }
-        };
-        kryo.register(ArrayList.class, arrayListSerializer);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            // Raiz sem times: fica só a classe dela
+        }
+        FieldAccessorRegistry registry = FieldAccessorRegistry.getInstance();
+        int gerados = 0;
+        for (Class<?> classe : classes) {
+            if (registry.preparar(classe)) gerados++;
+        }
+        if (gerados > 0) {
+            System.out.println("⚡ Acessores gerados para " + gerados + " classes do jogo ("
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) + " ms)");
+        }
     }
-    
+
     /**
-     * Cria um Kryo LIMPO apenas para escrita.
-     * Não usa as configurações especiais de leitura que podem corromper o arquivo.
+     * Lê um save inteiro (raiz e dataAfQ) na thread atual, com um Kryo de leitura
+     * já obtido pelo chamador. Usado pelo carregamento em lote, onde cada worker
+     * mantém o seu Kryo. Não guarda o layout: o primeiro salvamento será completo.
      */
-    private Kryo criarKryoParaEscrita() {
-        Kryo kryoWriter = new Kryo();
-        kryoWriter.setRegistrationRequired(false);
-        kryoWriter.setClassLoader(this.getClass().getClassLoader());
-        // NÃO configura InstantiatorStrategy nem CollectionSerializer customizado
-        return kryoWriter;
+    NavegacaoState carregarSaveCompleto(File file, Kryo kryo) throws Exception {
+        try (Input input = new Input(new FileInputStream(file), BUFFER_LEITURA)) {
+            Object objetoRaiz = kryo.readClassAndObject(input);
+            Object dataAfQ = kryo.readClassAndObject(input);
+            BackupService.getInstance().agendarBackup(file.toPath());
+            return new NavegacaoState(objetoRaiz, dataAfQ, file.getAbsolutePath());
+        } finally {
+            kryo.reset();
+        }
     }
 
-    public Optional<NavegacaoState> carregarSave(String filePath) {
-        // Criar backup
-        try {
-            String backupPath = filePath + ".bak";
-            System.out.println("A criar backup do ficheiro original em: " + backupPath);
-            Files.copy(Paths.get(filePath), Paths.get(backupPath), StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("✔ Backup criado com sucesso!");
-        } catch (IOException e) {
-            System.err.println("✖ Falha ao criar o backup: " + e.getMessage());
+    /**
+     * Resumo rápido de um save sem o desserializar: classe raiz, tamanho, data
+     * de modificação e um hash parcial. Lê só alguns KB do ficheiro e o
+     * resultado fica em cache enquanto o ficheiro não mudar.
+     */
+    public Optional<SaveSummary> sondarSave(String filePath) {
+        File file = new File(filePath).getAbsoluteFile();
+        long tamanho = file.length();
+        long modificadoEm = file.lastModified();
+        if (!file.isFile() || modificadoEm == 0) {
+            return Optional.empty();
+        }
+        String chave = file.getPath();
+        SaveSummary emCache = CACHE_SONDAGEM.get(chave);
+        if (emCache != null && emCache.getTamanho() == tamanho && emCache.getModificadoEm() == modificadoEm) {
+            return Optional.of(emCache);
         }
 
-        // Ler arquivo
-        System.out.println("\nA tentar ler o ficheiro: " + filePath);
-        try (Input input = new Input(new FileInputStream(filePath))) {
-            Object objetoRaiz = kryoReader.readClassAndObject(input);
-            Object dataAfQ = kryoReader.readClassAndObject(input);
-            System.out.println("✔ Ficheiro lido com sucesso!");
-            return Optional.of(new NavegacaoState(objetoRaiz, dataAfQ, filePath));
+        try (FileChannel canal = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer inicio = lerTrecho(canal, 0, (int) Math.min(tamanho, BYTES_HASH_PARCIAL));
+            String classeRaiz = lerClasseRaiz(inicio.array(), Math.min(inicio.limit(), BYTES_CABECALHO));
+
+            // Hash do tamanho mais as duas pontas: distingue saves sem ler o meio
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(8).putLong(tamanho).array());
+            digest.update(inicio.array(), 0, inicio.limit());
+            if (tamanho > BYTES_HASH_PARCIAL) {
+                long posFinal = Math.max(BYTES_HASH_PARCIAL, tamanho - BYTES_HASH_PARCIAL);
+                ByteBuffer fim = lerTrecho(canal, posFinal, (int) (tamanho - posFinal));
+                digest.update(fim.array(), 0, fim.limit());
+            }
+            String hashParcial = BackupService.paraHex(digest.digest()).substring(0, 16);
+
+            SaveSummary resumo = new SaveSummary(chave, classeRaiz, tamanho, modificadoEm, hashParcial);
+            if (CACHE_SONDAGEM.size() >= MAX_SONDAGENS_CACHE) {
+                CACHE_SONDAGEM.clear();
+            }
+            CACHE_SONDAGEM.put(chave, resumo);
+            return Optional.of(resumo);
         } catch (Exception e) {
-            System.err.println("✖ Erro ao ler o ficheiro: " + e.getMessage());
+            System.err.println("✖ Não foi possível sondar " + file.getName() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static ByteBuffer lerTrecho(FileChannel canal, long posicao, int tamanho) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, posicao + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Nome da classe do objeto raiz, lido do cabeçalho do stream Kryo.
+     * Classes não registadas vêm com o nome por extenso, por isso não é
+     * preciso carregá-las; as registadas são resolvidas pelo id.
+     */
+    private static String lerClasseRaiz(byte[] bytes, int tamanho) {
+        Input input = new Input(bytes, 0, tamanho);
+        int id = input.readVarInt(true);
+        if (id == Kryo.NULL) {
+            return "null";
+        }
+        if (id == 1) {
+            // NAME + 2: id do nome seguido do nome da classe
+            input.readVarInt(true);
+            return input.readString();
+        }
+        return KryoPool.leitura().executar(kryo -> {
+            Registration registo = kryo.getRegistration(id - 2);
+            return (registo != null) ? registo.getType().getName() : "desconhecida (id " + (id - 2) + ")";
+        });
+    }
+
+    /**
+     * Duplica um estado em memória, sem tocar no disco, usando Kryo.copy().
+     * A cópia é profunda e independente (as edições de uma aba não afetam a outra);
+     * valores imutáveis como String e números são partilhados entre as cópias.
+     */
+    public Optional<NavegacaoState> duplicarEstado(NavegacaoState estado) {
+        System.out.println("\n📋 A duplicar o estado em memória: " + estado.getCaminhoArquivoOriginal());
+        Kryo kryo = KryoPool.copia().obter();
+        try {
+            // Copiar os dois objetos juntos mantém as referências partilhadas entre eles
+            Object[] copia = kryo.copy(new Object[] { estado.getObjetoRaiz(), estado.getDataAfQ() });
+            NavegacaoState duplicado = new NavegacaoState(copia[0], copia[1], estado.getCaminhoArquivoOriginal());
+            duplicado.setUltimoTimestampModificacao(estado.getUltimoTimestampModificacao());
+            System.out.println("✔ Estado duplicado com sucesso!");
+            return Optional.of(duplicado);
+        } catch (Exception e) {
+            System.err.println("✖ Erro ao duplicar o estado: " + e.getMessage());
             e.printStackTrace();
             return Optional.empty();
+        } finally {
+            KryoPool.copia().devolver(kryo);
         }
     }
 
-    public void salvarSave(NavegacaoState estado, String nomeArquivo) {
+    /**
+     * Salva o estado de forma atómica e validada num único passo.
+     * Se só mudaram campos primitivos desde a última leitura/gravação, apenas esses
+     * campos são recodificados e emendados na cópia dos bytes do ficheiro
+     * (ver {@link SaveSplicer}). Caso contrário serializa tudo para um buffer em
+     * memória. Em ambos os casos o buffer é desserializado com o perfil de leitura
+     * e a {@link SaveFingerprint} comparada com a do estado original; uma emenda
+     * que não passa cai para a gravação completa.
+     * Só então grava os bytes (uma única vez) num ficheiro temporário ao lado do
+     * destino, força o fsync e move-o por cima do destino.
+     * Se algo falhar, o ficheiro de destino fica intacto.
+     *
+     * @return true se o ficheiro foi salvo e validado
+     */
+    public boolean salvarSave(NavegacaoState estado, String nomeArquivo) {
         File originalFile = new File(estado.getCaminhoArquivoOriginal());
         String parentDirectory = originalFile.getParent();
         if (parentDirectory == null) {
             parentDirectory = ".";
         }
-        String fullSavePath = Paths.get(parentDirectory, nomeArquivo).toString();
+        Path destino = Paths.get(parentDirectory, nomeArquivo);
+        String fullSavePath = destino.toString();
 
         System.out.println("\n💾 A salvar o estado atual para o ficheiro: " + fullSavePath);
-        
-        // IMPORTANTE: Criar um Kryo NOVO e LIMPO apenas para escrita!
-        Kryo kryoWriter = criarKryoParaEscrita();
-        
-        try (Output output = new Output(new FileOutputStream(fullSavePath))) {
-            // Salvar na mesma ordem que foi lido
-            kryoWriter.writeClassAndObject(output, estado.getObjetoRaiz());
-            kryoWriter.writeClassAndObject(output, estado.getDataAfQ());
-            
-            output.flush(); // Garantir que tudo foi escrito
-            
+
+        Map<Object, Map<String, Object>> modificacoes = estado.extrairModificacoes();
+        boolean salvo = false;
+        Output output = null;
+        Path temporario = null;
+        try {
+            // Garante que a leitura terminou e que o layout (se houver) está completo
+            Object dataAfQ = estado.getDataAfQ();
+
+            byte[] bytes;
+            int tamanho;
+            IdentityHashMap<Object, int[]> limites = null;
+            SaveFingerprint esperado = SaveFingerprint.calcular(estado.getObjetoRaiz(), dataAfQ);
+            SaveSplicer.Resultado emendado = emendar(estado, modificacoes);
+            // Os bytes emendados passam pela mesma validação que uma gravação completa
+            if (emendado != null && !validarEmMemoria(emendado.getBytes(), emendado.getBytes().length, esperado)) {
+                System.out.println("ℹ Gravação completa: a emenda não passou na validação");
+                emendado = null;
+            }
+            if (emendado != null) {
+                bytes = emendado.getBytes();
+                tamanho = bytes.length;
+            } else {
+                // Reaproveitar o buffer do último salvamento, se estiver livre
+                output = BUFFER_SALVAMENTO.getAndSet(null);
+                if (output == null) {
+                    output = new Output(BUFFER_ESCRITA, -1);
+                }
+                output.clear();
+
+                // IMPORTANTE: Usar um Kryo LIMPO apenas para escrita!
+                Kryo kryoWriter = KryoPool.escrita().obter();
+                try {
+                    limites = new IdentityHashMap<>();
+                    LayoutFieldSerializer.ativarRegisto(kryoWriter, limites);
+                    // Salvar na mesma ordem que foi lido
+                    kryoWriter.writeClassAndObject(output, estado.getObjetoRaiz());
+                    kryoWriter.writeClassAndObject(output, dataAfQ);
+                } finally {
+                    LayoutFieldSerializer.desativarRegisto(kryoWriter);
+                    KryoPool.escrita().devolver(kryoWriter);
+                }
+
+                if (!validarEmMemoria(output.getBuffer(), output.position(), esperado)) {
+                    System.err.println("✖ O ficheiro de destino não foi alterado");
+                    return false;
+                }
+                bytes = output.getBuffer();
+                tamanho = output.position();
+            }
+
+            temporario = Files.createTempFile(destino.toAbsolutePath().getParent(), nomeArquivo + ".", ".tmp");
+            // O createTempFile cria com 0600 e o move mantém-no: o save fica com as permissões do anterior
+            copiarPermissoes(Files.exists(destino) ? destino : originalFile.toPath(), temporario);
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, tamanho);
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                canal.force(true);
+            }
+
+            // Nunca substituir um save enquanto o seu backup ainda está a ser copiado
+            BackupService.getInstance().aguardarBackup(destino);
+
+            try {
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temporario = null;
+            salvo = true;
+
+            // Os bytes gravados passam a ser a base do próximo salvamento incremental
+            if (emendado != null) {
+                estado.setLayoutSerializado(emendado.confirmar(destino));
+            } else if (tamanho <= LIMITE_LAYOUT) {
+                estado.setLayoutSerializado(SaveLayout.doArquivo(destino, limites));
+            } else {
+                estado.setLayoutSerializado(null);
+            }
+
             System.out.println("✔ Ficheiro salvo com sucesso!");
             System.out.println("📁 Localização: " + fullSavePath);
 
@@ -114,24 +412,222 @@ public class SaveFileService {
             } catch (IOException e) {
                 // Ignorar erro de comparação de paths
             }
-            
+            return true;
+
         } catch (Exception e) {
             System.err.println("✖ Erro ao salvar: " + e.getMessage());
             e.printStackTrace();
-            
-            // Tentar deletar arquivo corrompido
+            return false;
+        } finally {
+            if (!salvo) {
+                estado.restaurarModificacoes(modificacoes);
+            }
+            if (output != null) {
+                BUFFER_SALVAMENTO.set(output);
+            }
+
+            // Remover o temporário se não chegou a ser movido
+            if (temporario != null) {
+                try {
+                    Files.deleteIfExists(temporario);
+                } catch (IOException e) {
+                    // Ignorar
+                }
+            }
+        }
+    }
+
+    /**
+     * Copia as permissões POSIX (e o grupo, se possível) de um ficheiro para outro.
+     * Em sistemas sem POSIX não faz nada: lá o temporário herda as da pasta.
+     */
+    private static void copiarPermissoes(Path modelo, Path alvo) {
+        PosixFileAttributeView origem = Files.getFileAttributeView(modelo, PosixFileAttributeView.class);
+        PosixFileAttributeView destino = Files.getFileAttributeView(alvo, PosixFileAttributeView.class);
+        if (origem == null || destino == null || !Files.exists(modelo)) {
+            return;
+        }
+        try {
+            PosixFileAttributes atributos = origem.readAttributes();
+            destino.setPermissions(atributos.permissions());
             try {
-                File corruptedFile = new File(fullSavePath);
-                if (corruptedFile.exists() && corruptedFile.length() == 0) {
-                    corruptedFile.delete();
-                    System.err.println("🗑️ Arquivo corrompido removido");
+                destino.setGroup(atributos.group());
+            } catch (IOException | SecurityException e) {
+                // Só o dono que pertence ao grupo pode mudá-lo: fica o grupo por omissão
+            }
+        } catch (IOException e) {
+            System.err.println("⚠ Não foi possível copiar as permissões do save: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tenta emendar as modificações nos bytes já conhecidos do ficheiro.
+     * Retorna null (com o motivo no log) quando é preciso uma gravação completa.
+     */
+    private SaveSplicer.Resultado emendar(NavegacaoState estado, Map<Object, Map<String, Object>> modificacoes) {
+        SaveLayout layout = estado.getLayoutSerializado();
+        if (layout == null) {
+            System.out.println("ℹ Gravação completa: não há layout dos campos deste save");
+            return null;
+        }
+        Kryo kryo = KryoPool.escrita().obter();
+        try {
+            SaveSplicer.Resultado resultado = SaveSplicer.emendar(layout, modificacoes, kryo);
+            System.out.println("⚡ Gravação incremental: " + resultado.getCamposRegravados()
+                    + " campo(s) regravado(s) em " + modificacoes.size() + " objeto(s)");
+            return resultado;
+        } catch (RuntimeException e) {
+            System.out.println("ℹ Gravação completa: " + e.getMessage());
+            return null;
+        } finally {
+            KryoPool.escrita().devolver(kryo);
+        }
+    }
+
+    /**
+     * Grava um checkpoint da sessão: um cabeçalho pequeno (caminho do save,
+     * timestamps e profundidade da trilha) seguido do stream Kryo de
+     * {raiz, dataAfQ, trilha de navegação}, comprimido com Deflate.
+     * A trilha vai no mesmo objeto para manter as referências aos objetos do grafo.
+     * Pode correr em segundo plano: os campos editados entretanto podem ficar com
+     * o valor antigo ou o novo, mas a estrutura do grafo não muda durante a edição.
+     */
+    public boolean salvarCheckpoint(NavegacaoState estado, Path destino) {
+        Path temporario = null;
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        Kryo kryo = KryoPool.escrita().obter();
+        try {
+            Object[] trilha = estado.getTrilhaNavegacao().toArray();
+            temporario = Files.createTempFile(destino.toAbsolutePath().getParent(), destino.getFileName() + ".", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario), BUFFER_ESCRITA))) {
+                out.writeInt(MAGIC_CHECKPOINT);
+                out.writeInt(VERSAO_CHECKPOINT);
+                out.writeUTF(estado.getCaminhoArquivoOriginal());
+                out.writeLong(System.currentTimeMillis());
+                out.writeLong(estado.getUltimoTimestampModificacao());
+                out.writeInt(trilha.length);
+                out.flush();
+
+                DeflaterOutputStream comprimido = new DeflaterOutputStream(out, deflater, 64 * 1024);
+                Output output = new Output(comprimido, BUFFER_ESCRITA);
+                // Um único objeto: o Kryo só partilha referências dentro da mesma escrita
+                kryo.writeClassAndObject(output, new Object[] { estado.getObjetoRaiz(), estado.getDataAfQ(), trilha });
+                output.flush();
+                comprimido.finish();
+            }
+
+            try {
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temporario = null;
+            return true;
+        } catch (Exception e) {
+            System.err.println("✖ Erro ao criar o checkpoint: " + e.getMessage());
+            return false;
+        } finally {
+            KryoPool.escrita().devolver(kryo);
+            deflater.end();
+            if (temporario != null) {
+                try {
+                    Files.deleteIfExists(temporario);
+                } catch (IOException e) {
+                    // Ignorar
                 }
-            } catch (Exception ex) {
-                // Ignorar
             }
         }
     }
-    
+
+    /**
+     * Lê apenas o cabeçalho de um checkpoint, sem descomprimir o resto.
+     */
+    public Optional<CheckpointInfo> lerCheckpointInfo(Path arquivo) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo), 1024))) {
+            return Optional.of(lerCabecalho(in));
+        } catch (Exception e) {
+            System.err.println("✖ Checkpoint inválido: " + arquivo.getFileName() + " (" + e.getMessage() + ")");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Restaura um checkpoint como um novo estado, com a trilha de navegação original.
+     * O estado não tem layout em cache, por isso o próximo salvamento é completo.
+     */
+    public Optional<NavegacaoState> restaurarCheckpoint(Path arquivo) {
+        System.out.println("\n🕘 A restaurar checkpoint: " + arquivo);
+        Kryo kryo = KryoPool.leitura().obter();
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo), BUFFER_LEITURA))) {
+            CheckpointInfo info = lerCabecalho(in);
+            Input input = new Input(new InflaterInputStream(in, inflater, 64 * 1024), BUFFER_LEITURA);
+            Object[] conteudo = (Object[]) kryo.readClassAndObject(input);
+            Object[] trilha = (Object[]) conteudo[2];
+
+            NavegacaoState estado = new NavegacaoState(conteudo[0], conteudo[1], info.getCaminhoOriginal());
+            estado.setUltimoTimestampModificacao(info.getTimestampSave());
+            for (int i = 1; i < trilha.length; i++) {
+                estado.entrar(trilha[i]);
+            }
+            System.out.println("✔ Checkpoint restaurado (" + info.getCaminhoOriginal() + ")");
+            return Optional.of(estado);
+        } catch (Exception e) {
+            System.err.println("✖ Erro ao restaurar o checkpoint: " + e.getMessage());
+            e.printStackTrace();
+            return Optional.empty();
+        } finally {
+            inflater.end();
+            KryoPool.leitura().devolver(kryo);
+        }
+    }
+
+    private static CheckpointInfo lerCabecalho(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC_CHECKPOINT) {
+            throw new IOException("não é um checkpoint");
+        }
+        int versao = in.readInt();
+        if (versao != VERSAO_CHECKPOINT) {
+            throw new IOException("versão " + versao + " não suportada");
+        }
+        return new CheckpointInfo(in.readUTF(), in.readLong(), in.readLong(), in.readInt());
+    }
+
+    /**
+     * Desserializa os bytes acabados de serializar e compara a estrutura lida
+     * com a esperada, sem tocar no disco.
+     */
+    private boolean validarEmMemoria(byte[] buffer, int tamanho, SaveFingerprint esperado) {
+        System.out.println("🔍 Validando " + tamanho + " bytes em memória...");
+
+        Kryo kryoTest = KryoPool.leitura().obter();
+        try {
+            Input input = new Input(buffer, 0, tamanho);
+            Object obj1 = kryoTest.readClassAndObject(input);
+            Object obj2 = kryoTest.readClassAndObject(input);
+
+            if (obj1 == null || obj2 == null) {
+                System.err.println("✖ Validação falhou: Objetos nulos");
+                return false;
+            }
+
+            String diferencas = esperado.diferencas(SaveFingerprint.calcular(obj1, obj2));
+            if (diferencas != null) {
+                System.err.println("✖ Validação falhou: estrutura diferente (" + diferencas + ")");
+                return false;
+            }
+
+            System.out.println("✔ Validado: " + esperado);
+            return true;
+
+        } catch (Exception e) {
+            System.err.println("✖ Validação falhou: " + e.getMessage());
+            return false;
+        } finally {
+            KryoPool.leitura().devolver(kryoTest);
+        }
+    }
+
     /**
      * Valida se um arquivo salvo pode ser lido novamente.
      * Útil para testar se o salvamento foi bem-sucedido.
@@ -139,10 +635,9 @@ public class SaveFileService {
     public boolean validarArquivoSalvo(String filePath) {
         System.out.println("\n🔍 Validando arquivo salvo...");
         
-        Kryo kryoTest = new Kryo();
-        configurarKryoParaLeitura(kryoTest);
+        Kryo kryoTest = KryoPool.leitura().obter();
         
-        try (Input input = new Input(new FileInputStream(filePath))) {
+        try (Input input = new Input(new FileInputStream(filePath), BUFFER_LEITURA)) {
             Object obj1 = kryoTest.readClassAndObject(input);
             Object obj2 = kryoTest.readClassAndObject(input);
             
@@ -157,6 +652,116 @@ public class SaveFileService {
         } catch (Exception e) {
             System.err.println("✖ Validação falhou: " + e.getMessage());
             return false;
+        } finally {
+            KryoPool.leitura().devolver(kryoTest);
+        }
+    }
+
+    /**
+     * Cabeçalho de um checkpoint da sessão.
+     */
+    public static class CheckpointInfo {
+        private final String caminhoOriginal;
+        private final long criadoEm;
+        private final long timestampSave;
+        private final int profundidadeTrilha;
+
+        CheckpointInfo(String caminhoOriginal, long criadoEm, long timestampSave, int profundidadeTrilha) {
+            this.caminhoOriginal = caminhoOriginal;
+            this.criadoEm = criadoEm;
+            this.timestampSave = timestampSave;
+            this.profundidadeTrilha = profundidadeTrilha;
+        }
+
+        public String getCaminhoOriginal() { return caminhoOriginal; }
+        public long getCriadoEm() { return criadoEm; }
+        public long getTimestampSave() { return timestampSave; }
+        public int getProfundidadeTrilha() { return profundidadeTrilha; }
+    }
+
+    /**
+     * Resumo de um save obtido por {@link #sondarSave(String)}.
+     */
+    public static class SaveSummary {
+        private final String caminho;
+        private final String classeRaiz;
+        private final long tamanho;
+        private final long modificadoEm;
+        private final String hashParcial;
+
+        SaveSummary(String caminho, String classeRaiz, long tamanho, long modificadoEm, String hashParcial) {
+            this.caminho = caminho;
+            this.classeRaiz = classeRaiz;
+            this.tamanho = tamanho;
+            this.modificadoEm = modificadoEm;
+            this.hashParcial = hashParcial;
+        }
+
+        public String getCaminho() { return caminho; }
+        public String getClasseRaiz() { return classeRaiz; }
+        public long getTamanho() { return tamanho; }
+        public long getModificadoEm() { return modificadoEm; }
+        public String getHashParcial() { return hashParcial; }
+    }
+
+    /**
+     * Interface para acompanhar o progresso da leitura, em bytes consumidos.
+     * Pode ser chamada a partir da thread de leitura do dataAfQ.
+     */
+    public interface LoadProgressListener {
+        void onProgress(long bytesRead, long totalBytes);
+    }
+
+    /**
+     * Stream que conta os bytes lidos, notifica o listener a cada intervalo,
+     * calcula o SHA-256 do conteúdo à medida que é lido e, opcionalmente,
+     * guarda uma cópia dos bytes.
+     */
+    private static class ProgressInputStream extends FilterInputStream {
+        private final long totalBytes;
+        private final LoadProgressListener listener;
+        private long bytesRead;
+        private long ultimoAviso;
+
+        ProgressInputStream(InputStream in, long totalBytes, LoadProgressListener listener) {
+            super(in);
+            this.totalBytes = totalBytes;
+            this.listener = listener;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                contar(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                contar(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long saltados = super.skip(n);
+            if (saltados > 0) {
+                contar(saltados);
+            }
+            return saltados;
+        }
+
+        private void contar(long n) {
+            bytesRead += n;
+            if (listener != null && (bytesRead - ultimoAviso >= INTERVALO_PROGRESSO || bytesRead >= totalBytes)) {
+                ultimoAviso = bytesRead;
+                listener.onProgress(bytesRead, totalBytes);
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,164 @@
+package br.com.saveeditor.brasfoot.service;
+
+import br.com.saveeditor.brasfoot.util.ClassSchema;
+import br.com.saveeditor.brasfoot.util.ReflectionUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Impressão digital estrutural de um save: quantidade de objetos por classe do
+ * jogo, número de jogadores (best.F) e número de times (lista 'aj' da raiz).
+ * Usada para confirmar que o que foi serializado volta a ser lido igual.
+ */
+public final class SaveFingerprint {
+
+    private final Map<String, Integer> objetosPorClasse;
+    private final int jogadores;
+    private final int times;
+
+    private SaveFingerprint(Map<String, Integer> objetosPorClasse, int jogadores, int times) {
+        this.objetosPorClasse = objetosPorClasse;
+        this.jogadores = jogadores;
+        this.times = times;
+    }
+
+    /**
+     * Percorre o grafo (sem recursão) contando cada objeto uma única vez.
+     * Segue apenas o que o Kryo serializa: ignora campos static, transient e sintéticos.
+     */
+    public static SaveFingerprint calcular(Object objetoRaiz, Object dataAfQ) {
+        Map<String, Integer> contagem = new TreeMap<>();
+        Map<Class<?>, List<Field>> camposPorClasse = new HashMap<>();
+        IdentityHashMap<Object, Boolean> visitados = new IdentityHashMap<>();
+        Deque<Object> pilha = new ArrayDeque<>();
+        empilhar(pilha, dataAfQ);
+        empilhar(pilha, objetoRaiz);
+
+        while (!pilha.isEmpty()) {
+            Object atual = pilha.pop();
+            if (visitados.put(atual, Boolean.TRUE) != null) {
+                continue;
+            }
+
+            if (atual instanceof Collection) {
+                for (Object item : (Collection<?>) atual) {
+                    empilhar(pilha, item);
+                }
+            } else if (atual instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) atual).entrySet()) {
+                    empilhar(pilha, entry.getKey());
+                    empilhar(pilha, entry.getValue());
+                }
+            } else if (atual.getClass().isArray()) {
+                if (!atual.getClass().getComponentType().isPrimitive()) {
+                    int len = Array.getLength(atual);
+                    for (int i = 0; i < len; i++) {
+                        empilhar(pilha, Array.get(atual, i));
+                    }
+                }
+            } else if (ReflectionUtils.isComplexObject(atual)) {
+                contagem.merge(atual.getClass().getName(), 1, Integer::sum);
+                for (Field field : camposPorClasse.computeIfAbsent(atual.getClass(), SaveFingerprint::camposSerializaveis)) {
+                    try {
+                        empilhar(pilha, field.get(atual));
+                    } catch (IllegalAccessException e) {
+                        // Ignorar
+                    }
+                }
+            }
+        }
+
+        Integer jogadores = contagem.get("best.F");
+        return new SaveFingerprint(contagem, jogadores != null ? jogadores : 0, contarTimes(objetoRaiz));
+    }
+
+    private static void empilhar(Deque<Object> pilha, Object obj) {
+        if (obj != null) {
+            pilha.push(obj);
+        }
+    }
+
+    private static List<Field> camposSerializaveis(Class<?> classe) {
+        List<Field> campos = new ArrayList<>();
+        for (Class<?> c = classe; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : ClassSchema.de(c).getFieldsInstancia()) {
+                if (Modifier.isTransient(field.getModifiers()) || field.getType().isPrimitive()) {
+                    continue;
+                }
+                campos.add(field);
+            }
+        }
+        return campos;
+    }
+
+    private static int contarTimes(Object objetoRaiz) {
+        try {
+            Object times = ReflectionUtils.getFieldValue(objetoRaiz, "aj");
+            return (times instanceof Collection) ? ((Collection<?>) times).size() : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Descreve as diferenças em relação a outra impressão digital.
+     * Retorna null se forem iguais.
+     */
+    public String diferencas(SaveFingerprint outra) {
+        if (equals(outra)) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        if (jogadores != outra.jogadores) {
+            sb.append("jogadores ").append(jogadores).append(" → ").append(outra.jogadores).append("; ");
+        }
+        if (times != outra.times) {
+            sb.append("times ").append(times).append(" → ").append(outra.times).append("; ");
+        }
+        Map<String, Integer> todas = new TreeMap<>(objetosPorClasse);
+        outra.objetosPorClasse.forEach(todas::putIfAbsent);
+        for (String classe : todas.keySet()) {
+            int antes = objetosPorClasse.getOrDefault(classe, 0);
+            int depois = outra.objetosPorClasse.getOrDefault(classe, 0);
+            if (antes != depois) {
+                sb.append(classe).append(' ').append(antes).append(" → ").append(depois).append("; ");
+            }
+        }
+        return sb.toString();
+    }
+
+    public Map<String, Integer> getObjetosPorClasse() { return Collections.unmodifiableMap(objetosPorClasse); }
+    public int getJogadores() { return jogadores; }
+    public int getTimes() { return times; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SaveFingerprint)) return false;
+        SaveFingerprint that = (SaveFingerprint) o;
+        return jogadores == that.jogadores && times == that.times && objetosPorClasse.equals(that.objetosPorClasse);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(objetosPorClasse, jogadores, times);
+    }
+
+    @Override
+    public String toString() {
+        return objetosPorClasse.size() + " classes, " + jogadores + " jogadores, " + times + " times";
+    }
+}
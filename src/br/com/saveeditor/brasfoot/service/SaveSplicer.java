@@ -0,0 +1,206 @@
+package br.com.saveeditor.brasfoot.service;
+
+import br.com.saveeditor.brasfoot.model.SaveLayout;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.esotericsoftware.kryo.serializers.FieldSerializer.CachedField;
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Regrava apenas os campos alterados dentro dos bytes de um save já conhecido.
+ * Só é possível para campos primitivos e wrappers (int, boolean, Integer, ...):
+ * não têm referências Kryo, por isso o resto do stream continua válido mesmo
+ * que o tamanho do campo mude. Qualquer outro caso lança IllegalStateException
+ * com o motivo, e o chamador faz a gravação completa.
+ */
+final class SaveSplicer {
+
+    private static final Objenesis OBJENESIS = new ObjenesisStd();
+
+    private SaveSplicer() {
+    }
+
+    /**
+     * Monta os novos bytes a partir do layout e das modificações.
+     *
+     * @param kryo Kryo de escrita (os campos são recodificados com os mesmos serializers)
+     */
+    static Resultado emendar(SaveLayout layout, Map<Object, Map<String, Object>> modificacoes, Kryo kryo) {
+        List<Emenda> emendas = new ArrayList<>();
+        Output temporario = new Output(64, -1);
+        // Os bytes do ficheiro só são relidos quando há um campo para comparar
+        byte[] antigos = null;
+
+        for (Map.Entry<Object, Map<String, Object>> entry : modificacoes.entrySet()) {
+            Object dono = entry.getKey();
+            int[] limites = layout.getLimites(dono);
+            if (limites == null) {
+                throw new IllegalStateException("objeto " + dono.getClass().getName() + " não está no layout do ficheiro");
+            }
+            Serializer<?> serializer = kryo.getSerializer(dono.getClass());
+            if (!(serializer instanceof FieldSerializer)) {
+                throw new IllegalStateException("classe " + dono.getClass().getName() + " não usa FieldSerializer");
+            }
+            CachedField<?>[] campos = ((FieldSerializer<?>) serializer).getFields();
+            if (campos.length + 1 != limites.length) {
+                throw new IllegalStateException("campos de " + dono.getClass().getName() + " diferentes dos do ficheiro");
+            }
+
+            for (Map.Entry<String, Object> campo : entry.getValue().entrySet()) {
+                int indice = indiceDoCampo(campos, campo.getKey());
+                if (indice < 0) {
+                    // Campo transient: não está no ficheiro, nada a regravar
+                    continue;
+                }
+                Field field = campos[indice].getField();
+                if (!isRegravavel(field.getType())) {
+                    throw new IllegalStateException("campo '" + campo.getKey() + "' do tipo "
+                            + field.getType().getSimpleName() + " não pode ser regravado isoladamente");
+                }
+                int inicio = limites[indice];
+                int fim = limites[indice + 1];
+
+                // Confirmar que os bytes do ficheiro são mesmo o valor original deste campo
+                byte[] original = codificar(campos[indice], sombra(dono, field, campo.getValue()), temporario);
+                if (antigos == null) {
+                    antigos = layout.lerBytes();
+                }
+                if (!igual(antigos, inicio, fim, original)) {
+                    throw new IllegalStateException("os bytes do campo '" + campo.getKey() + "' não correspondem ao valor original");
+                }
+                emendas.add(new Emenda(inicio, fim, codificar(campos[indice], dono, temporario)));
+            }
+        }
+
+        emendas.sort(Comparator.comparingInt(e -> e.inicio));
+        return montar(layout, antigos != null ? antigos : layout.lerBytes(), emendas);
+    }
+
+    private static Resultado montar(SaveLayout layout, byte[] antigos, List<Emenda> emendas) {
+        int delta = 0;
+        for (Emenda emenda : emendas) {
+            delta += emenda.bytes.length - (emenda.fim - emenda.inicio);
+        }
+
+        byte[] novos = new byte[layout.getTamanho() + delta];
+        int[] fins = new int[emendas.size()];
+        int[] deltaAcumulado = new int[emendas.size()];
+        int lido = 0;
+        int escrito = 0;
+        int acumulado = 0;
+        for (int i = 0; i < emendas.size(); i++) {
+            Emenda emenda = emendas.get(i);
+            int trecho = emenda.inicio - lido;
+            System.arraycopy(antigos, lido, novos, escrito, trecho);
+            escrito += trecho;
+            System.arraycopy(emenda.bytes, 0, novos, escrito, emenda.bytes.length);
+            escrito += emenda.bytes.length;
+            lido = emenda.fim;
+
+            acumulado += emenda.bytes.length - (emenda.fim - emenda.inicio);
+            fins[i] = emenda.fim;
+            deltaAcumulado[i] = acumulado;
+        }
+        System.arraycopy(antigos, lido, novos, escrito, layout.getTamanho() - lido);
+        return new Resultado(layout, novos, fins, deltaAcumulado);
+    }
+
+    private static int indiceDoCampo(CachedField<?>[] campos, String nome) {
+        for (int i = 0; i < campos.length; i++) {
+            if (campos[i].getField().getName().equals(nome)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isRegravavel(Class<?> tipo) {
+        return tipo.isPrimitive() || tipo == Integer.class || tipo == Long.class || tipo == Boolean.class
+                || tipo == Double.class || tipo == Float.class || tipo == Short.class || tipo == Byte.class
+                || tipo == Character.class;
+    }
+
+    /**
+     * Objeto vazio da mesma classe com apenas o campo indicado preenchido,
+     * para codificar o valor original sem mexer no objeto real.
+     */
+    private static Object sombra(Object dono, Field field, Object valor) {
+        Object sombra = OBJENESIS.newInstance(dono.getClass());
+        try {
+            field.setAccessible(true);
+            field.set(sombra, valor);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("campo '" + field.getName() + "' inacessível");
+        }
+        return sombra;
+    }
+
+    private static byte[] codificar(CachedField<?> campo, Object objeto, Output output) {
+        output.clear();
+        campo.write(output, objeto);
+        return output.toBytes();
+    }
+
+    private static boolean igual(byte[] bytes, int inicio, int fim, byte[] esperado) {
+        if (fim - inicio != esperado.length) {
+            return false;
+        }
+        for (int i = 0; i < esperado.length; i++) {
+            if (bytes[inicio + i] != esperado[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Emenda {
+        final int inicio;
+        final int fim;
+        final byte[] bytes;
+
+        Emenda(int inicio, int fim, byte[] bytes) {
+            this.inicio = inicio;
+            this.fim = fim;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Bytes emendados. O layout só é atualizado em {@link #confirmar()},
+     * depois de o ficheiro ter sido gravado.
+     */
+    static class Resultado {
+        private final SaveLayout layout;
+        private final byte[] bytes;
+        private final int[] fins;
+        private final int[] deltaAcumulado;
+
+        Resultado(SaveLayout layout, byte[] bytes, int[] fins, int[] deltaAcumulado) {
+            this.layout = layout;
+            this.bytes = bytes;
+            this.fins = fins;
+            this.deltaAcumulado = deltaAcumulado;
+        }
+
+        byte[] getBytes() { return bytes; }
+        int getCamposRegravados() { return fins.length; }
+
+        /**
+         * @param arquivo ficheiro onde os bytes foram gravados
+         */
+        SaveLayout confirmar(Path arquivo) throws IOException {
+            return layout.deslocar(arquivo, fins, deltaAcumulado);
+        }
+    }
+}
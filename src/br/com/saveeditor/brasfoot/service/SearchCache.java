@@ -0,0 +1,264 @@
+package br.com.saveeditor.brasfoot.service;
+
+import br.com.saveeditor.brasfoot.model.NavegacaoState;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Resultados de buscas recentes, por (aba, objeto de partida e rótulo, modo, termo), com
+ * despejo LRU e limite no total de resultados guardados.
+ * Cada entrada lembra a geração de edição em que foi calculada. As edições de
+ * cada aba ficam num diário curto: numa busca de texto repetida depois de edições
+ * a valores simples, só os resultados dos campos editados são refeitos; nos
+ * outros casos (edições que trocam objetos, consultas, diário esgotado) a entrada
+ * é descartada e a busca corre de novo.
+ */
+final class SearchCache {
+
+    enum Modo { GLOBAL, LOCAL, CONSULTA }
+
+    private static final int MAX_ENTRADAS = 64;
+    private static final int MAX_RESULTADOS = 50_000;
+    private static final int MAX_EDICOES = 512;
+
+    private final LinkedHashMap<Chave, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private int totalResultados;
+    private final Map<NavegacaoState, Diario> diarios = new WeakHashMap<>();
+
+    /**
+     * Resultados guardados que servem para o pedido, já atualizados para a geração
+     * atual da aba; null se a busca tem de ser feita.
+     *
+     * @param criterio critério das buscas de texto (null nas consultas)
+     * @param limite   máximo pedido (0 = sem limite)
+     */
+    synchronized List<SearchHit> obter(NavegacaoState estado, Object raiz, String rotulo, Modo modo, String termo,
+                                       TextMatcher criterio, int limite) {
+        Chave chave = new Chave(estado, raiz, rotulo, modo, termo);
+        Entrada entrada = entradas.get(chave);
+        if (entrada == null) {
+            return null;
+        }
+        long geracao = estado.getGeracaoEdicao();
+        if (entrada.geracao != geracao) {
+            int antes = entrada.resultados.size();
+            if (modo == Modo.CONSULTA || criterio == null || !atualizar(entrada, diarios.get(estado), criterio)) {
+                remover(chave);
+                return null;
+            }
+            entrada.geracao = geracao;
+            totalResultados += entrada.resultados.size() - antes;
+        }
+        if (!entrada.completa && (limite <= 0 || limite > entrada.resultados.size())) {
+            return null;
+        }
+        // Cópia: a entrada pode ser atualizada enquanto os resultados são entregues
+        return new ArrayList<>(entrada.resultados);
+    }
+
+    /**
+     * Guarda os resultados de uma busca feita na geração indicada.
+     *
+     * @param completa true se a busca foi até ao fim (não parou num limite)
+     */
+    synchronized void guardar(NavegacaoState estado, Object raiz, String rotulo, Modo modo, String termo, long geracao,
+                              List<SearchHit> resultados, boolean completa) {
+        if (resultados.size() > MAX_RESULTADOS / 4) {
+            return;
+        }
+        Chave chave = new Chave(estado, raiz, rotulo, modo, termo);
+        remover(chave);
+        entradas.put(chave, new Entrada(geracao, new ArrayList<>(resultados), completa));
+        totalResultados += resultados.size();
+
+        Iterator<Map.Entry<Chave, Entrada>> it = entradas.entrySet().iterator();
+        while ((entradas.size() > MAX_ENTRADAS || totalResultados > MAX_RESULTADOS) && it.hasNext()) {
+            Map.Entry<Chave, Entrada> maisAntiga = it.next();
+            totalResultados -= maisAntiga.getValue().resultados.size();
+            it.remove();
+        }
+    }
+
+    /**
+     * Regista uma edição da aba (a geração já incrementada).
+     */
+    synchronized void registrarEdicao(NavegacaoState estado, Object dono, String campo, Object valorNovo) {
+        Diario diario = diarios.computeIfAbsent(estado, k -> new Diario());
+        boolean simples = valorNovo == null || GraphWalker.isValorSimples(valorNovo);
+        diario.edicoes.addLast(new Edicao(estado.getGeracaoEdicao(), dono, campo, simples ? valorNovo : null, simples));
+        if (diario.edicoes.size() > MAX_EDICOES) {
+            diario.perdidasAte = diario.edicoes.removeFirst().geracao;
+        }
+    }
+
+    /**
+     * Esquece tudo o que pertence à aba (ao fechá-la).
+     */
+    synchronized void descartar(NavegacaoState estado) {
+        diarios.remove(estado);
+        Iterator<Map.Entry<Chave, Entrada>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Chave, Entrada> entry = it.next();
+            if (entry.getKey().estado == estado) {
+                totalResultados -= entry.getValue().resultados.size();
+                it.remove();
+            }
+        }
+    }
+
+    private void remover(Chave chave) {
+        Entrada anterior = entradas.remove(chave);
+        if (anterior != null) {
+            totalResultados -= anterior.resultados.size();
+        }
+    }
+
+    /**
+     * Aplica à entrada as edições feitas depois dela.
+     *
+     * @return false se alguma edição não pode ser aplicada só aos resultados
+     */
+    private static boolean atualizar(Entrada entrada, Diario diario, TextMatcher criterio) {
+        if (diario == null || entrada.geracao < diario.perdidasAte) {
+            return false;
+        }
+        for (Edicao edicao : diario.edicoes) {
+            if (edicao.geracao <= entrada.geracao) continue;
+            if (!edicao.simples || !aplicar(entrada.resultados, edicao, criterio)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean aplicar(List<SearchHit> resultados, Edicao edicao, TextMatcher criterio) {
+        String texto = (edicao.valor != null) ? edicao.valor.toString() : null;
+        boolean contem = texto != null && criterio.encontra(texto);
+
+        // A lista inteira: não se parte do princípio de que os resultados do objeto estão juntos
+        int primeiro = -1, ultimo = -1, doDono = 0;
+        for (int i = 0; i < resultados.size(); i++) {
+            if (resultados.get(i).getDono() == edicao.dono) {
+                if (primeiro < 0) primeiro = i;
+                ultimo = i;
+                doDono++;
+            }
+        }
+
+        for (int i = primeiro; i >= 0 && i <= ultimo; i++) {
+            SearchHit hit = resultados.get(i);
+            if (hit.getDono() == edicao.dono && edicao.campo.equals(hit.getCampo())) {
+                if (contem) {
+                    resultados.set(i, new SearchHit(hit.getCaminho(), hit.getDono(), hit.getCampo(), hit.getPosicao(), texto));
+                } else {
+                    resultados.remove(i);
+                }
+                return true;
+            }
+        }
+        if (!contem) {
+            return true;
+        }
+        // Novo resultado: só se o objeto já tem outros, todos seguidos (sabemos o caminho
+        // e, pela ordem dos campos, onde inserir); senão a busca é refeita
+        if (primeiro < 0 || doDono != ultimo - primeiro + 1) {
+            return false;
+        }
+        int ordem = ordemCampo(edicao.dono, edicao.campo);
+        int posicao = ultimo + 1;
+        for (int i = primeiro; i <= ultimo; i++) {
+            if (ordemCampo(edicao.dono, resultados.get(i).getCampo()) > ordem) {
+                posicao = i;
+                break;
+            }
+        }
+        SearchHit vizinho = resultados.get(primeiro);
+        if (vizinho.getCampo() == null || !vizinho.getCaminho().endsWith("." + vizinho.getCampo())) {
+            return false;
+        }
+        String caminhoDono = vizinho.getCaminho().substring(0, vizinho.getCaminho().length() - vizinho.getCampo().length() - 1);
+        resultados.add(posicao, new SearchHit(caminhoDono + "." + edicao.campo, edicao.dono, edicao.campo, -1, texto));
+        return true;
+    }
+
+    private static int ordemCampo(Object dono, String campo) {
+        Field[] campos = GraphWalker.campos(dono.getClass());
+        for (int i = 0; i < campos.length; i++) {
+            if (campos[i].getName().equals(campo)) {
+                return i;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static final class Chave {
+        final NavegacaoState estado;
+        final Object raiz;
+        final String rotulo;
+        final Modo modo;
+        final String termo;
+
+        Chave(NavegacaoState estado, Object raiz, String rotulo, Modo modo, String termo) {
+            this.estado = estado;
+            this.raiz = raiz;
+            this.rotulo = rotulo;
+            this.modo = modo;
+            this.termo = termo;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Chave)) return false;
+            Chave c = (Chave) o;
+            // Estado e objeto de partida por identidade
+            return estado == c.estado && raiz == c.raiz && rotulo.equals(c.rotulo) && modo == c.modo && termo.equals(c.termo);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = System.identityHashCode(estado) * 31 + System.identityHashCode(raiz);
+            return ((h * 31 + rotulo.hashCode()) * 31 + modo.hashCode()) * 31 + termo.hashCode();
+        }
+    }
+
+    private static final class Entrada {
+        long geracao;
+        final List<SearchHit> resultados;
+        final boolean completa;
+
+        Entrada(long geracao, List<SearchHit> resultados, boolean completa) {
+            this.geracao = geracao;
+            this.resultados = resultados;
+            this.completa = completa;
+        }
+    }
+
+    private static final class Diario {
+        final ArrayDeque<Edicao> edicoes = new ArrayDeque<>();
+        // Entradas de gerações anteriores a esta já não têm todas as edições no diário
+        long perdidasAte;
+    }
+
+    private static final class Edicao {
+        final long geracao;
+        final Object dono;
+        final String campo;
+        final Object valor;
+        final boolean simples;
+
+        Edicao(long geracao, Object dono, String campo, Object valor, boolean simples) {
+            this.geracao = geracao;
+            this.dono = dono;
+            this.campo = campo;
+            this.valor = valor;
+            this.simples = simples;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.saveeditor.brasfoot.service;
+
+/**
+ * Um resultado de busca: o valor encontrado, onde está e a quem pertence.
+ */
+public final class SearchHit {
+    private static final int TAMANHO_PREVIA = 80;
+
+    private final String caminho;
+    private final Object dono;
+    private final String campo;
+    private final int posicao;
+    private final String valor;
+
+    SearchHit(String caminho, Object dono, String campo, int posicao, String valor) {
+        this.caminho = caminho;
+        this.dono = dono;
+        this.campo = campo;
+        this.posicao = posicao;
+        this.valor = valor;
+    }
+
+    /** Caminho desde a raiz, por exemplo {@code raiz.aj[3].nd[5].dm}. */
+    public String getCaminho() { return caminho; }
+    /** Objeto (ou lista/array) que contém o valor. */
+    public Object getDono() { return dono; }
+    /** Nome do campo, ou null se o valor é um elemento de lista/array. */
+    public String getCampo() { return campo; }
+    /** Posição na lista/array, ou -1. */
+    public int getPosicao() { return posicao; }
+    public String getValor() { return valor; }
+
+    /**
+     * Valor encurtado para listagens.
+     */
+    public String getPrevia() {
+        if (valor == null) return "null";
+        return valor.length() > TAMANHO_PREVIA ? valor.substring(0, TAMANHO_PREVIA - 3) + "..." : valor;
+    }
+
+    @Override
+    public String toString() {
+        return caminho + " → " + getPrevia();
+    }
+}
@@ -0,0 +1,215 @@
+package br.com.saveeditor.brasfoot.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice invertido dos valores simples do grafo (texto, números, booleanos...),
+ * construído com uma única travessia do {@link GraphWalker}.
+ * Cada valor é indexado pelos trigramas da sua forma em minúsculas (a mesma do
+ * {@link TextMatcher}); uma busca usa o trigrama mais raro de cada termo e confirma
+ * os candidatos com o TextMatcher sobre o valor original, por isso o resultado é o
+ * mesmo de percorrer o save inteiro.
+ * As edições atualizam apenas a entrada do campo alterado (ver {@link #atualizar}).
+ */
+public final class SearchIndex {
+
+    // Travessia que gerou o índice (com os objetos): os caminhos são montados a partir
+    // dela só para os resultados, e serve também de índice de caminhos da aba
+    private final GraphWalker walker;
+    private final PathIndex caminhos;
+    // Intervalo [início, fim) das entradas de cada objeto, pelo id no walker
+    private final IntLista inicioDono = new IntLista();
+    private final IntLista fimDono = new IntLista();
+
+    // Entradas, em colunas: dono, nome do campo (null em listas), posição na lista, valor
+    private final IntLista donoEntrada = new IntLista(1024);
+    private final List<String> campoEntrada = new ArrayList<>();
+    private final IntLista posicaoEntrada = new IntLista(1024);
+    private final List<String> valorEntrada = new ArrayList<>();
+
+    // Trigrama (3 chars num long) → entradas que o contêm
+    private final Map<Long, IntLista> trigramas = new HashMap<>();
+
+    private volatile long geracao;
+
+    private SearchIndex(Object raiz, String rotuloRaiz) {
+        this.walker = new GraphWalker(raiz, rotuloRaiz, true);
+        this.caminhos = new PathIndex(raiz, rotuloRaiz, walker);
+    }
+
+    /**
+     * Percorre o grafo a partir da raiz e indexa todos os valores simples.
+     */
+    static SearchIndex construir(Object raiz, String rotuloRaiz) {
+        SearchIndex indice = new SearchIndex(raiz, rotuloRaiz);
+        indice.walker.percorrer(new GraphWalker.ValueVisitor() {
+            @Override
+            public boolean visitarObjeto(Object objeto, int no) {
+                // Os valores de cada objeto chegam logo a seguir a ele: ficam contíguos
+                indice.inicioDono.definir(no, indice.donoEntrada.tamanho);
+                indice.fimDono.definir(no, indice.donoEntrada.tamanho);
+                return true;
+            }
+
+            @Override
+            public boolean visitarValor(Object dono, String campo, int posicao, Object valor, int no) {
+                indice.adicionarEntrada(no, campo, posicao, valor);
+                indice.fimDono.definir(no, indice.donoEntrada.tamanho);
+                return true;
+            }
+        });
+        return indice;
+    }
+
+    private void adicionarEntrada(int dono, String campo, int posicao, Object valor) {
+        int id = donoEntrada.tamanho;
+        donoEntrada.adicionar(dono);
+        campoEntrada.add(campo);
+        posicaoEntrada.adicionar(posicao);
+        valorEntrada.add(null);
+        definirValor(id, valor);
+    }
+
+    private void definirValor(int id, Object valor) {
+        if (valor == null) {
+            valorEntrada.set(id, null);
+            return;
+        }
+        String original = valor.toString();
+        valorEntrada.set(id, original);
+        // Os termos literais do TextMatcher já vêm nesta forma
+        String texto = TextMatcher.minusculas(original);
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            trigramas.computeIfAbsent(trigrama(texto, i), k -> new IntLista()).adicionarSemRepetir(id);
+        }
+    }
+
+    private static long trigrama(String texto, int i) {
+        return ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+    }
+
+    /**
+     * Todas as ocorrências do termo (sem diferenciar maiúsculas), pela ordem do grafo.
+     */
+    public List<SearchHit> buscar(String termo) {
+        List<SearchHit> resultado = new ArrayList<>();
+        buscar(TextMatcher.compilar(termo), resultado::add);
+        return resultado;
+    }
+
+    /**
+     * Entrega as ocorrências ao listener à medida que são confirmadas, até ele devolver false.
+     * Com termos literais, os candidatos são os do trigrama mais raro de cada termo;
+     * expressões regulares e termos curtos percorrem a coluna dos valores.
+     *
+     * @return número de ocorrências entregues
+     */
+    public synchronized int buscar(TextMatcher criterio, SearchService.SearchHitListener listener) {
+        int[] candidatos = candidatos(criterio.getTermos());
+        int total = (candidatos != null) ? candidatos.length : valorEntrada.size();
+        int entregues = 0;
+        int anterior = -1;
+        for (int i = 0; i < total; i++) {
+            int id = (candidatos != null) ? candidatos[i] : i;
+            // As edições acrescentam ids fora de ordem e podem repeti-los
+            if (id == anterior) continue;
+            anterior = id;
+            String valor = valorEntrada.get(id);
+            if (valor != null && criterio.encontra(valor)) {
+                entregues++;
+                if (!listener.onHit(hit(id))) {
+                    break;
+                }
+            }
+        }
+        return entregues;
+    }
+
+    /**
+     * Ids ordenados que podem conter algum dos termos, ou null se é preciso ver todos
+     * (sem termos literais, ou algum termo curto demais para ter trigrama).
+     */
+    private int[] candidatos(List<String> termos) {
+        if (termos == null) {
+            return null;
+        }
+        List<IntLista> listas = new ArrayList<>(termos.size());
+        int total = 0;
+        for (String t : termos) {
+            if (t.length() < 3) {
+                // Termos curtos não têm trigrama: percorrer as colunas continua a ser barato
+                return null;
+            }
+            IntLista menor = null;
+            for (int i = 0; i + 3 <= t.length(); i++) {
+                IntLista lista = trigramas.get(trigrama(t, i));
+                if (lista == null) {
+                    // Nenhum valor tem este termo
+                    menor = null;
+                    break;
+                }
+                if (menor == null || lista.tamanho < menor.tamanho) {
+                    menor = lista;
+                }
+            }
+            if (menor != null) {
+                listas.add(menor);
+                total += menor.tamanho;
+            }
+        }
+        int[] candidatos = new int[total];
+        int n = 0;
+        for (IntLista lista : listas) {
+            System.arraycopy(lista.dados, 0, candidatos, n, lista.tamanho);
+            n += lista.tamanho;
+        }
+        Arrays.sort(candidatos);
+        return candidatos;
+    }
+
+    private SearchHit hit(int id) {
+        int dono = donoEntrada.get(id);
+        String campo = campoEntrada.get(id);
+        int posicao = posicaoEntrada.get(id);
+        return new SearchHit(walker.caminho(dono, campo, posicao), walker.getObjeto(dono), campo, posicao, valorEntrada.get(id));
+    }
+
+    /**
+     * Reflete no índice a alteração de um campo.
+     *
+     * @return false se o índice deixou de corresponder ao grafo (o campo passou a
+     *         apontar para um objeto) e tem de ser reconstruído
+     */
+    public synchronized boolean atualizar(Object dono, String campo, Object novoValor) {
+        int indice = walker.getNo(dono);
+        if (indice < 0) {
+            // Objeto fora do grafo indexado: nada a atualizar
+            return true;
+        }
+        if (novoValor != null && !GraphWalker.isValorSimples(novoValor)) {
+            return false;
+        }
+        for (int id = inicioDono.get(indice); id < fimDono.get(indice); id++) {
+            if (campo.equals(campoEntrada.get(id))) {
+                definirValor(id, novoValor);
+                return true;
+            }
+        }
+        // Campo que na construção apontava para um objeto
+        return false;
+    }
+
+    /**
+     * Caminhos dos objetos do grafo indexado (partilham a travessia deste índice).
+     */
+    public PathIndex getCaminhos() { return caminhos; }
+
+    public long getGeracao() { return geracao; }
+    public void setGeracao(long geracao) { this.geracao = geracao; }
+    public synchronized int getTotalValores() { return donoEntrada.tamanho; }
+    public synchronized int getTotalObjetos() { return walker.getTotalObjetos(); }
+}
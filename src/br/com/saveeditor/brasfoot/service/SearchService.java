@@ -1,18 +1,45 @@
 package br.com.saveeditor.brasfoot.service;
 
+import br.com.saveeditor.brasfoot.model.NavegacaoState;
 import br.com.saveeditor.brasfoot.util.ReflectionUtils;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Serviço de busca e mapeamento de dados.
  */
 public class SearchService {
+
+    // Caminhos listados por objeto no relatório do mapear (o primeiro mais as outras referências)
+    private static final int MAX_CAMINHOS_PADRAO = 5;
+    private static final int BUFFER_MAPA = 64 * 1024;
+
+    // Índice de busca global de cada aba, reconstruído quando deixa de corresponder ao save
+    private final Map<NavegacaoState, SearchIndex> indices = new WeakHashMap<>();
+    private final Object construcao = new Object();
+    // Jogadores de cada aba em colunas, para as consultas; refeitos quando há edições
+    private final Map<NavegacaoState, PlayerTable> tabelas = new WeakHashMap<>();
+    private final Map<PlayerTable, PlayerNameIndex> nomes = new WeakHashMap<>();
+    // Resultados recentes, atualizados pelas edições registadas em atualizarIndice
+    private final SearchCache cache = new SearchCache();
+    private final ExecutorService indexador = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "SearchIndex-Thread");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
     
     // Helper para Java 8 (String.repeat foi adicionado no Java 11)
     private static String repeat(String str, int count) {
@@ -27,71 +54,442 @@ public class SearchService {
         if (searchTerm == null || searchTerm.isEmpty()) {
             throw new IllegalArgumentException("Especifique o texto a procurar");
         }
+        TextMatcher criterio = TextMatcher.compilar(searchTerm);
         System.out.println("\n🔍 A iniciar busca por '" + searchTerm + "'...");
-        realizarBusca(obj, searchTerm.toLowerCase(), pathLabel, new HashSet<>(), isGlobal);
+        realizarBusca(obj, criterio, pathLabel, isGlobal);
         System.out.println("\n✔ Busca concluída");
     }
 
-    private void realizarBusca(Object obj, String searchTerm, String path, Set<Object> visited, boolean isGlobal) {
-        if (obj == null || visited.contains(obj) || obj.getClass().isPrimitive()) return;
+    /**
+     * Busca global em todo o save. Usa o índice da aba se estiver em dia; senão
+     * faz a busca em paralelo sobre o grafo enquanto o índice é (re)construído.
+     * Os dois seguem a travessia do {@link GraphWalker}: os resultados, entregues ao
+     * listener à medida que são encontrados, têm a mesma ordem e os mesmos caminhos.
+     * O termo segue a sintaxe do {@link TextMatcher} (texto, 'a|b|c' ou 're:expressão').
+     *
+     * @param limite    máximo de resultados (0 = sem limite)
+     * @param cancelado quando passa a true a busca termina (a busca em paralelo com CancellationException)
+     * @return número de resultados entregues
+     */
+    public int buscarGlobal(NavegacaoState estado, String searchTerm, int limite, AtomicBoolean cancelado,
+                            SearchHitListener listener) {
+        if (searchTerm == null || searchTerm.isEmpty()) {
+            throw new IllegalArgumentException("Especifique o texto a procurar");
+        }
+        TextMatcher criterio = TextMatcher.compilar(searchTerm);
+        return comCache(estado, estado.getObjetoRaiz(), "raiz", SearchCache.Modo.GLOBAL, criterio.toString(), criterio,
+                limite, cancelado, listener, destino -> {
+                    SearchIndex indice = indiceAtual(estado);
+                    if (indice != null) {
+                        return indice.buscar(criterio, destino);
+                    }
+                    indexarEmSegundoPlano(estado);
+                    return ParallelSearch.buscar(estado.getObjetoRaiz(), "raiz", criterio, cancelado, destino);
+                });
+    }
 
-        if (obj.getClass().getName().startsWith("java.lang") && !(obj instanceof Collection)) {
-            if (obj.toString().toLowerCase().contains(searchTerm)) {
-                System.out.println("  ✓ " + path + " → " + formatValue(obj));
+    /**
+     * Busca o termo nos valores simples a partir de um objeto da aba, pela ordem do grafo.
+     *
+     * @param limite máximo de resultados (0 = sem limite)
+     * @return número de resultados entregues
+     */
+    public int buscarEm(NavegacaoState estado, Object obj, String pathLabel, String searchTerm, int limite,
+                        AtomicBoolean cancelado, SearchHitListener listener) {
+        if (searchTerm == null || searchTerm.isEmpty()) {
+            throw new IllegalArgumentException("Especifique o texto a procurar");
+        }
+        if (obj == null) {
+            return 0;
+        }
+        TextMatcher criterio = TextMatcher.compilar(searchTerm);
+        return comCache(estado, obj, pathLabel, SearchCache.Modo.LOCAL, criterio.toString(), criterio, limite, cancelado,
+                listener, destino -> percorrerValores(obj, pathLabel, criterio, destino));
+    }
+
+    private int percorrerValores(Object obj, String pathLabel, TextMatcher criterio, SearchHitListener destino) {
+        if (GraphWalker.isValorSimples(obj)) {
+            String texto = obj.toString();
+            if (criterio.encontra(texto)) {
+                destino.onHit(new SearchHit(pathLabel, null, null, -1, texto));
+                return 1;
             }
-            return;
+            return 0;
+        }
+
+        int[] entregues = { 0 };
+        GraphWalker walker = new GraphWalker(obj, pathLabel);
+        walker.percorrer(new GraphWalker.ValueVisitor() {
+            @Override
+            public boolean visitarObjeto(Object objeto, int no) {
+                return true;
+            }
+
+            @Override
+            public boolean visitarValor(Object dono, String campo, int posicao, Object valor, int no) {
+                if (valor == null) {
+                    return true;
+                }
+                String texto = valor.toString();
+                if (!criterio.encontra(texto)) {
+                    return true;
+                }
+                entregues[0]++;
+                return destino.onHit(new SearchHit(walker.caminho(no, campo, posicao), dono, campo, posicao, texto));
+            }
+        });
+        return entregues[0];
+    }
+
+    /**
+     * Busca o termo em todos os valores simples do grafo, usando todos os núcleos.
+     * Os resultados vêm pela ordem da travessia do {@link GraphWalker}, a mesma do índice.
+     */
+    public List<SearchHit> buscarParalelo(Object raiz, String searchTerm, AtomicBoolean cancelado) {
+        List<SearchHit> resultado = new ArrayList<>();
+        ParallelSearch.buscar(raiz, "raiz", TextMatcher.compilar(searchTerm), cancelado, resultado::add);
+        return resultado;
+    }
+
+    /**
+     * Executa uma consulta sobre os jogadores (ver {@link PlayerQuery}) e entrega
+     * cada jogador encontrado, pela ordem do grafo. O valor de cada resultado
+     * resume o jogador: nome, time e os atributos usados na consulta.
+     *
+     * @param limite máximo de resultados (0 = sem limite)
+     * @return número de resultados entregues
+     * @throws IllegalArgumentException se a consulta é inválida
+     */
+    public int consultarJogadores(NavegacaoState estado, String consulta, int limite, AtomicBoolean cancelado,
+                                  SearchHitListener listener) {
+        PlayerQuery query = PlayerQuery.compilar(consulta);
+        return comCache(estado, estado.getObjetoRaiz(), "raiz", SearchCache.Modo.CONSULTA, query.toString(), null,
+                limite, cancelado, listener, destino -> executarConsulta(estado, query, destino));
+    }
+
+    private int executarConsulta(NavegacaoState estado, PlayerQuery query, SearchHitListener destino) {
+        PlayerTable tabela = obterTabelaJogadores(estado);
+        BitSet linhas = query.executar(tabela);
+
+        List<String> mostrar = new ArrayList<>();
+        mostrar.add("dm");
+        if (tabela.getTotalTimes() > 0) {
+            mostrar.add(PlayerTable.ATRIBUTO_TIME);
+        }
+        for (String atributo : query.getAtributos()) {
+            if (!mostrar.contains(atributo)) {
+                mostrar.add(atributo);
+            }
+        }
+
+        int entregues = 0;
+        for (int linha = linhas.nextSetBit(0); linha >= 0; linha = linhas.nextSetBit(linha + 1)) {
+            StringBuilder resumo = new StringBuilder(tabela.getTexto(linha, "dm"));
+            for (int i = 1; i < mostrar.size(); i++) {
+                resumo.append(" · ").append(mostrar.get(i)).append('=').append(tabela.getTexto(linha, mostrar.get(i)));
+            }
+            entregues++;
+            if (!destino.onHit(new SearchHit(tabela.getCaminho(linha), tabela.getJogador(linha), null, -1, resumo.toString()))) {
+                break;
+            }
+        }
+        return entregues;
+    }
+
+    /**
+     * Jogadores da aba em colunas; refeitos se houve edições desde a última consulta.
+     */
+    public PlayerTable obterTabelaJogadores(NavegacaoState estado) {
+        synchronized (tabelas) {
+            PlayerTable tabela = tabelas.get(estado);
+            if (tabela != null && tabela.getGeracao() == estado.getGeracaoEdicao()) {
+                return tabela;
+            }
+            long geracao = estado.getGeracaoEdicao();
+            long inicio = System.nanoTime();
+            tabela = PlayerTable.construir(estado.getObjetoRaiz());
+            tabela.setGeracao(geracao);
+            System.out.println("✔ Tabela de jogadores: " + tabela.getTotal() + " jogadores em " + tabela.getTotalTimes()
+                    + " times (" + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) + " ms)");
+            tabelas.put(estado, tabela);
+            return tabela;
+        }
+    }
+
+    /**
+     * Índice dos nomes dos jogadores da aba, para a busca enquanto se escreve.
+     * Acompanha a tabela de jogadores: é refeito quando ela é.
+     */
+    public PlayerNameIndex obterIndiceNomes(NavegacaoState estado) {
+        PlayerTable tabela = obterTabelaJogadores(estado);
+        synchronized (nomes) {
+            PlayerNameIndex indice = nomes.get(tabela);
+            if (indice == null) {
+                long inicio = System.nanoTime();
+                indice = PlayerNameIndex.construir(tabela);
+                System.out.println("✔ Índice de nomes: " + indice.getTotalNomes() + " jogadores ("
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) + " ms)");
+                nomes.put(tabela, indice);
+            }
+            return indice;
+        }
+    }
+
+    /**
+     * Entrega os resultados guardados se ainda servem; senão faz a busca e guarda-os.
+     */
+    private int comCache(NavegacaoState estado, Object raiz, String rotulo, SearchCache.Modo modo, String termo,
+                         TextMatcher criterio, int limite, AtomicBoolean cancelado, SearchHitListener listener,
+                         Busca busca) {
+        SearchHitListener destino = limitar(listener, limite, cancelado);
+        List<SearchHit> guardados = cache.obter(estado, raiz, rotulo, modo, termo, criterio, limite);
+        if (guardados != null) {
+            int entregues = 0;
+            for (SearchHit hit : guardados) {
+                entregues++;
+                if (!destino.onHit(hit)) {
+                    break;
+                }
+            }
+            return entregues;
+        }
+
+        long geracao = estado.getGeracaoEdicao();
+        List<SearchHit> recolhidos = new ArrayList<>();
+        boolean[] interrompida = { false };
+        int entregues = busca.executar(hit -> {
+            recolhidos.add(hit);
+            if (destino.onHit(hit)) {
+                return true;
+            }
+            interrompida[0] = true;
+            return false;
+        });
+        if (!cancelado.get()) {
+            cache.guardar(estado, raiz, rotulo, modo, termo, geracao, recolhidos, !interrompida[0]);
         }
+        return entregues;
+    }
 
-        visited.add(obj);
+    private interface Busca {
+        int executar(SearchHitListener destino);
+    }
+
+    /**
+     * Pára a entrega no limite de resultados ou quando a busca é cancelada.
+     */
+    private static SearchHitListener limitar(SearchHitListener listener, int limite, AtomicBoolean cancelado) {
+        int[] entregues = { 0 };
+        return hit -> {
+            entregues[0]++;
+            return listener.onHit(hit) && (limite <= 0 || entregues[0] < limite) && !cancelado.get();
+        };
+    }
+
+    /**
+     * Índice da aba se já existe e acompanha todas as edições, senão null.
+     */
+    private SearchIndex indiceAtual(NavegacaoState estado) {
+        SearchIndex indice;
+        synchronized (indices) {
+            indice = indices.get(estado);
+        }
+        return (indice != null && indice.getGeracao() == estado.getGeracaoEdicao()) ? indice : null;
+    }
+
+    /**
+     * Constrói os índices da aba (texto e nomes dos jogadores) em segundo plano,
+     * para a primeira busca já os encontrar prontos.
+     */
+    public void indexarEmSegundoPlano(NavegacaoState estado) {
+        indexador.execute(() -> {
+            obterIndice(estado);
+            obterIndiceNomes(estado);
+        });
+    }
+
+    /**
+     * Índice atual da aba; reconstrói-o se houve edições que ele não acompanhou.
+     */
+    public SearchIndex obterIndice(NavegacaoState estado) {
+        synchronized (construcao) {
+            SearchIndex indice;
+            synchronized (indices) {
+                indice = indices.get(estado);
+            }
+            if (indice != null && indice.getGeracao() == estado.getGeracaoEdicao()) {
+                return indice;
+            }
+            long geracao = estado.getGeracaoEdicao();
+            long inicio = System.nanoTime();
+            indice = SearchIndex.construir(estado.getObjetoRaiz(), "raiz");
+            indice.setGeracao(geracao);
+            System.out.println("✔ Índice de busca: " + indice.getTotalValores() + " valores em "
+                    + indice.getTotalObjetos() + " objetos (" + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) + " ms)");
+            synchronized (indices) {
+                indices.put(estado, indice);
+            }
+            return indice;
+        }
+    }
+
+    /**
+     * Índice de caminhos da aba (o mesmo grafo do índice de busca, construído se preciso).
+     */
+    public PathIndex obterIndiceCaminhos(NavegacaoState estado) {
+        return obterIndice(estado).getCaminhos();
+    }
+
+    /**
+     * Caminho do objeto se o índice da aba já está pronto, senão null. Não bloqueia:
+     * serve para a interface (breadcrumb) enquanto o índice é construído.
+     */
+    public String caminhoIndexado(NavegacaoState estado, Object objeto) {
+        SearchIndex indice = indiceAtual(estado);
+        return (indice != null) ? indice.getCaminhos().caminho(objeto) : null;
+    }
+
+    /**
+     * Caminho do objeto atual da aba sem bloquear: o do índice se já está pronto,
+     * senão o da trilha de navegação (procurando cada passo no objeto anterior), e
+     * o índice continua a ser construído em segundo plano. Null se algum passo da
+     * trilha já não está no objeto anterior.
+     */
+    public String caminhoAtual(NavegacaoState estado) {
+        String indexado = caminhoIndexado(estado, estado.getObjetoAtual());
+        if (indexado != null) {
+            return indexado;
+        }
+        indexarEmSegundoPlano(estado);
+        StringBuilder sb = new StringBuilder("raiz");
+        Object anterior = null;
+        for (Object obj : estado.getTrilhaNavegacao()) {
+            if (anterior != null && !anexarPasso(sb, anterior, obj)) {
+                return null;
+            }
+            anterior = obj;
+        }
+        return sb.toString();
+    }
 
-        if (obj instanceof Collection) {
-            Collection<?> coll = (Collection<?>) obj;
+    private static boolean anexarPasso(StringBuilder sb, Object dono, Object filho) {
+        if (dono instanceof Collection) {
             int i = 0;
-            for (Object item : coll) {
-                if (isGlobal && item != null && contem(item, searchTerm)) {
-                    // Em busca global, mostrar apenas o índice se o item contém o termo
-                    System.out.println("  ✓ " + path + "[" + i + "]");
+            for (Object item : (Collection<?>) dono) {
+                if (item == filho) {
+                    sb.append('[').append(i).append(']');
+                    return true;
                 }
-                realizarBusca(item, searchTerm, path + "[" + i + "]", visited, isGlobal);
                 i++;
             }
-        } else if (obj.getClass().isArray()) {
-            int len = Array.getLength(obj);
-            for (int i = 0; i < len; i++) {
-                Object item = Array.get(obj, i);
-                if (isGlobal && item != null && contem(item, searchTerm)) {
-                    // Em busca global, mostrar apenas o índice se o item contém o termo
-                    System.out.println("  ✓ " + path + "[" + i + "]");
+            return false;
+        }
+        if (dono.getClass().isArray()) {
+            for (int i = 0; i < Array.getLength(dono); i++) {
+                if (Array.get(dono, i) == filho) {
+                    sb.append('[').append(i).append(']');
+                    return true;
                 }
-                realizarBusca(item, searchTerm, path + "[" + i + "]", visited, isGlobal);
             }
-        } else {
-            for (Field field : obj.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
-                try {
-                    Object fieldValue = field.get(obj);
-                    if (fieldValue != null) {
-                        if (fieldValue.toString().toLowerCase().contains(searchTerm)) {
-                            System.out.println("  ✓ " + path + "." + field.getName() + " → " + formatValue(fieldValue));
-                        }
-                        if (ReflectionUtils.isComplexObject(fieldValue)) {
-                            realizarBusca(fieldValue, searchTerm, path + "." + field.getName(), visited, isGlobal);
-                        }
-                    }
-                } catch (Exception e) { /* Ignora */ }
+            return false;
+        }
+        for (Field field : GraphWalker.campos(dono.getClass())) {
+            try {
+                if (field.get(dono) == filho) {
+                    sb.append('.').append(field.getName());
+                    return true;
+                }
+            } catch (IllegalAccessException e) { /* Ignora */ }
+        }
+        return false;
+    }
+
+    /**
+     * Objetos a percorrer para abrir um caminho no editor: da raiz até ao último
+     * objeto do caminho que se pode abrir (um valor simples abre o objeto que o contém).
+     *
+     * @throws IllegalArgumentException se o caminho não existe no save
+     */
+    public List<Object> cadeiaParaNavegar(NavegacaoState estado, String caminho) {
+        List<Object> cadeia = obterIndiceCaminhos(estado).resolver(caminho);
+        int fim = cadeia.size();
+        while (fim > 1 && (cadeia.get(fim - 1) == null || GraphWalker.isValorSimples(cadeia.get(fim - 1)))) {
+            fim--;
+        }
+        return new ArrayList<>(cadeia.subList(0, fim));
+    }
+
+    /**
+     * Aplica uma edição ao índice da aba, se ele estava em dia até à edição anterior.
+     * Caso contrário fica desatualizado e é reconstruído na próxima busca.
+     * A edição fica também registada para atualizar os resultados guardados.
+     *
+     * @param geracaoAnterior geração de edição do estado antes desta alteração
+     */
+    public void atualizarIndice(NavegacaoState estado, Object dono, String campo, Object valorNovo, long geracaoAnterior) {
+        cache.registrarEdicao(estado, dono, campo, valorNovo);
+        SearchIndex indice;
+        synchronized (indices) {
+            indice = indices.get(estado);
+        }
+        if (indice != null && indice.getGeracao() == geracaoAnterior && indice.atualizar(dono, campo, valorNovo)) {
+            indice.setGeracao(estado.getGeracaoEdicao());
+        }
+    }
+
+    /**
+     * Liberta os índices e resultados guardados de uma aba fechada.
+     */
+    public void descartar(NavegacaoState estado) {
+        cache.descartar(estado);
+        synchronized (indices) {
+            indices.remove(estado);
+        }
+        synchronized (tabelas) {
+            tabelas.remove(estado);
+        }
+    }
+
+    private void realizarBusca(Object obj, TextMatcher criterio, String path, boolean isGlobal) {
+        if (obj == null) return;
+
+        if (GraphWalker.isValorSimples(obj)) {
+            if (criterio.encontra(obj.toString())) {
+                System.out.println("  ✓ " + path + " → " + formatValue(obj));
             }
+            return;
         }
+
+        GraphWalker walker = new GraphWalker(obj, path);
+        walker.percorrer(new GraphWalker.ValueVisitor() {
+            @Override
+            public boolean visitarObjeto(Object objeto, int no) {
+                if (isGlobal && walker.isElemento(no) && contem(objeto, criterio)) {
+                    // Em busca global, mostrar apenas o índice se o item contém o termo
+                    System.out.println("  ✓ " + walker.caminho(no));
+                }
+                return true;
+            }
+
+            @Override
+            public boolean visitarValor(Object dono, String campo, int posicao, Object valor, int no) {
+                if (valor != null && criterio.encontra(valor.toString())) {
+                    System.out.println("  ✓ " + walker.caminho(no, campo, posicao) + " → " + formatValue(valor));
+                }
+                return true;
+            }
+        });
     }
     
     /**
      * Verifica se um objeto contém o termo de busca (recursivamente, mas superficial).
      */
-    private boolean contem(Object obj, String searchTerm) {
+    private boolean contem(Object obj, TextMatcher criterio) {
         if (obj == null) return false;
         
         // Verificar o toString do objeto
         try {
-            if (obj.toString().toLowerCase().contains(searchTerm)) {
+            if (criterio.encontra(obj.toString())) {
                 return true;
             }
         } catch (Exception e) {
@@ -100,12 +498,10 @@ public class SearchService {
         
         // Se for um objeto complexo, verificar seus campos (apenas nível 1)
         if (ReflectionUtils.isComplexObject(obj)) {
-            for (Field field : obj.getClass().getDeclaredFields()) {
-                if (field.isSynthetic()) continue;
-                field.setAccessible(true);
+            for (Field field : GraphWalker.campos(obj.getClass())) {
                 try {
                     Object value = field.get(obj);
-                    if (value != null && value.toString().toLowerCase().contains(searchTerm)) {
+                    if (value != null && criterio.encontra(value.toString())) {
                         return true;
                     }
                 } catch (Exception e) {
@@ -124,111 +520,239 @@ public class SearchService {
     }
 
     public void mapearComBusca(Object objetoRaiz, String arg) {
-        String[] args = arg.split(";", 2);
+        String[] args = arg.split(";", 3);
         if (args.length < 2) {
-            throw new IllegalArgumentException("Sintaxe: <arquivo.txt>; <termo>");
+            throw new IllegalArgumentException("Sintaxe: <arquivo.txt>; <termo>[; <máx. caminhos por objeto>]");
         }
         String nomeArquivo = args[0].trim();
-        String termoBusca = args[1].trim().toLowerCase();
+        // Sem passar a minúsculas: uma expressão regular (re:) pode depender delas
+        String termoBusca = args[1].trim();
+        int maxCaminhos = MAX_CAMINHOS_PADRAO;
+        if (args.length == 3) {
+            try {
+                maxCaminhos = Integer.parseInt(args[2].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("O máximo de caminhos deve ser um número");
+            }
+        }
 
         if (!nomeArquivo.toLowerCase().endsWith(".txt")) {
             nomeArquivo += ".txt";
         }
+        mapear(objetoRaiz, termoBusca, nomeArquivo, maxCaminhos);
+    }
 
-        System.out.println("\n🔍 A procurar por '" + termoBusca + "' para mapear...");
-
-        try (FileWriter fileWriter = new FileWriter(nomeArquivo);
-             PrintWriter writer = new PrintWriter(fileWriter)) {
-
-            int[] contador = {0};
-            mapearRecursivo(writer, objetoRaiz, termoBusca, "raiz", new IdentityHashMap<>(), contador);
+    /**
+     * Escreve no ficheiro cada objeto ou valor que contém o termo (um texto, vários
+     * separados por '|' ou uma expressão regular com 're:', ver {@link TextMatcher}).
+     * Cada objeto é percorrido uma única vez e cada ocorrência é escrita assim que é
+     * encontrada, sem ficar em memória. Os outros caminhos que chegam aos objetos
+     * encontrados (até {@code maxCaminhos} por objeto) só se conhecem no fim da
+     * travessia e são listados numa secção final.
+     */
+    public void mapear(Object objetoRaiz, String termo, String nomeArquivo, int maxCaminhos) {
+        System.out.println("\n🔍 A procurar por '" + termo + "' para mapear...");
+        long inicio = System.nanoTime();
+        TextMatcher criterio = TextMatcher.compilar(termo);
+        int limite = Math.max(1, maxCaminhos);
 
-            if (contador[0] > 0) {
-                System.out.println("✔ " + contador[0] + " ocorrências mapeadas em '" + nomeArquivo + "'");
-            } else {
-                System.out.println("⚠ Nenhuma ocorrência encontrada");
+        GraphWalker walker = new GraphWalker(objetoRaiz, "raiz");
+        int total;
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(nomeArquivo), StandardCharsets.UTF_8), BUFFER_MAPA))) {
+            MapaDoGrafo mapa = new MapaDoGrafo(walker, criterio, limite, writer);
+            walker.percorrer(mapa);
+            mapa.escreverOutrosCaminhos();
+            total = mapa.total;
+            if (writer.checkError()) {
+                throw new IOException("falha ao escrever em '" + nomeArquivo + "'");
             }
-
         } catch (IOException e) {
             throw new RuntimeException("Erro ao criar ficheiro: " + e.getMessage(), e);
         }
+
+        if (total > 0) {
+            System.out.println("✔ " + total + " ocorrências mapeadas em '" + nomeArquivo + "' ("
+                    + walker.getTotalObjetos() + " objetos, " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) + " ms)");
+        } else {
+            System.out.println("⚠ Nenhuma ocorrência encontrada");
+        }
+    }
+
+    /**
+     * Texto de um campo no relatório. Coleções e arrays são resumidos: o toString
+     * de uma lista de jogadores escreveria a lista inteira em cada objeto.
+     */
+    private static String resumo(Object valor) {
+        if (valor instanceof Collection) {
+            return valor.getClass().getSimpleName() + "[" + ((Collection<?>) valor).size() + "]";
+        }
+        if (valor.getClass().isArray()) {
+            return valor.getClass().getComponentType().getSimpleName() + "[" + Array.getLength(valor) + "]";
+        }
+        return valor.toString();
     }
 
-    private void mapearRecursivo(PrintWriter writer, Object obj, String termo, String path, Map<Object, String> visitados, int[] contador) {
-        if (obj == null || visitados.containsKey(obj)) return;
+    /**
+     * Escreve, numa única travessia, os objetos e valores que contêm o termo e
+     * guarda as referências extra aos objetos encontrados.
+     */
+    private static class MapaDoGrafo implements GraphWalker.ValueVisitor, GraphWalker.ReferenceVisitor {
+        private static final String SEPARADOR = repeat("=", 80);
 
-        if (!ReflectionUtils.isComplexObject(obj)) {
-            if (obj.toString().toLowerCase().contains(termo)) {
-                writer.println(repeat("=", 80));
-                writer.println("TERMO ENCONTRADO");
-                writer.println("  [CAMINHO]: " + path);
-                writer.println("  [VALOR]: " + obj);
-                writer.println(repeat("=", 80) + "\n");
-                contador[0]++;
-            }
-            return;
+        private final GraphWalker walker;
+        private final TextMatcher criterio;
+        private final int maxCaminhos;
+        private final PrintWriter writer;
+        int total;
+
+        // Objetos encontrados: id no walker → índice do objeto nas listas abaixo
+        private final Map<Integer, Integer> objetosEncontrados = new HashMap<>();
+        private final IntLista nosEncontrados = new IntLista();
+        private final IntLista referenciasPorObjeto = new IntLista();
+        // Referências extra, até maxCaminhos - 1 por objeto, encadeadas por objeto:
+        // primeira[objeto] e proxima[ref] guardam o índice da referência + 1 (0 = fim)
+        private final IntLista primeira = new IntLista();
+        private final IntLista referenciasDono = new IntLista();
+        private final IntLista referenciasPosicao = new IntLista();
+        private final List<String> referenciasCampo = new ArrayList<>();
+        private final IntLista proxima = new IntLista();
+
+        private int noAtual = -1;
+
+        MapaDoGrafo(GraphWalker walker, TextMatcher criterio, int maxCaminhos, PrintWriter writer) {
+            this.walker = walker;
+            this.criterio = criterio;
+            this.maxCaminhos = maxCaminhos;
+            this.writer = writer;
         }
 
-        visitados.put(obj, path);
+        @Override
+        public boolean visitarObjeto(Object objeto, int no) {
+            noAtual = -1;
+            // Só os objetos do jogo: o toString de uma coleção é o conteúdo inteiro
+            if (!(objeto instanceof Collection) && !objeto.getClass().isArray()) {
+                try {
+                    if (criterio.encontra(objeto.toString())) {
+                        marcar(objeto, no);
+                    }
+                } catch (Exception e) { /* Ignora */ }
+            }
+            return true;
+        }
 
-        boolean objetoContemTermo = false;
-        try {
-            if (obj.toString().toLowerCase().contains(termo)) {
-                objetoContemTermo = true;
+        @Override
+        public boolean visitarValor(Object dono, String campo, int posicao, Object valor, int no) {
+            if (valor == null || !criterio.encontra(valor.toString())) {
+                return true;
+            }
+            if (campo == null) {
+                escreverValor(no, posicao, valor.toString());
+            } else if (noAtual != no) {
+                marcar(dono, no);
             }
-        } catch (Exception e) { /* Ignora */ }
+            return true;
+        }
 
-        List<Field> camposComTermo = new ArrayList<>();
-        for (Field field : obj.getClass().getDeclaredFields()) {
-            if (field.isSynthetic()) continue;
-            field.setAccessible(true);
-            try {
-                Object fieldValue = field.get(obj);
-                if (fieldValue != null && fieldValue.toString().toLowerCase().contains(termo)) {
-                    camposComTermo.add(field);
-                }
-            } catch (Exception e) { /* Ignora */}
+        private void marcar(Object objeto, int no) {
+            noAtual = no;
+            objetosEncontrados.put(no, nosEncontrados.tamanho);
+            nosEncontrados.adicionar(no);
+            referenciasPorObjeto.adicionar(0);
+            primeira.adicionar(0);
+            escreverObjeto(objeto, no);
         }
 
-        if (objetoContemTermo || !camposComTermo.isEmpty()) {
-            writer.println(repeat("=", 80));
+        private void escreverValor(int no, int posicao, String valor) {
+            total++;
+            writer.println(SEPARADOR);
+            writer.println("TERMO ENCONTRADO");
+            writer.println("  [CAMINHO]: " + walker.caminho(no, null, posicao));
+            writer.println("  [VALOR]: " + valor);
+            writer.println(SEPARADOR + "\n");
+        }
+
+        private void escreverObjeto(Object obj, int no) {
+            total++;
+            writer.println(SEPARADOR);
             writer.println("OBJETO ENCONTRADO");
-            writer.println("  [CAMINHO]: " + path);
+            writer.println("  [CAMINHO]: " + walker.caminho(no));
             writer.println("  [CLASSE]: " + obj.getClass().getName());
             writer.println("--- CAMPOS ---");
-            for (Field field : obj.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
+            for (Field field : GraphWalker.campos(obj.getClass())) {
                 try {
                     Object fieldValue = field.get(obj);
-                    String valorStr = (fieldValue == null) ? "null" : fieldValue.toString();
+                    String valorStr = (fieldValue == null) ? "null" : resumo(fieldValue);
                     if (valorStr.length() > 150) valorStr = valorStr.substring(0, 147) + "...";
                     writer.printf("  > %-25s: %s\n", field.getName(), valorStr);
                 } catch (Exception e) {
                     writer.printf("  > %-25s: [Erro]\n", field.getName());
                 }
             }
-            writer.println(repeat("=", 80) + "\n");
-            contador[0]++;
+            writer.println(SEPARADOR + "\n");
         }
 
-        if (obj instanceof Collection) {
-            int i = 0;
-            for (Object item : (Collection<?>) obj) {
-                mapearRecursivo(writer, item, termo, path + "[" + i++ + "]", visitados, contador);
+        @Override
+        public boolean visitarReferencia(int noAlvo, int no, String campo, int posicao) {
+            // O alvo já foi visitado: só interessam as referências aos objetos encontrados
+            Integer objeto = objetosEncontrados.get(noAlvo);
+            if (objeto == null) {
+                return true;
             }
-        } else if (obj.getClass().isArray()) {
-            for (int i = 0; i < Array.getLength(obj); i++) {
-                mapearRecursivo(writer, Array.get(obj, i), termo, path + "[" + i + "]", visitados, contador);
+            int registadas = referenciasPorObjeto.get(objeto);
+            referenciasPorObjeto.definir(objeto, registadas + 1);
+            if (registadas < maxCaminhos - 1) {
+                referenciasDono.adicionar(no);
+                referenciasPosicao.adicionar(posicao);
+                referenciasCampo.add(campo);
+                proxima.adicionar(primeira.get(objeto));
+                primeira.definir(objeto, referenciasDono.tamanho);
             }
-        } else {
-            for (Field field : obj.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
-                try {
-                    Object fieldValue = field.get(obj);
-                    mapearRecursivo(writer, fieldValue, termo, path + "." + field.getName(), visitados, contador);
-                } catch (Exception e) { /* Ignora */ }
+            return true;
+        }
+
+        /**
+         * Secção final: os objetos encontrados que também são alcançados por outros caminhos.
+         */
+        void escreverOutrosCaminhos() {
+            boolean cabecalho = false;
+            for (int objeto = 0; objeto < nosEncontrados.tamanho; objeto++) {
+                int totalReferencias = referenciasPorObjeto.get(objeto);
+                if (totalReferencias == 0) {
+                    continue;
+                }
+                if (!cabecalho) {
+                    writer.println(SEPARADOR);
+                    writer.println("OUTROS CAMINHOS DOS OBJETOS ENCONTRADOS");
+                    writer.println(SEPARADOR);
+                    cabecalho = true;
+                }
+                int listados = Math.min(totalReferencias, maxCaminhos - 1);
+                writer.println("  [CAMINHO]: " + walker.caminho(nosEncontrados.get(objeto)));
+                writer.println("  [OUTROS CAMINHOS]: " + totalReferencias
+                        + (totalReferencias > listados ? " (" + (totalReferencias - listados) + " omitidos)" : ""));
+                // A cadeia está da última para a primeira referência
+                int[] cadeia = new int[listados];
+                int n = 0;
+                for (int ref = primeira.get(objeto); ref != 0; ref = proxima.get(ref - 1)) {
+                    cadeia[n++] = ref - 1;
+                }
+                for (int i = n - 1; i >= 0; i--) {
+                    int ref = cadeia[i];
+                    writer.println("    " + walker.caminho(referenciasDono.get(ref), referenciasCampo.get(ref), referenciasPosicao.get(ref)));
+                }
+                writer.println();
             }
         }
-        visitados.remove(obj);
     }
-}
\ No newline at end of file
+
+    /**
+     * Recebe os resultados de uma busca à medida que são encontrados, na thread da busca.
+     */
+    public interface SearchHitListener {
+        /**
+         * @return false para terminar a busca
+         */
+        boolean onHit(SearchHit hit);
+    }
+}
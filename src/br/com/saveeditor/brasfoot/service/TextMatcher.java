@@ -0,0 +1,296 @@
+package br.com.saveeditor.brasfoot.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Critério de uma busca de texto, compilado uma vez e depois aplicado a cada valor,
+ * sem diferenciar maiúsculas de minúsculas e sem criar Strings por comparação:
+ * <ul>
+ *   <li>{@code re:<expressão>} — expressão regular, com o Pattern compilado uma vez;</li>
+ *   <li>{@code termo1|termo2|...} — qualquer dos termos, numa só passagem pelo texto (Aho–Corasick);</li>
+ *   <li>qualquer outro texto — contém o termo.</li>
+ * </ul>
+ * As instâncias são imutáveis e podem ser usadas por várias threads.
+ */
+public abstract class TextMatcher {
+
+    static final String PREFIXO_REGEX = "re:";
+    static final char SEPARADOR_TERMOS = '|';
+
+    private TextMatcher() {
+    }
+
+    /**
+     * @throws IllegalArgumentException se o termo está vazio ou a expressão regular é inválida
+     */
+    public static TextMatcher compilar(String termo) {
+        if (termo == null || termo.isEmpty()) {
+            throw new IllegalArgumentException("Especifique o texto a procurar");
+        }
+        if (termo.startsWith(PREFIXO_REGEX)) {
+            String expressao = termo.substring(PREFIXO_REGEX.length());
+            if (expressao.isEmpty()) {
+                throw new IllegalArgumentException("Especifique a expressão regular depois de '" + PREFIXO_REGEX + "'");
+            }
+            try {
+                return new Regex(Pattern.compile(expressao, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Expressão regular inválida: " + e.getDescription()
+                        + " (posição " + e.getIndex() + ")");
+            }
+        }
+        if (termo.indexOf(SEPARADOR_TERMOS) >= 0) {
+            List<String> termos = new ArrayList<>();
+            for (String parte : termo.split(Pattern.quote(String.valueOf(SEPARADOR_TERMOS)))) {
+                String normalizado = minusculas(parte.trim());
+                if (!normalizado.isEmpty() && !termos.contains(normalizado)) {
+                    termos.add(normalizado);
+                }
+            }
+            if (termos.isEmpty()) {
+                throw new IllegalArgumentException("Especifique o texto a procurar");
+            }
+            return (termos.size() == 1) ? new Contem(termos.get(0)) : new VariosTermos(termos);
+        }
+        return new Contem(minusculas(termo));
+    }
+
+    /**
+     * true se o texto satisfaz o critério.
+     */
+    public abstract boolean encontra(String texto);
+
+    /**
+     * Termos literais (já em minúsculas) dos quais o texto tem de conter pelo menos um,
+     * ou null se o critério é uma expressão regular. Usado pelo índice de trigramas.
+     */
+    List<String> getTermos() {
+        return null;
+    }
+
+    /**
+     * Forma normalizada do critério: dois termos com o mesmo texto aqui procuram o mesmo.
+     */
+    @Override
+    public abstract String toString();
+
+    /**
+     * Minúscula de um carácter: o ASCII por aritmética, o resto pelo Character.
+     */
+    static char minuscula(char c) {
+        if (c < 128) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * O texto com {@link #minuscula} em cada carácter (a mesma String se nada muda).
+     */
+    static String minusculas(String texto) {
+        char[] chars = null;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            char m = minuscula(c);
+            if (m != c) {
+                if (chars == null) {
+                    chars = texto.toCharArray();
+                }
+                chars[i] = m;
+            }
+        }
+        return (chars != null) ? new String(chars) : texto;
+    }
+
+    /**
+     * Contém o termo: comparação carácter a carácter, convertendo só o texto.
+     */
+    private static final class Contem extends TextMatcher {
+        private final String termo;
+        private final char[] chars;
+
+        Contem(String termo) {
+            this.termo = termo;
+            this.chars = termo.toCharArray();
+        }
+
+        @Override
+        public boolean encontra(String texto) {
+            int n = chars.length;
+            int ultimo = texto.length() - n;
+            char primeiro = chars[0];
+            for (int i = 0; i <= ultimo; i++) {
+                if (minuscula(texto.charAt(i)) != primeiro) {
+                    continue;
+                }
+                int j = 1;
+                while (j < n && minuscula(texto.charAt(i + j)) == chars[j]) {
+                    j++;
+                }
+                if (j == n) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        List<String> getTermos() {
+            return Collections.singletonList(termo);
+        }
+
+        @Override
+        public String toString() {
+            return termo;
+        }
+    }
+
+    /**
+     * Vários termos num autómato de Aho–Corasick, convertido num AFD: por carácter
+     * do texto é feita uma única consulta à tabela de transições, qualquer que seja
+     * o número de termos.
+     */
+    private static final class VariosTermos extends TextMatcher {
+        private final List<String> termos;
+        // Classe de cada carácter dos termos (0 = nenhum termo o usa): ASCII numa
+        // tabela, os outros por pesquisa binária em 'outros'
+        private final int[] classeAscii = new int[128];
+        private final char[] outros;
+        private final int[] classeOutros;
+        private final int classes;
+        // transicoes[estado * classes + classe]; aceita[estado] se algum termo termina aqui
+        private final int[] transicoes;
+        private final boolean[] aceita;
+
+        VariosTermos(List<String> termos) {
+            this.termos = Collections.unmodifiableList(new ArrayList<>(termos));
+
+            // Alfabeto: os caracteres distintos dos termos
+            StringBuilder naoAscii = new StringBuilder();
+            int proximaClasse = 1;
+            for (String termo : termos) {
+                for (int i = 0; i < termo.length(); i++) {
+                    char c = termo.charAt(i);
+                    if (c < 128) {
+                        if (classeAscii[c] == 0) classeAscii[c] = proximaClasse++;
+                    } else if (naoAscii.indexOf(String.valueOf(c)) < 0) {
+                        naoAscii.append(c);
+                    }
+                }
+            }
+            outros = naoAscii.toString().toCharArray();
+            Arrays.sort(outros);
+            classeOutros = new int[outros.length];
+            for (int i = 0; i < outros.length; i++) {
+                classeOutros[i] = proximaClasse++;
+            }
+            classes = proximaClasse;
+
+            // Trie dos termos
+            int maxEstados = 1;
+            for (String termo : termos) maxEstados += termo.length();
+            int[] trie = new int[maxEstados * classes];
+            Arrays.fill(trie, -1);
+            boolean[] fim = new boolean[maxEstados];
+            int estados = 1;
+            for (String termo : termos) {
+                int estado = 0;
+                for (int i = 0; i < termo.length(); i++) {
+                    int k = estado * classes + classe(termo.charAt(i));
+                    if (trie[k] < 0) {
+                        trie[k] = estados++;
+                    }
+                    estado = trie[k];
+                }
+                fim[estado] = true;
+            }
+
+            // Ligações de falha em largura, preenchendo as transições em falta (AFD completo)
+            transicoes = Arrays.copyOf(trie, estados * classes);
+            aceita = Arrays.copyOf(fim, estados);
+            int[] falha = new int[estados];
+            ArrayDeque<Integer> fila = new ArrayDeque<>();
+            for (int c = 0; c < classes; c++) {
+                int filho = transicoes[c];
+                if (filho < 0) {
+                    transicoes[c] = 0;
+                } else {
+                    falha[filho] = 0;
+                    fila.add(filho);
+                }
+            }
+            while (!fila.isEmpty()) {
+                int estado = fila.poll();
+                aceita[estado] |= aceita[falha[estado]];
+                for (int c = 0; c < classes; c++) {
+                    int k = estado * classes + c;
+                    int filho = transicoes[k];
+                    int destinoFalha = transicoes[falha[estado] * classes + c];
+                    if (filho < 0) {
+                        transicoes[k] = destinoFalha;
+                    } else {
+                        falha[filho] = destinoFalha;
+                        fila.add(filho);
+                    }
+                }
+            }
+        }
+
+        private int classe(char c) {
+            if (c < 128) {
+                return classeAscii[c];
+            }
+            int i = Arrays.binarySearch(outros, c);
+            return (i >= 0) ? classeOutros[i] : 0;
+        }
+
+        @Override
+        public boolean encontra(String texto) {
+            int estado = 0;
+            for (int i = 0; i < texto.length(); i++) {
+                estado = transicoes[estado * classes + classe(minuscula(texto.charAt(i)))];
+                if (aceita[estado]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        List<String> getTermos() {
+            return termos;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(String.valueOf(SEPARADOR_TERMOS), termos);
+        }
+    }
+
+    /**
+     * Expressão regular compilada com CASE_INSENSITIVE; procura em qualquer posição do texto.
+     */
+    private static final class Regex extends TextMatcher {
+        private final Pattern pattern;
+
+        Regex(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean encontra(String texto) {
+            return pattern.matcher(texto).find();
+        }
+
+        @Override
+        public String toString() {
+            return PREFIXO_REGEX + pattern.pattern();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package br.com.saveeditor.brasfoot.util;
+
+import com.esotericsoftware.asm.ClassWriter;
+import com.esotericsoftware.asm.Label;
+import com.esotericsoftware.asm.MethodVisitor;
+import com.esotericsoftware.asm.Opcodes;
+import com.esotericsoftware.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gera com o ASM (o do Kryo/ReflectASM) uma subclasse de {@link ClassAccessor} para
+ * uma classe, com GETFIELD/PUTFIELD diretos em cada campo.
+ * Os campos das classes do jogo são privados: a classe gerada é definida como
+ * classe escondida no ninho da classe alvo (Java 15+) ou, em Javas anteriores,
+ * como classe anónima com a alvo como anfitriã (Unsafe.defineAnonymousClass).
+ * Se nenhum dos dois existir, {@link #gerar} devolve null e o acesso fica com os
+ * MethodHandles do {@link FieldAccessor}.
+ */
+final class AccessorGenerator implements Opcodes {
+
+    private static final String BASE = Type.getInternalName(ClassAccessor.class);
+    private static final String OBJETO = "java/lang/Object";
+
+    private AccessorGenerator() {
+    }
+
+    /**
+     * Acessor gerado para os campos de instância declarados na classe, ou null se
+     * a JVM não permite definir a classe gerada.
+     */
+    static ClassAccessor gerar(Class<?> classe) {
+        List<Field> campos = new ArrayList<>();
+        for (Field field : classe.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && acessivel(field.getType(), classe)) {
+                campos.add(field);
+            }
+        }
+        try {
+            byte[] bytes = bytecode(classe, campos);
+            Class<?> gerada = definir(classe, bytes);
+            ClassAccessor acessor = (ClassAccessor) gerada.getDeclaredConstructor().newInstance();
+            acessor.nomes = new String[campos.size()];
+            acessor.escrita = new boolean[campos.size()];
+            for (int i = 0; i < campos.size(); i++) {
+                acessor.nomes[i] = campos.get(i).getName();
+                acessor.escrita[i] = !Modifier.isFinal(campos.get(i).getModifiers());
+            }
+            return acessor;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * Se a classe gerada (no pacote da alvo) pode referir o tipo num CHECKCAST.
+     */
+    private static boolean acessivel(Class<?> tipo, Class<?> alvo) {
+        while (tipo.isArray()) {
+            tipo = tipo.getComponentType();
+        }
+        if (tipo.isPrimitive() || Modifier.isPublic(tipo.getModifiers())) {
+            return true;
+        }
+        return !Modifier.isPrivate(tipo.getModifiers()) && tipo.getClassLoader() == alvo.getClassLoader()
+                && pacote(tipo).equals(pacote(alvo));
+    }
+
+    private static String pacote(Class<?> classe) {
+        String nome = classe.getName();
+        int ponto = nome.lastIndexOf('.');
+        return (ponto < 0) ? "" : nome.substring(0, ponto);
+    }
+
+    private static byte[] bytecode(Class<?> classe, List<Field> campos) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String tipo1, String tipo2) {
+                // Os frames só juntam caminhos que terminam em return/throw: não é preciso carregar classes
+                return OBJETO;
+            }
+        };
+        String alvo = Type.getInternalName(classe);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, alvo + "$$Acessor", null, BASE, null);
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, BASE, "<init>", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        List<Integer> todos = new ArrayList<>();
+        List<Integer> escrita = new ArrayList<>();
+        List<Integer> ints = new ArrayList<>();
+        List<Integer> intsEscrita = new ArrayList<>();
+        List<Integer> booleanos = new ArrayList<>();
+        List<Integer> booleanosEscrita = new ArrayList<>();
+        for (int i = 0; i < campos.size(); i++) {
+            Field field = campos.get(i);
+            boolean mutavel = !Modifier.isFinal(field.getModifiers());
+            todos.add(i);
+            if (mutavel) escrita.add(i);
+            if (field.getType() == int.class) {
+                ints.add(i);
+                if (mutavel) intsEscrita.add(i);
+            } else if (field.getType() == boolean.class) {
+                booleanos.add(i);
+                if (mutavel) booleanosEscrita.add(i);
+            }
+        }
+
+        metodo(cw, "get", "(Ljava/lang/Object;I)Ljava/lang/Object;", alvo, campos, todos, (m, f) -> {
+            m.visitFieldInsn(GETFIELD, alvo, f.getName(), Type.getDescriptor(f.getType()));
+            encaixotar(m, f.getType());
+            m.visitInsn(ARETURN);
+        });
+        metodo(cw, "set", "(Ljava/lang/Object;ILjava/lang/Object;)V", alvo, campos, escrita, (m, f) -> {
+            m.visitVarInsn(ALOAD, 3);
+            desencaixotar(m, f.getType());
+            m.visitFieldInsn(PUTFIELD, alvo, f.getName(), Type.getDescriptor(f.getType()));
+            m.visitInsn(RETURN);
+        });
+        metodo(cw, "getInt", "(Ljava/lang/Object;I)I", alvo, campos, ints, (m, f) -> {
+            m.visitFieldInsn(GETFIELD, alvo, f.getName(), "I");
+            m.visitInsn(IRETURN);
+        });
+        metodo(cw, "setInt", "(Ljava/lang/Object;II)V", alvo, campos, intsEscrita, (m, f) -> {
+            m.visitVarInsn(ILOAD, 3);
+            m.visitFieldInsn(PUTFIELD, alvo, f.getName(), "I");
+            m.visitInsn(RETURN);
+        });
+        metodo(cw, "getBoolean", "(Ljava/lang/Object;I)Z", alvo, campos, booleanos, (m, f) -> {
+            m.visitFieldInsn(GETFIELD, alvo, f.getName(), "Z");
+            m.visitInsn(IRETURN);
+        });
+        metodo(cw, "setBoolean", "(Ljava/lang/Object;IZ)V", alvo, campos, booleanosEscrita, (m, f) -> {
+            m.visitVarInsn(ILOAD, 3);
+            m.visitFieldInsn(PUTFIELD, alvo, f.getName(), "Z");
+            m.visitInsn(RETURN);
+        });
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * Um método com um lookupswitch pelo índice (argumento 2): em cada caso o objeto
+     * (argumento 1) já está convertido na pilha; o resto vem do corpo. Índices fora
+     * da lista lançam campoInvalido.
+     */
+    private static void metodo(ClassWriter cw, String nome, String descritor, String alvo, List<Field> campos,
+                               List<Integer> indices, Corpo corpo) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, nome, descritor, null, null);
+        mv.visitCode();
+        Label invalido = new Label();
+        if (!indices.isEmpty()) {
+            int[] chaves = new int[indices.size()];
+            Label[] casos = new Label[indices.size()];
+            for (int i = 0; i < chaves.length; i++) {
+                chaves[i] = indices.get(i);
+                casos[i] = new Label();
+            }
+            mv.visitVarInsn(ILOAD, 2);
+            mv.visitLookupSwitchInsn(invalido, chaves, casos);
+            for (int i = 0; i < chaves.length; i++) {
+                mv.visitLabel(casos[i]);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitTypeInsn(CHECKCAST, alvo);
+                corpo.emitir(mv, campos.get(chaves[i]));
+            }
+        }
+        mv.visitLabel(invalido);
+        mv.visitVarInsn(ILOAD, 2);
+        mv.visitMethodInsn(INVOKESTATIC, BASE, "campoInvalido", "(I)Ljava/lang/RuntimeException;", false);
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private interface Corpo {
+        void emitir(MethodVisitor mv, Field campo);
+    }
+
+    private static void encaixotar(MethodVisitor mv, Class<?> tipo) {
+        if (!tipo.isPrimitive()) {
+            return;
+        }
+        String wrapper = Type.getInternalName(wrapper(tipo));
+        mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf",
+                "(" + Type.getDescriptor(tipo) + ")L" + wrapper + ";", false);
+    }
+
+    private static void desencaixotar(MethodVisitor mv, Class<?> tipo) {
+        if (!tipo.isPrimitive()) {
+            mv.visitTypeInsn(CHECKCAST, Type.getInternalName(tipo));
+            return;
+        }
+        String wrapper = Type.getInternalName(wrapper(tipo));
+        mv.visitTypeInsn(CHECKCAST, wrapper);
+        mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, tipo.getName() + "Value", "()" + Type.getDescriptor(tipo), false);
+    }
+
+    private static Class<?> wrapper(Class<?> tipo) {
+        if (tipo == int.class) return Integer.class;
+        if (tipo == long.class) return Long.class;
+        if (tipo == double.class) return Double.class;
+        if (tipo == boolean.class) return Boolean.class;
+        if (tipo == float.class) return Float.class;
+        if (tipo == short.class) return Short.class;
+        if (tipo == byte.class) return Byte.class;
+        return Character.class;
+    }
+
+    /**
+     * Define a classe gerada com acesso aos campos privados da anfitriã. As APIs são
+     * chamadas por reflexão: o código compila para Java 8, onde a primeira não existe.
+     */
+    private static Class<?> definir(Class<?> anfitria, byte[] bytes) throws Exception {
+        Method privateLookupIn;
+        Method defineHiddenClass;
+        Class<?> opcao;
+        try {
+            privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+            opcao = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass",
+                    byte[].class, boolean.class, Array.newInstance(opcao, 0).getClass());
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            // Java 8 a 14
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Method defineAnonymousClass = unsafeClass.getMethod("defineAnonymousClass", Class.class, byte[].class, Object[].class);
+            return (Class<?>) defineAnonymousClass.invoke(theUnsafe.get(null), anfitria, bytes, null);
+        }
+        MethodHandles.Lookup lookup = (MethodHandles.Lookup) privateLookupIn.invoke(null, anfitria, MethodHandles.lookup());
+        Object opcoes = Array.newInstance(opcao, 1);
+        Array.set(opcoes, 0, opcao.getField("NESTMATE").get(null));
+        MethodHandles.Lookup definida = (MethodHandles.Lookup) defineHiddenClass.invoke(lookup, bytes, true, opcoes);
+        return definida.lookupClass();
+    }
+}
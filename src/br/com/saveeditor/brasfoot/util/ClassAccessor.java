@@ -0,0 +1,55 @@
+package br.com.saveeditor.brasfoot.util;
+
+/**
+ * Acesso direto aos campos de uma classe, com o bytecode gerado pelo {@link AccessorGenerator}.
+ * Cada campo suportado tem um índice; os métodos escolhem o campo com um switch e
+ * leem ou escrevem com GETFIELD/PUTFIELD, sem reflexão. As variantes tipadas só
+ * aceitam campos desse tipo primitivo.
+ */
+public abstract class ClassAccessor {
+
+    // Preenchidos pelo gerador depois de criar a instância
+    String[] nomes;
+    boolean[] escrita;
+
+    protected ClassAccessor() {
+    }
+
+    /**
+     * Índice do campo, ou -1 se não foi gerado (static, tipo inacessível...).
+     */
+    public int indice(String nome) {
+        for (int i = 0; i < nomes.length; i++) {
+            if (nomes[i].equals(nome)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * false nos campos final: o set deles fica com a reflexão.
+     */
+    public boolean isEscrita(int campo) {
+        return escrita[campo];
+    }
+
+    public abstract Object get(Object obj, int campo);
+
+    /**
+     * O valor tem de ser do tipo do campo (o wrapper nos primitivos).
+     */
+    public abstract void set(Object obj, int campo, Object valor);
+
+    public abstract int getInt(Object obj, int campo);
+
+    public abstract void setInt(Object obj, int campo, int valor);
+
+    public abstract boolean getBoolean(Object obj, int campo);
+
+    public abstract void setBoolean(Object obj, int campo, boolean valor);
+
+    protected static RuntimeException campoInvalido(int campo) {
+        return new IllegalArgumentException("Campo " + campo + " não suportado por este acessor");
+    }
+}
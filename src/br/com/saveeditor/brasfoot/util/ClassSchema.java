@@ -0,0 +1,155 @@
+package br.com.saveeditor.brasfoot.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Os campos de uma classe, lidos uma vez por execução: a lista pela ordem da
+ * declaração e ordenada pelo nome, o tipo de cada um já classificado e o acessor
+ * do {@link FieldAccessorRegistry}. As tabelas, a árvore, o diálogo de edição e a
+ * busca consultam este cache em vez de repetir getDeclaredFields e setAccessible.
+ * Tal como o getDeclaredFields, só inclui os campos declarados na própria classe
+ * (sem os sintéticos).
+ */
+public final class ClassSchema {
+
+    /**
+     * Categoria do tipo declarado de um campo.
+     */
+    public enum Tipo {
+        /** Primitivos e os seus wrappers. */
+        PRIMITIVO,
+        TEXTO,
+        /** Collection ou Map. */
+        COLECAO,
+        ARRAY,
+        /** Qualquer outro objeto (em geral uma classe do jogo). */
+        COMPLEXO;
+
+        public static Tipo de(Class<?> tipo) {
+            if (tipo.isPrimitive() || Number.class.isAssignableFrom(tipo)
+                    || tipo == Boolean.class || tipo == Character.class) {
+                return PRIMITIVO;
+            }
+            if (tipo == String.class) return TEXTO;
+            if (tipo.isArray()) return ARRAY;
+            if (Collection.class.isAssignableFrom(tipo) || Map.class.isAssignableFrom(tipo)) return COLECAO;
+            return COMPLEXO;
+        }
+    }
+
+    private static final ClassValue<ClassSchema> CACHE = new ClassValue<ClassSchema>() {
+        @Override
+        protected ClassSchema computeValue(Class<?> classe) {
+            return new ClassSchema(classe);
+        }
+    };
+
+    private final Class<?> classe;
+    private final Campo[] campos;
+    private final Campo[] ordenados;
+    private final Field[] instancia;
+
+    private ClassSchema(Class<?> classe) {
+        this.classe = classe;
+        List<Campo> lidos = new ArrayList<>();
+        List<Field> deInstancia = new ArrayList<>();
+        for (Field field : classe.getDeclaredFields()) {
+            if (field.isSynthetic()) continue;
+            Campo campo = new Campo(field, FieldAccessorRegistry.getInstance().procurar(classe, field.getName()));
+            lidos.add(campo);
+            if (!campo.isEstatico() && campo.isAcessivel()) {
+                deInstancia.add(campo.getField());
+            }
+        }
+        this.campos = lidos.toArray(new Campo[0]);
+        this.ordenados = campos.clone();
+        Arrays.sort(ordenados, Comparator.comparing(Campo::getNome));
+        this.instancia = deInstancia.toArray(new Field[0]);
+    }
+
+    public static ClassSchema de(Class<?> classe) {
+        return CACHE.get(classe);
+    }
+
+    public Class<?> getClasse() { return classe; }
+
+    /**
+     * Todos os campos (incluindo os static), pela ordem da declaração. Não alterar o array.
+     */
+    public Campo[] getCampos() { return campos; }
+
+    /**
+     * Todos os campos ordenados pelo nome. Não alterar o array.
+     */
+    public Campo[] getCamposOrdenados() { return ordenados; }
+
+    /**
+     * Os Field de instância acessíveis, pela ordem da declaração (os que a travessia
+     * do grafo segue). Não alterar o array.
+     */
+    public Field[] getFieldsInstancia() { return instancia; }
+
+    /**
+     * Campo pelo nome, ou null.
+     */
+    public Campo getCampo(String nome) {
+        for (Campo campo : campos) {
+            if (campo.nome.equals(nome)) {
+                return campo;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Um campo: o Field, a categoria do tipo e o acessor (null se o campo não é acessível).
+     */
+    public static final class Campo {
+        private final Field field;
+        private final String nome;
+        private final Tipo tipo;
+        private final boolean estatico;
+        private final FieldAccessor acessor;
+
+        Campo(Field field, FieldAccessor acessor) {
+            // O Field do acessor já passou pelo setAccessible
+            this.field = (acessor != null) ? acessor.getField() : field;
+            this.nome = field.getName();
+            this.tipo = Tipo.de(field.getType());
+            this.estatico = Modifier.isStatic(field.getModifiers());
+            this.acessor = acessor;
+        }
+
+        public Field getField() { return field; }
+        public String getNome() { return nome; }
+        public Class<?> getTipoDeclarado() { return field.getType(); }
+        public Tipo getTipo() { return tipo; }
+        public boolean isEstatico() { return estatico; }
+        public boolean isAcessivel() { return acessor != null; }
+        public FieldAccessor getAcessor() { return acessor; }
+
+        /**
+         * Primitivo, wrapper ou String: editável como texto.
+         */
+        public boolean isSimples() {
+            return tipo == Tipo.PRIMITIVO || tipo == Tipo.TEXTO;
+        }
+
+        /**
+         * @throws IllegalAccessException se o campo não é acessível
+         */
+        public Object ler(Object obj) throws IllegalAccessException {
+            if (acessor == null) {
+                throw new IllegalAccessException("Campo '" + nome + "' inacessível");
+            }
+            return acessor.get(obj);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package br.com.saveeditor.brasfoot.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Leitura e escrita de um campo, resolvidas uma vez pelo {@link FieldAccessorRegistry}.
+ * Usa MethodHandles já adaptados ao tipo do campo: os campos primitivos têm também
+ * caminhos tipados (getInt/setInt, setByte, setChar...) que não criam objetos.
+ * Nas classes do jogo, quando há um {@link ClassAccessor} gerado, usa-o em vez
+ * dos handles (leitura e escrita diretas no bytecode).
+ */
+public final class FieldAccessor {
+
+    private static final MethodType GET = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SET = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final Class<?> tipo;
+    // Tipo do valor que o setter genérico aceita sem conversão (o wrapper nos primitivos)
+    private final Class<?> tipoValor;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    // Só no tipo primitivo correspondente; null nos outros campos
+    private final MethodHandle getterInt;
+    private final MethodHandle setterInt;
+    private final MethodHandle getterLong;
+    private final MethodHandle setterLong;
+    private final MethodHandle getterDouble;
+    private final MethodHandle setterDouble;
+    private final MethodHandle getterBoolean;
+    private final MethodHandle setterBoolean;
+    private final MethodHandle getterFloat;
+    private final MethodHandle setterFloat;
+    private final MethodHandle getterByte;
+    private final MethodHandle setterByte;
+    private final MethodHandle getterShort;
+    private final MethodHandle setterShort;
+    private final MethodHandle getterChar;
+    private final MethodHandle setterChar;
+    // Acessor gerado da classe e índice do campo nele (-1 se não foi gerado)
+    private final ClassAccessor gerado;
+    private final int indice;
+    private final boolean escritaGerada;
+
+    FieldAccessor(Field field, ClassAccessor gerado) throws IllegalAccessException {
+        field.setAccessible(true);
+        this.field = field;
+        this.tipo = field.getType();
+        this.tipoValor = wrapper(tipo);
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle get = lookup.unreflectGetter(field);
+        MethodHandle set;
+        try {
+            set = lookup.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            // Campo static final: a escrita fica com o Field (que a recusa)
+            set = null;
+        }
+        if (Modifier.isStatic(field.getModifiers())) {
+            // Campos static: o objeto passado é ignorado, como no Field
+            get = MethodHandles.dropArguments(get, 0, Object.class);
+            set = (set != null) ? MethodHandles.dropArguments(set, 0, Object.class) : null;
+        }
+        this.getter = get.asType(GET);
+        this.setter = (set != null) ? set.asType(SET) : null;
+        this.getterInt = tipado(get, tipo, int.class, true);
+        this.setterInt = tipado(set, tipo, int.class, false);
+        this.getterLong = tipado(get, tipo, long.class, true);
+        this.setterLong = tipado(set, tipo, long.class, false);
+        this.getterDouble = tipado(get, tipo, double.class, true);
+        this.setterDouble = tipado(set, tipo, double.class, false);
+        this.getterBoolean = tipado(get, tipo, boolean.class, true);
+        this.setterBoolean = tipado(set, tipo, boolean.class, false);
+        this.getterFloat = tipado(get, tipo, float.class, true);
+        this.setterFloat = tipado(set, tipo, float.class, false);
+        this.getterByte = tipado(get, tipo, byte.class, true);
+        this.setterByte = tipado(set, tipo, byte.class, false);
+        this.getterShort = tipado(get, tipo, short.class, true);
+        this.setterShort = tipado(set, tipo, short.class, false);
+        this.getterChar = tipado(get, tipo, char.class, true);
+        this.setterChar = tipado(set, tipo, char.class, false);
+        this.indice = (gerado != null) ? gerado.indice(field.getName()) : -1;
+        this.gerado = (indice >= 0) ? gerado : null;
+        this.escritaGerada = indice >= 0 && gerado.isEscrita(indice);
+    }
+
+    private static MethodHandle tipado(MethodHandle handle, Class<?> tipo, Class<?> primitivo, boolean leitura) {
+        if (tipo != primitivo || handle == null) {
+            return null;
+        }
+        return handle.asType(leitura
+                ? MethodType.methodType(primitivo, Object.class)
+                : MethodType.methodType(void.class, Object.class, primitivo));
+    }
+
+    private static Class<?> wrapper(Class<?> tipo) {
+        if (!tipo.isPrimitive()) return tipo;
+        if (tipo == int.class) return Integer.class;
+        if (tipo == long.class) return Long.class;
+        if (tipo == double.class) return Double.class;
+        if (tipo == boolean.class) return Boolean.class;
+        if (tipo == float.class) return Float.class;
+        if (tipo == short.class) return Short.class;
+        if (tipo == byte.class) return Byte.class;
+        return Character.class;
+    }
+
+    public Field getField() { return field; }
+    public Class<?> getTipo() { return tipo; }
+    public String getNome() { return field.getName(); }
+
+    public Object get(Object obj) {
+        if (gerado != null) {
+            return gerado.get(obj, indice);
+        }
+        try {
+            return getter.invokeExact(obj);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    /**
+     * Mesmas regras do Field.set: valores de outro tipo (por exemplo um Integer
+     * num campo long) passam pelo Field, que faz o alargamento ou recusa com
+     * IllegalArgumentException.
+     */
+    public void set(Object obj, Object valor) throws IllegalAccessException {
+        if (setter == null || (valor == null ? tipo.isPrimitive() : !tipoValor.isInstance(valor))) {
+            field.set(obj, valor);
+            return;
+        }
+        if (escritaGerada) {
+            gerado.set(obj, indice, valor);
+            return;
+        }
+        try {
+            setter.invokeExact(obj, valor);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public int getInt(Object obj) throws IllegalAccessException {
+        if (getterInt == null) {
+            return field.getInt(obj);
+        }
+        if (gerado != null) {
+            return gerado.getInt(obj, indice);
+        }
+        try {
+            return (int) getterInt.invokeExact(obj);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public void setInt(Object obj, int valor) throws IllegalAccessException {
+        if (setterInt == null) {
+            field.setInt(obj, valor);
+            return;
+        }
+        if (escritaGerada) {
+            gerado.setInt(obj, indice, valor);
+            return;
+        }
+        try {
+            setterInt.invokeExact(obj, valor);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public long getLong(Object obj) throws IllegalAccessException {
+        if (getterLong == null) {
+            return field.getLong(obj);
+        }
+        try {
+            return (long) getterLong.invokeExact(obj);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public void setLong(Object obj, long valor) throws IllegalAccessException {
+        if (setterLong == null) {
+            field.setLong(obj, valor);
+            return;
+        }
+        try {
+            setterLong.invokeExact(obj, valor);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public double getDouble(Object obj) throws IllegalAccessException {
+        if (getterDouble == null) {
+            return field.getDouble(obj);
+        }
+        try {
+            return (double) getterDouble.invokeExact(obj);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public void setDouble(Object obj, double valor) throws IllegalAccessException {
+        if (setterDouble == null) {
+            field.setDouble(obj, valor);
+            return;
+        }
+        try {
+            setterDouble.invokeExact(obj, valor);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public boolean getBoolean(Object obj) throws IllegalAccessException {
+        if (getterBoolean == null) {
+            return field.getBoolean(obj);
+        }
+        if (gerado != null) {
+            return gerado.getBoolean(obj, indice);
+        }
+        try {
+            return (boolean) getterBoolean.invokeExact(obj);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public void setBoolean(Object obj, boolean valor) throws IllegalAccessException {
+        if (setterBoolean == null) {
+            field.setBoolean(obj, valor);
+            return;
+        }
+        if (escritaGerada) {
+            gerado.setBoolean(obj, indice, valor);
+            return;
+        }
+        try {
+            setterBoolean.invokeExact(obj, valor);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public float getFloat(Object obj) throws IllegalAccessException {
+        if (getterFloat == null) {
+            return field.getFloat(obj);
+        }
+        try {
+            return (float) getterFloat.invokeExact(obj);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public void setFloat(Object obj, float valor) throws IllegalAccessException {
+        if (setterFloat == null) {
+            field.setFloat(obj, valor);
+            return;
+        }
+        try {
+            setterFloat.invokeExact(obj, valor);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public byte getByte(Object obj) throws IllegalAccessException {
+        if (getterByte == null) {
+            return field.getByte(obj);
+        }
+        try {
+            return (byte) getterByte.invokeExact(obj);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public void setByte(Object obj, byte valor) throws IllegalAccessException {
+        if (setterByte == null) {
+            field.setByte(obj, valor);
+            return;
+        }
+        try {
+            setterByte.invokeExact(obj, valor);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public short getShort(Object obj) throws IllegalAccessException {
+        if (getterShort == null) {
+            return field.getShort(obj);
+        }
+        try {
+            return (short) getterShort.invokeExact(obj);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public void setShort(Object obj, short valor) throws IllegalAccessException {
+        if (setterShort == null) {
+            field.setShort(obj, valor);
+            return;
+        }
+        try {
+            setterShort.invokeExact(obj, valor);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public char getChar(Object obj) throws IllegalAccessException {
+        if (getterChar == null) {
+            return field.getChar(obj);
+        }
+        try {
+            return (char) getterChar.invokeExact(obj);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    public void setChar(Object obj, char valor) throws IllegalAccessException {
+        if (setterChar == null) {
+            field.setChar(obj, valor);
+            return;
+        }
+        try {
+            setterChar.invokeExact(obj, valor);
+        } catch (Throwable t) {
+            throw relancar(t);
+        }
+    }
+
+    /**
+     * Os handles só lançam o que o acesso ao campo lança (ClassCastException se o
+     * objeto não é da classe, NullPointerException se é null).
+     */
+    private static RuntimeException relancar(Throwable t) {
+        if (t instanceof RuntimeException) return (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        return new IllegalStateException(t);
+    }
+
+    @Override
+    public String toString() {
+        return field.getDeclaringClass().getName() + "." + field.getName();
+    }
+}
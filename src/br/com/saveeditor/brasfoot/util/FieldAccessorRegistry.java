@@ -0,0 +1,100 @@
+package br.com.saveeditor.brasfoot.util;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Acessores de campos por (classe, nome), resolvidos na primeira vez e reutilizados:
+ * o getDeclaredField e o setAccessible deixam de correr em cada leitura ou escrita.
+ * Tal como o getDeclaredField, só vê os campos declarados na própria classe.
+ * Os campos que não existem também ficam registados, para não repetir a procura.
+ * Nas classes do jogo (pacote {@value #PACOTE_JOGO}) os acessores usam uma classe
+ * gerada em bytecode pelo {@link AccessorGenerator}, uma por classe.
+ */
+public final class FieldAccessorRegistry {
+
+    public static final String PACOTE_JOGO = "best";
+
+    private static final FieldAccessorRegistry INSTANCE = new FieldAccessorRegistry();
+
+    // Marca de campo inexistente no mapa de cada classe
+    private static final Object AUSENTE = new Object();
+
+    // ClassValue: a entrada vai embora com a classe, sem prender o class loader
+    private final ClassValue<Map<String, Object>> porClasse = new ClassValue<Map<String, Object>>() {
+        @Override
+        protected Map<String, Object> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    // Acessor gerado por classe do jogo (null nas outras, ou se a JVM não deixa gerar)
+    private final ClassValue<ClassAccessor> gerados = new ClassValue<ClassAccessor>() {
+        @Override
+        protected ClassAccessor computeValue(Class<?> type) {
+            Package pacote = type.getPackage();
+            if (pacote == null || !pacote.getName().equals(PACOTE_JOGO)) {
+                return null;
+            }
+            return AccessorGenerator.gerar(type);
+        }
+    };
+
+    private FieldAccessorRegistry() {
+    }
+
+    public static FieldAccessorRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Acessor do campo declarado na classe.
+     *
+     * @throws NoSuchFieldException se a classe não declara o campo
+     */
+    public FieldAccessor obter(Class<?> classe, String nome) throws NoSuchFieldException {
+        FieldAccessor acessor = procurar(classe, nome);
+        if (acessor == null) {
+            throw new NoSuchFieldException(nome);
+        }
+        return acessor;
+    }
+
+    /**
+     * Acessor do campo declarado na classe, ou null se ela não o declara.
+     */
+    public FieldAccessor procurar(Class<?> classe, String nome) {
+        Map<String, Object> campos = porClasse.get(classe);
+        Object acessor = campos.get(nome);
+        if (acessor == null) {
+            acessor = campos.computeIfAbsent(nome, n -> resolver(classe, n));
+        }
+        return (acessor == AUSENTE) ? null : (FieldAccessor) acessor;
+    }
+
+    /**
+     * Gera já o acessor da classe e resolve todos os campos dela, para que o primeiro
+     * acesso (numa edição) não pague a geração.
+     *
+     * @return true se a classe tem um acessor gerado
+     */
+    public boolean preparar(Class<?> classe) {
+        for (Field field : classe.getDeclaredFields()) {
+            procurar(classe, field.getName());
+        }
+        return gerados.get(classe) != null;
+    }
+
+    private Object resolver(Class<?> classe, String nome) {
+        try {
+            Field field = classe.getDeclaredField(nome);
+            return new FieldAccessor(field, gerados.get(classe));
+        } catch (NoSuchFieldException e) {
+            return AUSENTE;
+        } catch (IllegalAccessException | RuntimeException e) {
+            // Sem acesso (módulos fechados do JDK): tratado como inexistente, como antes falhava
+            return AUSENTE;
+        }
+    }
+}
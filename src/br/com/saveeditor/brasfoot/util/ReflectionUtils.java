@@ -1,37 +1,36 @@
 package br.com.saveeditor.brasfoot.util;
 
-import java.lang.reflect.Field;
-
 /**
  * Classe de utilitários para operações de reflexão (Reflection), como obter e
  * definir valores de campos privados e converter tipos.
  */
 public class ReflectionUtils {
 
+    /**
+     * Valor do campo declarado na classe do objeto. O acessor fica em cache
+     * no {@link FieldAccessorRegistry}.
+     */
     public static Object getFieldValue(Object obj, String fieldName) throws NoSuchFieldException, IllegalAccessException {
-        Field field = obj.getClass().getDeclaredField(fieldName);
-        field.setAccessible(true);
-        return field.get(obj);
+        return FieldAccessorRegistry.getInstance().obter(obj.getClass(), fieldName).get(obj);
     }
 
     public static void setFieldValue(Object obj, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
-        Field field = obj.getClass().getDeclaredField(fieldName);
-        field.setAccessible(true);
-        field.set(obj, value);
+        FieldAccessorRegistry.getInstance().obter(obj.getClass(), fieldName).set(obj, value);
+    }
+
+    /**
+     * Acessor em cache do campo declarado na classe do objeto, para vários acessos seguidos.
+     */
+    public static FieldAccessor getAccessor(Object obj, String fieldName) throws NoSuchFieldException {
+        return FieldAccessorRegistry.getInstance().obter(obj.getClass(), fieldName);
     }
 
+    /**
+     * Valor em caixa do texto convertido para o tipo do campo. Para gravar o mesmo
+     * valor em muitos objetos, usar {@link ValorConvertido} diretamente.
+     */
     public static Object converterStringParaTipoDoCampo(String valorStr, Class<?> tipoCampo) throws NumberFormatException {
-        if (tipoCampo == int.class || tipoCampo == Integer.class) return Integer.parseInt(valorStr);
-        if (tipoCampo == long.class || tipoCampo == Long.class) return Long.parseLong(valorStr);
-        if (tipoCampo == double.class || tipoCampo == Double.class) return Double.parseDouble(valorStr);
-        if (tipoCampo == float.class || tipoCampo == Float.class) return Float.parseFloat(valorStr);
-        if (tipoCampo == boolean.class || tipoCampo == Boolean.class) {
-            String lowerStr = valorStr.toLowerCase();
-            if ("true".equals(lowerStr) || "false".equals(lowerStr)) return Boolean.parseBoolean(valorStr);
-            throw new NumberFormatException("Valor inválido para booleano. Use 'true' ou 'false'.");
-        }
-        if (tipoCampo == String.class) return valorStr;
-        throw new NumberFormatException("Tipo de campo '" + tipoCampo.getSimpleName() + "' não suportado para modificação.");
+        return ValorConvertido.de(valorStr, tipoCampo).getValor();
     }
 
     public static boolean isComplexObject(Object obj) {
@@ -0,0 +1,119 @@
+package br.com.saveeditor.brasfoot.util;
+
+/**
+ * Um valor digitado, convertido uma vez para o tipo de um campo.
+ * Nas edições em massa o texto é lido só uma vez e {@link #escrever} grava em
+ * cada objeto pelos setters tipados do {@link FieldAccessor} (setInt, setByte,
+ * setChar...), sem criar objetos por item. O valor em caixa ({@link #getValor})
+ * também é criado uma só vez, para quem precisa dele (listeners, histórico).
+ */
+public final class ValorConvertido {
+
+    private final Class<?> tipo;
+    private final Object valor;
+    // O valor primitivo: inteiros, char e boolean (0/1) em 'inteiro'; float e double em 'real'
+    private final long inteiro;
+    private final double real;
+
+    private ValorConvertido(Class<?> tipo, Object valor, long inteiro, double real) {
+        this.tipo = tipo;
+        this.valor = valor;
+        this.inteiro = inteiro;
+        this.real = real;
+    }
+
+    /**
+     * Converte o texto para o tipo do campo.
+     *
+     * @throws NumberFormatException se o texto não é válido para o tipo, ou o tipo não é suportado
+     */
+    public static ValorConvertido de(String valorStr, Class<?> tipoCampo) throws NumberFormatException {
+        if (tipoCampo == int.class || tipoCampo == Integer.class) {
+            int v = Integer.parseInt(valorStr);
+            return new ValorConvertido(tipoCampo, v, v, 0);
+        }
+        if (tipoCampo == long.class || tipoCampo == Long.class) {
+            long v = Long.parseLong(valorStr);
+            return new ValorConvertido(tipoCampo, v, v, 0);
+        }
+        if (tipoCampo == short.class || tipoCampo == Short.class) {
+            short v = Short.parseShort(valorStr);
+            return new ValorConvertido(tipoCampo, v, v, 0);
+        }
+        if (tipoCampo == byte.class || tipoCampo == Byte.class) {
+            byte v = Byte.parseByte(valorStr);
+            return new ValorConvertido(tipoCampo, v, v, 0);
+        }
+        if (tipoCampo == double.class || tipoCampo == Double.class) {
+            double v = Double.parseDouble(valorStr);
+            return new ValorConvertido(tipoCampo, v, 0, v);
+        }
+        if (tipoCampo == float.class || tipoCampo == Float.class) {
+            float v = Float.parseFloat(valorStr);
+            return new ValorConvertido(tipoCampo, v, 0, v);
+        }
+        if (tipoCampo == boolean.class || tipoCampo == Boolean.class) {
+            String lowerStr = valorStr.toLowerCase();
+            if ("true".equals(lowerStr) || "false".equals(lowerStr)) {
+                boolean v = Boolean.parseBoolean(valorStr);
+                return new ValorConvertido(tipoCampo, v, v ? 1 : 0, 0);
+            }
+            throw new NumberFormatException("Valor inválido para booleano. Use 'true' ou 'false'.");
+        }
+        if (tipoCampo == char.class || tipoCampo == Character.class) {
+            if (valorStr.length() == 1) {
+                char v = valorStr.charAt(0);
+                return new ValorConvertido(tipoCampo, v, v, 0);
+            }
+            throw new NumberFormatException("Valor inválido para caractere. Use um único caractere.");
+        }
+        if (tipoCampo == String.class) {
+            return new ValorConvertido(tipoCampo, valorStr, 0, 0);
+        }
+        throw new NumberFormatException("Tipo de campo '" + tipoCampo.getSimpleName() + "' não suportado para modificação.");
+    }
+
+    /**
+     * Tipo do campo para o qual o valor foi convertido.
+     */
+    public Class<?> getTipo() {
+        return tipo;
+    }
+
+    /**
+     * O valor em caixa (o mesmo objeto em todas as chamadas).
+     */
+    public Object getValor() {
+        return valor;
+    }
+
+    /**
+     * Grava o valor no campo do objeto. Nos campos primitivos usa o setter tipado;
+     * o campo tem de ser do tipo para o qual o valor foi convertido.
+     */
+    public void escrever(FieldAccessor campo, Object obj) throws IllegalAccessException {
+        if (campo.getTipo() != tipo) {
+            throw new IllegalArgumentException("Valor convertido para " + tipo.getSimpleName()
+                    + ", o campo '" + campo.getNome() + "' é " + campo.getTipo().getSimpleName());
+        }
+        if (tipo == int.class) {
+            campo.setInt(obj, (int) inteiro);
+        } else if (tipo == boolean.class) {
+            campo.setBoolean(obj, inteiro != 0);
+        } else if (tipo == long.class) {
+            campo.setLong(obj, inteiro);
+        } else if (tipo == double.class) {
+            campo.setDouble(obj, real);
+        } else if (tipo == float.class) {
+            campo.setFloat(obj, (float) real);
+        } else if (tipo == short.class) {
+            campo.setShort(obj, (short) inteiro);
+        } else if (tipo == byte.class) {
+            campo.setByte(obj, (byte) inteiro);
+        } else if (tipo == char.class) {
+            campo.setChar(obj, (char) inteiro);
+        } else {
+            campo.set(obj, valor);
+        }
+    }
+}